@@ -29,6 +29,7 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Vector;
 
+import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.data.ParserException;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
@@ -41,6 +42,7 @@ import net.fortuna.ical4j.model.component.VTimeZone;
 import net.fortuna.ical4j.model.property.CalScale;
 import net.fortuna.ical4j.model.property.ProdId;
 import net.fortuna.ical4j.model.property.Version;
+import net.fortuna.ical4j.util.CompatibilityContext;
 import net.fortuna.ical4j.util.CompatibilityHints;
 
 import org.apache.commons.httpclient.Header;
@@ -820,11 +822,19 @@ public class CalDAVCollection extends CalDAVCalendarCollectionBase{
 				if (! isTolerantParsing()) {
 					throw pe;
 				}
-				CompatibilityHints.setHintEnabled(CompatibilityHints.KEY_RELAXED_UNFOLDING, false);
-				CompatibilityHints.setHintEnabled(CompatibilityHints.KEY_RELAXED_PARSING, false);
-				CompatibilityHints.setHintEnabled(CompatibilityHints.KEY_OUTLOOK_COMPATIBILITY, true);
-				CompatibilityHints.setHintEnabled(CompatibilityHints.KEY_RELAXED_VALIDATION, false);
-				calendar = getMethod.getResponseBodyAsCalendar();
+				// retry with the hints applied to this build only, as other threads may be building calendars..
+				CalendarBuilder builder = getMethod.getCalendarBuilder();
+				CompatibilityContext context = builder.getCompatibilityContext();
+				builder.setCompatibilityContext(new CompatibilityContext()
+						.withHint(CompatibilityHints.KEY_RELAXED_UNFOLDING, false)
+						.withHint(CompatibilityHints.KEY_RELAXED_PARSING, false)
+						.withHint(CompatibilityHints.KEY_OUTLOOK_COMPATIBILITY, true)
+						.withHint(CompatibilityHints.KEY_RELAXED_VALIDATION, false));
+				try {
+					calendar = getMethod.getResponseBodyAsCalendar();
+				} finally {
+					builder.setCompatibilityContext(context);
+				}
 			}
 		} catch (Exception e) {
 				try {
@@ -97,7 +97,9 @@ public class ITipUtils {
 			if (! (o instanceof VTimeZone)) {
 
 				CalendarComponent cc = (CalendarComponent) o;
-				PropertyList attendees = cc.getProperties(Property.ATTENDEE);
+				// copy the attendees, as the list returned is a read-only view..
+				PropertyList attendees = new PropertyList();
+				attendees.addAll(cc.getProperties(Property.ATTENDEE));
 				cc.getProperties().removeAll(attendees);
 
 				//remove attendees unmatching user
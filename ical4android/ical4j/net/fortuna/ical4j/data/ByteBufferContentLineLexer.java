@@ -0,0 +1,480 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.data;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A content line lexer that scans UTF-8 encoded iCalendar data directly from a byte buffer, such as a memory-mapped
+ * file. Line endings, folds and delimiters are identified in the encoded bytes, and characters are only decoded for
+ * the tokens and values requested by the parser. Folded lines are unfolded as they are scanned according to the same
+ * rules as {@link UnfoldingReader}. As for a {@link java.io.Reader}, the line number excludes folded lines, which are
+ * counted separately.
+ * 
+ * Malformed UTF-8 sequences are decoded as the replacement character (U+FFFD).
+ * @author Ben Fortuna
+ */
+final class ByteBufferContentLineLexer extends ContentLineLexer {
+
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+    private final ByteBuffer buffer;
+
+    private final boolean relaxed;
+
+    private int position;
+
+    private final int limit;
+
+    private int tokenStart;
+
+    private int tokenEnd;
+
+    private String quoted;
+
+    private int linesUnfolded;
+
+    /**
+     * A buffer for decoded characters.
+     */
+    private char[] chars = new char[256];
+
+    /**
+     * @param buffer a buffer containing UTF-8 encoded iCalendar data, from its current position to its limit
+     * @param relaxed specifies whether relaxed unfolding rules apply
+     */
+    ByteBufferContentLineLexer(final ByteBuffer buffer, final boolean relaxed) {
+        this.buffer = buffer;
+        this.relaxed = relaxed;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.ContentLineLexer#getToken()
+     */
+    String getToken() {
+        if (ttype == TT_WORD) {
+            return decode(tokenStart, tokenEnd);
+        }
+        else if (ttype == TT_QUOTE) {
+            return quoted;
+        }
+        return null;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.ContentLineLexer#isToken(java.lang.String, boolean)
+     */
+    boolean isToken(final String value, final boolean ignoreCase) {
+        if (ttype == TT_QUOTE) {
+            return ignoreCase ? value.equalsIgnoreCase(quoted) : value.equals(quoted);
+        }
+        else if (ttype != TT_WORD) {
+            return false;
+        }
+        int j = 0;
+        for (int i = tokenStart; i < tokenEnd;) {
+            int c = buffer.get(i) & 0xFF;
+            if (c >= 0x80) {
+                // compare non-ASCII tokens as decoded strings..
+                String token = getToken();
+                return ignoreCase ? value.equalsIgnoreCase(token) : value.equals(token);
+            }
+            int fold = getFoldLength(i);
+            if (fold > 0) {
+                i += fold;
+                continue;
+            }
+            if (j >= value.length()) {
+                return false;
+            }
+            char c2 = value.charAt(j++);
+            if (c != c2 && !(ignoreCase
+                    && Character.toUpperCase((char) c) == Character.toUpperCase(c2))) {
+                return false;
+            }
+            i++;
+        }
+        return j == value.length();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.ContentLineLexer#nextToken()
+     */
+    int nextToken() {
+        quoted = null;
+        // skip whitespace, where line endings are significant..
+        int c;
+        while ((c = peek()) >= 0 && c <= WHITESPACE_CHAR_END) {
+            position++;
+            if (c == '\r') {
+                lineNo++;
+                skipLineFeed();
+                return ttype = TT_EOL;
+            }
+            else if (c == '\n') {
+                lineNo++;
+                return ttype = TT_EOL;
+            }
+        }
+        if (c < 0) {
+            return ttype = TT_EOF;
+        }
+
+        if (isWordChar(c)) {
+            tokenStart = position;
+            do {
+                position++;
+            }
+            while ((c = peek()) >= 0 && isWordChar(c));
+            tokenEnd = position;
+            return ttype = TT_WORD;
+        }
+        position++;
+        if (c == '"') {
+            StringBuffer b = new StringBuffer();
+            readQuoted(b);
+            quoted = b.toString();
+            return ttype = TT_QUOTE;
+        }
+        return ttype = c;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.ContentLineLexer#getLinesUnfolded()
+     */
+    int getLinesUnfolded() {
+        return linesUnfolded;
+    }
+
+    /**
+     * Where the value contains no whitespace or quoted strings it is decoded directly from the span of the buffer.
+     * @see net.fortuna.ical4j.data.ContentLineLexer#readValue()
+     */
+    String readValue() {
+        quoted = null;
+        StringBuffer b = null;
+        int start = position;
+        int c;
+        while (true) {
+            c = peek();
+            if (c < 0) {
+                ttype = TT_EOF;
+                return null;
+            }
+            else if (c > WHITESPACE_CHAR_END && c != '"') {
+                position++;
+            }
+            else if (c == '\r' || c == '\n') {
+                break;
+            }
+            else {
+                if (b == null) {
+                    b = new StringBuffer();
+                }
+                appendDecoded(b, start, position);
+                position++;
+                if (c == '"') {
+                    b.append('"');
+                    readQuoted(b);
+                    b.append('"');
+                }
+                start = position;
+            }
+        }
+
+        String value;
+        if (b == null) {
+            value = decode(start, position);
+        }
+        else {
+            appendDecoded(b, start, position);
+            value = b.toString();
+        }
+
+        // consume line ending..
+        position++;
+        if (c == '\r') {
+            skipLineFeed();
+        }
+        lineNo++;
+        ttype = TT_EOL;
+        return value;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.ContentLineLexer#skipLine()
+     */
+    boolean skipLine() {
+        quoted = null;
+        int c;
+        while ((c = peek()) >= 0) {
+            position++;
+            if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    skipLineFeed();
+                }
+                lineNo++;
+                ttype = TT_EOL;
+                return true;
+            }
+        }
+        ttype = TT_EOF;
+        return false;
+    }
+
+    /**
+     * Reads a quoted string into the specified buffer (excluding quotes), assuming the opening quote has already been
+     * read. A quoted string is terminated by a closing quote or the end of the line. Escape sequences are interpreted
+     * as per {@link java.io.StreamTokenizer}.
+     * @param b a buffer to append the quoted string to
+     */
+    private void readQuoted(final StringBuffer b) {
+        int start = position;
+        int c;
+        while ((c = peek()) >= 0) {
+            if (c == '"') {
+                appendDecoded(b, start, position);
+                position++;
+                return;
+            }
+            else if (c == '\r' || c == '\n') {
+                break;
+            }
+            else if (c == '\\') {
+                appendDecoded(b, start, position);
+                position++;
+                readEscape(b);
+                start = position;
+            }
+            else {
+                position++;
+            }
+        }
+        appendDecoded(b, start, position);
+    }
+
+    /**
+     * Appends the character represented by the escape sequence following a backslash.
+     * @param b a buffer to append the character to
+     */
+    private void readEscape(final StringBuffer b) {
+        int first = peek();
+        if (first < 0) {
+            b.append((char) TT_EOF);
+            return;
+        }
+        else if (first >= 0x80) {
+            // an escaped non-ASCII character is decoded as is..
+            return;
+        }
+        position++;
+        if (isOctalChar(first)) {
+            int c = first - '0';
+            int next = peek();
+            if (next >= 0 && isOctalChar(next)) {
+                position++;
+                c = (c << 3) + (next - '0');
+                next = peek();
+                if (first <= '3' && next >= 0 && isOctalChar(next)) {
+                    position++;
+                    c = (c << 3) + (next - '0');
+                }
+            }
+            b.append((char) c);
+        }
+        else {
+            b.append(getEscapeChar(first));
+        }
+    }
+
+    /**
+     * Skips any folds at the current position.
+     * @return the byte at the current position, or -1 if the end of the buffer has been reached
+     */
+    private int peek() {
+        while (position < limit) {
+            int c = buffer.get(position) & 0xFF;
+            if (c == '\r' || c == '\n') {
+                int fold = getFoldLength(position);
+                if (fold > 0) {
+                    position += fold;
+                    linesUnfolded++;
+                    continue;
+                }
+            }
+            return c;
+        }
+        return -1;
+    }
+
+    /**
+     * Discards a line feed immediately following a carriage return (after unfolding).
+     */
+    private void skipLineFeed() {
+        if (peek() == '\n') {
+            position++;
+        }
+    }
+
+    /**
+     * @param index a position in the buffer
+     * @return the number of bytes in a fold starting at the specified position, or zero if there is no fold
+     */
+    private int getFoldLength(final int index) {
+        int c = buffer.get(index);
+        if (c == '\r') {
+            if (index + 2 < limit && buffer.get(index + 1) == '\n') {
+                int next = buffer.get(index + 2);
+                if (next == ' ' || next == '\t') {
+                    return 3;
+                }
+            }
+        }
+        else if (c == '\n' && relaxed) {
+            if (index + 1 < limit && buffer.get(index + 1) == ' ') {
+                return 2;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param start the start of a span of the buffer
+     * @param end the end of a span of the buffer
+     * @return the decoded span as a string
+     */
+    private String decode(final int start, final int end) {
+        // the character buffer may be reallocated when decoding..
+        int count = decodeChars(start, end);
+        return new String(chars, 0, count);
+    }
+
+    /**
+     * @param b a buffer to append the decoded span to
+     * @param start the start of a span of the buffer
+     * @param end the end of a span of the buffer
+     */
+    private void appendDecoded(final StringBuffer b, final int start, final int end) {
+        int count = decodeChars(start, end);
+        b.append(chars, 0, count);
+    }
+
+    /**
+     * Decodes a span of the buffer into the character buffer, removing any folds.
+     * @param start the start of a span of the buffer
+     * @param end the end of a span of the buffer
+     * @return the number of characters decoded
+     */
+    private int decodeChars(final int start, final int end) {
+        // UTF-8 never decodes to more characters than bytes..
+        if (chars.length < end - start) {
+            chars = new char[Math.max(end - start, chars.length * 2)];
+        }
+        int count = 0;
+        int i = start;
+        while (i < end) {
+            int c = buffer.get(i) & 0xFF;
+            if (c < 0x80) {
+                if (c == '\r' || c == '\n') {
+                    int fold = getFoldLength(i);
+                    if (fold > 0) {
+                        i += fold;
+                        continue;
+                    }
+                }
+                chars[count++] = (char) c;
+                i++;
+            }
+            else if (c >= 0xC2 && c < 0xE0 && isContinuation(i + 1, end)) {
+                chars[count++] = (char) (((c & 0x1F) << 6)
+                        | (buffer.get(i + 1) & 0x3F));
+                i += 2;
+            }
+            else if (c >= 0xE0 && c < 0xF0 && isContinuation(i + 1, end)
+                    && isContinuation(i + 2, end)) {
+                int cp = ((c & 0x0F) << 12)
+                        | ((buffer.get(i + 1) & 0x3F) << 6)
+                        | (buffer.get(i + 2) & 0x3F);
+                if (cp < 0x800 || (cp >= 0xD800 && cp <= 0xDFFF)) {
+                    chars[count++] = REPLACEMENT_CHAR;
+                    i++;
+                }
+                else {
+                    chars[count++] = (char) cp;
+                    i += 3;
+                }
+            }
+            else if (c >= 0xF0 && c < 0xF5 && isContinuation(i + 1, end)
+                    && isContinuation(i + 2, end)
+                    && isContinuation(i + 3, end)) {
+                int cp = ((c & 0x07) << 18)
+                        | ((buffer.get(i + 1) & 0x3F) << 12)
+                        | ((buffer.get(i + 2) & 0x3F) << 6)
+                        | (buffer.get(i + 3) & 0x3F);
+                if (cp < 0x10000 || cp > 0x10FFFF) {
+                    chars[count++] = REPLACEMENT_CHAR;
+                    i++;
+                }
+                else {
+                    // encode as a surrogate pair..
+                    cp -= 0x10000;
+                    chars[count++] = (char) (0xD800 + (cp >> 10));
+                    chars[count++] = (char) (0xDC00 + (cp & 0x3FF));
+                    i += 4;
+                }
+            }
+            else {
+                chars[count++] = REPLACEMENT_CHAR;
+                i++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param index a position in the buffer
+     * @param end the end of the span being decoded
+     * @return true if the byte at the specified position is a UTF-8 continuation byte
+     */
+    private boolean isContinuation(final int index, final int end) {
+        return index < end && (buffer.get(index) & 0xC0) == 0x80;
+    }
+}
@@ -35,11 +35,15 @@
  */
 package net.fortuna.ical4j.data;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.text.ParseException;
 
@@ -59,6 +63,7 @@ import net.fortuna.ical4j.model.component.VToDo;
 import net.fortuna.ical4j.model.parameter.TzId;
 import net.fortuna.ical4j.model.property.DateListProperty;
 import net.fortuna.ical4j.model.property.DateProperty;
+import net.fortuna.ical4j.util.CompatibilityContext;
 import net.fortuna.ical4j.util.Constants;
 
 import org.apache.commons.logging.Log;
@@ -87,6 +92,10 @@ public class CalendarBuilder implements ContentHandler {
 
     protected Property property;
 
+    private boolean deferredParsing;
+
+    private CompatibilityContext compatibilityContext;
+
     /**
      * Default constructor.
      */
@@ -144,7 +153,8 @@ public class CalendarBuilder implements ContentHandler {
      * @throws ParserException
      */
     public Calendar build(final Reader in) throws IOException, ParserException {
-        return build(new UnfoldingReader(in));
+        CompatibilityContext context = resolveCompatibilityContext();
+        return build(new UnfoldingReader(in, context.isRelaxedUnfolding()), context);
     }
 
     /**
@@ -156,17 +166,92 @@ public class CalendarBuilder implements ContentHandler {
      */
     public Calendar build(final UnfoldingReader uin) throws IOException,
             ParserException {
+        return build(uin, resolveCompatibilityContext());
+    }
+
+    /**
+     * @param uin an unfolding reader to read data from
+     * @param context the compatibility context of the build
+     * @return a calendar model
+     * @throws IOException
+     * @throws ParserException
+     */
+    private Calendar build(final UnfoldingReader uin, final CompatibilityContext context) throws IOException,
+            ParserException {
         // re-initialise..
         calendar = null;
         component = null;
         subComponent = null;
         property = null;
 
-        parser.parse(uin, this);
+        CompatibilityContext previousContext = CompatibilityContext.getCurrent();
+        CompatibilityContext.setCurrent(context);
+        try {
+            parser.parse(uin, this);
+        }
+        finally {
+            CompatibilityContext.setCurrent(previousContext);
+        }
 
         return calendar;
     }
 
+    /**
+     * Builds an iCalendar model from UTF-8 encoded data in the specified buffer. The data is parsed directly from the
+     * encoded bytes by the {@link ContentLineParser} specified for this builder, or a default instance where another
+     * type of parser is specified.
+     * @param buffer a buffer containing UTF-8 encoded iCalendar data
+     * @return a calendar model
+     * @throws IOException
+     * @throws ParserException
+     * @see ContentLineParser#parse(ByteBuffer, ContentHandler)
+     */
+    public Calendar build(final ByteBuffer buffer) throws IOException,
+            ParserException {
+        // re-initialise..
+        calendar = null;
+        component = null;
+        subComponent = null;
+        property = null;
+
+        CompatibilityContext previousContext = CompatibilityContext.getCurrent();
+        CompatibilityContext.setCurrent(resolveCompatibilityContext());
+        try {
+            if (parser instanceof ContentLineParser) {
+                ((ContentLineParser) parser).parse(buffer, this);
+            }
+            else {
+                new ContentLineParser().parse(buffer, this);
+            }
+        }
+        finally {
+            CompatibilityContext.setCurrent(previousContext);
+        }
+
+        return calendar;
+    }
+
+    /**
+     * Builds an iCalendar model from the specified UTF-8 encoded file. The file is memory-mapped and parsed as per
+     * {@link #build(ByteBuffer)}, and so must be no larger than 2GB.
+     * @param file a file containing UTF-8 encoded iCalendar data
+     * @return a calendar model
+     * @throws IOException
+     * @throws ParserException
+     */
+    public Calendar build(final File file) throws IOException,
+            ParserException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            return build(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size()));
+        }
+        finally {
+            in.close();
+        }
+    }
+
     /*
      * (non-Javadoc)
      * @see net.fortuna.ical4j.data.ContentHandler#endCalendar()
@@ -242,19 +327,20 @@ public class CalendarBuilder implements ContentHandler {
             if (param instanceof TzId && registry != null) {
                 TimeZone timezone = registry.getTimeZone(param.getValue());
                 if (timezone != null) {
+                    // check property type rather than relying on a failed cast..
                     try {
-                        ((DateProperty) property).setTimeZone(timezone);
-                    }
-                    catch (Exception e) {
-                        try {
-                            ((DateListProperty) property).setTimeZone(timezone);
+                        if (property instanceof DateProperty) {
+                            ((DateProperty) property).setTimeZone(timezone);
                         }
-                        catch (Exception e2) {
-                            log.warn("Error setting timezone [" + param
-                                    + "] on property [" + property.getName()
-                                    + "]", e);
+                        else if (property instanceof DateListProperty) {
+                            ((DateListProperty) property).setTimeZone(timezone);
                         }
                     }
+                    catch (Exception e) {
+                        log.warn("Error setting timezone [" + param
+                                + "] on property [" + property.getName()
+                                + "]", e);
+                    }
                 }
             }
         }
@@ -267,7 +353,12 @@ public class CalendarBuilder implements ContentHandler {
     public void propertyValue(final String value) throws URISyntaxException,
             ParseException, IOException {
         if (property != null) {
-            property.setValue(value);
+            if (deferredParsing) {
+                property.setDeferredValue(value);
+            }
+            else {
+                property.setValue(value);
+            }
         }
     }
 
@@ -309,4 +400,54 @@ public class CalendarBuilder implements ContentHandler {
     public final TimeZoneRegistry getRegistry() {
         return registry;
     }
+
+    /**
+     * @return true if parsing of property values is deferred, otherwise false
+     */
+    public final boolean isDeferredParsing() {
+        return deferredParsing;
+    }
+
+    /**
+     * Specifies whether parsing of property values is deferred until first accessed. When enabled, properties with a
+     * typed value (such as dates, recurrence rules and calendar addresses) retain the value string read from the
+     * calendar data, and the string is only parsed when the typed value (or the property output) is first required.
+     * This significantly reduces the cost of building calendars where few of these values are accessed. Note that an
+     * invalid value is then reported by an <code>IllegalArgumentException</code> on first access, rather than a
+     * <code>ParserException</code> when building the calendar.
+     * @param deferredParsing true if parsing of property values should be deferred, otherwise false
+     * @see net.fortuna.ical4j.model.Deferrable
+     */
+    public final void setDeferredParsing(final boolean deferredParsing) {
+        this.deferredParsing = deferredParsing;
+    }
+
+    /**
+     * @return the compatibility context used for all builds, or null if the context is resolved at the start of each
+     * build
+     */
+    public final CompatibilityContext getCompatibilityContext() {
+        return compatibilityContext;
+    }
+
+    /**
+     * Specifies the compatibility hints applied when building calendars with this builder. The context is made
+     * current for the building thread for the duration of each build, and so applies to parsing, unfolding and the
+     * creation of components, properties and parameters. Where no context is specified a context is resolved from
+     * {@link net.fortuna.ical4j.util.CompatibilityHints} at the start of each build.
+     * @param compatibilityContext a compatibility context, or null to resolve the context for each build
+     */
+    public final void setCompatibilityContext(final CompatibilityContext compatibilityContext) {
+        this.compatibilityContext = compatibilityContext;
+    }
+
+    /**
+     * @return the compatibility context for a build
+     */
+    private CompatibilityContext resolveCompatibilityContext() {
+        if (compatibilityContext != null) {
+            return compatibilityContext;
+        }
+        return new CompatibilityContext();
+    }
 }
@@ -54,6 +54,8 @@ public class CalendarOutputter {
 
     private int foldLength;
 
+    private boolean octetFolding;
+
     /**
      * Default constructor.
      */
@@ -102,11 +104,13 @@ public class CalendarOutputter {
             calendar.validate();
         }
 
-        FoldingWriter writer = new FoldingWriter(out, foldLength);
+        FoldingWriter writer = new FoldingWriter(out, foldLength,
+                octetFolding);
 
         try {
 
-            writer.write(calendar.toString());
+            // append directly to the writer rather than building the entire calendar as a string..
+            calendar.appendTo(writer);
         }
         finally {
 
@@ -127,4 +131,21 @@ public class CalendarOutputter {
     public final void setValidating(final boolean validating) {
         this.validating = validating;
     }
+
+    /**
+     * @return true if lines are folded on the number of UTF-8 octets rather than characters
+     */
+    public final boolean isOctetFolding() {
+        return octetFolding;
+    }
+
+    /**
+     * Specifies whether lines are folded on the number of octets they occupy when encoded as UTF-8, rather than the
+     * number of characters. This ensures lines of non-ASCII text do not exceed the maximum line length mandated by
+     * RFC2445.
+     * @param octetFolding The octetFolding to set.
+     */
+    public final void setOctetFolding(final boolean octetFolding) {
+        this.octetFolding = octetFolding;
+    }
 }
@@ -419,23 +419,22 @@ public class CalendarParserImpl implements CalendarParser {
     }
 
     /**
-     * Absorbs extraneous newlines.
+     * Absorbs extraneous newlines. The first token following the newlines is read ahead and left as the current token
+     * of the tokeniser, such that no exception is required to detect the end of the whitespace.
      * @param tokeniser
      * @throws IOException
      */
     private void absorbWhitespace(final StreamTokenizer tokeniser)
             throws IOException {
         // HACK: absorb extraneous whitespace between components (KOrganizer)..
-        try {
-            while (true) {
-                assertToken(tokeniser, StreamTokenizer.TT_EOL);
-            }
-        }
-        catch (ParserException pe) {
+        while (tokeniser.nextToken() == StreamTokenizer.TT_EOL) {
             if (log.isDebugEnabled()) {
-                log.debug("Aborting absorbing extra whitespace ["
-                        + pe.getMessage() + "]");
+                log.debug("Absorbing extra whitespace..");
             }
         }
+        if (log.isDebugEnabled()) {
+            log.debug("Aborting absorbing extra whitespace ["
+                    + tokeniser.ttype + "]");
+        }
     }
 }
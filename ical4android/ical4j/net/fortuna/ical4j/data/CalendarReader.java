@@ -0,0 +1,306 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.NoSuchElementException;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.TimeZoneRegistry;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.model.component.VTimeZone;
+import net.fortuna.ical4j.util.CompatibilityContext;
+
+/**
+ * Reads the components of an iCalendar data stream one at a time, rather than building the entire calendar model as
+ * {@link CalendarBuilder} does. Calendar properties and timezone definitions are retained in a calendar available
+ * via {@link #getCalendar()}, and all other components are returned individually by {@link #nextComponent()} such that
+ * only one component is held in memory at a time.
+ * 
+ * Components are constructed using the same factories as {@link CalendarBuilder}, and VTIMEZONE components are
+ * registered with the timezone registry as they are read. Note that this class is not thread-safe.
+ * 
+ * <pre>
+ * CalendarReader reader = new CalendarReader(in);
+ * while (reader.hasNext()) {
+ *     Component component = reader.nextComponent();
+ *     ...
+ * }
+ * reader.close();
+ * </pre>
+ * 
+ * @author Ben Fortuna
+ */
+public class CalendarReader {
+
+    private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+    private UnfoldingReader in;
+
+    private ContentLineLexer lexer;
+
+    private ContentLineParser parser;
+
+    private ComponentHandler handler;
+
+    private CompatibilityContext context;
+
+    private boolean started;
+
+    private boolean complete;
+
+    private Component next;
+
+    /**
+     * Constructs a new calendar reader for the specified input stream.
+     * @param in an input stream to read calendar data from
+     */
+    public CalendarReader(final InputStream in) {
+        this(new InputStreamReader(in, DEFAULT_CHARSET));
+    }
+
+    /**
+     * Constructs a new calendar reader for the specified reader. An <code>UnfoldingReader</code> is applied to the
+     * specified reader to ensure the data stream is correctly unfolded where appropriate.
+     * @param in a reader to read calendar data from
+     */
+    public CalendarReader(final Reader in) {
+        this(in, TimeZoneRegistryFactory.getInstance().createRegistry());
+    }
+
+    /**
+     * Constructs a new calendar reader using the specified timezone registry.
+     * @param in a reader to read calendar data from
+     * @param registry a timezone registry used to retrieve timezones and register additional timezone information found
+     * in the calendar
+     */
+    public CalendarReader(final Reader in, final TimeZoneRegistry registry) {
+        this(in, registry, null);
+    }
+
+    /**
+     * Constructs a new calendar reader using the specified timezone registry and compatibility hints. The context is
+     * made current for the reading thread whilst each component is read.
+     * @param in a reader to read calendar data from
+     * @param registry a timezone registry used to retrieve timezones and register additional timezone information found
+     * in the calendar
+     * @param context the compatibility hints applied when reading, or null to resolve hints from
+     * {@link net.fortuna.ical4j.util.CompatibilityHints} on construction
+     */
+    public CalendarReader(final Reader in, final TimeZoneRegistry registry,
+            final CompatibilityContext context) {
+        if (context != null) {
+            this.context = context;
+        }
+        else {
+            this.context = new CompatibilityContext();
+        }
+        if (in instanceof UnfoldingReader) {
+            this.in = (UnfoldingReader) in;
+        }
+        else {
+            this.in = new UnfoldingReader(in, this.context.isRelaxedUnfolding());
+        }
+        this.lexer = new ReaderContentLineLexer(this.in);
+        this.parser = new ContentLineParser();
+        this.handler = new ComponentHandler(registry);
+    }
+
+    /**
+     * Returns a calendar containing the calendar properties and VTIMEZONE components read so far. Calendar data is read
+     * up to the first component that is not a timezone definition, if not already read.
+     * @return a calendar
+     * @throws IOException where an error occurs reading from the underlying stream
+     * @throws ParserException where the calendar data is invalid
+     */
+    public final Calendar getCalendar() throws IOException, ParserException {
+        hasNext();
+        return handler.calendar;
+    }
+
+    /**
+     * @return true if there is another (non-timezone) component to be read, otherwise false
+     * @throws IOException where an error occurs reading from the underlying stream
+     * @throws ParserException where the calendar data is invalid
+     */
+    public final boolean hasNext() throws IOException, ParserException {
+        CompatibilityContext previousContext = CompatibilityContext.getCurrent();
+        CompatibilityContext.setCurrent(context);
+        try {
+            if (!started) {
+                start();
+            }
+            while (next == null && !complete) {
+                readContentLine();
+            }
+        }
+        catch (IOException ioe) {
+            throw ioe;
+        }
+        catch (ParserException pe) {
+            throw pe;
+        }
+        catch (Exception e) {
+            throw ContentLineParser.createParserException(e, lexer);
+        }
+        finally {
+            CompatibilityContext.setCurrent(previousContext);
+        }
+        return next != null;
+    }
+
+    /**
+     * Returns the next component of the calendar. Timezone definitions are not returned by this method, but are added
+     * to the calendar returned by {@link #getCalendar()}.
+     * @return the next component
+     * @throws IOException where an error occurs reading from the underlying stream
+     * @throws ParserException where the calendar data is invalid
+     * @throws NoSuchElementException where there are no more components to read
+     */
+    public final Component nextComponent() throws IOException,
+            ParserException {
+
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Component component = next;
+        next = null;
+        return component;
+    }
+
+    /**
+     * Closes the underlying reader.
+     * @throws IOException where an error occurs closing the reader
+     */
+    public final void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * @return the compatibility hints applied when reading
+     */
+    public final CompatibilityContext getCompatibilityContext() {
+        return context;
+    }
+
+    /**
+     * Returns the timezone registry used to resolve timezones of components.
+     * @return a timezone registry
+     */
+    public final TimeZoneRegistry getRegistry() {
+        return handler.getRegistry();
+    }
+
+    /**
+     * Reads the start of the calendar, leaving the name of the first content line as the current token.
+     * @throws Exception where an error occurs reading the calendar
+     */
+    private void start() throws Exception {
+        started = true;
+
+        // BEGIN:VCALENDAR
+        parser.assertToken(lexer, Calendar.BEGIN);
+
+        parser.assertToken(lexer, ':');
+
+        parser.assertToken(lexer, Calendar.VCALENDAR, true);
+
+        parser.assertToken(lexer, ContentLineLexer.TT_EOL);
+
+        handler.startCalendar();
+
+        parser.assertToken(lexer, ContentLineLexer.TT_WORD);
+    }
+
+    /**
+     * Reads a single property or component of the calendar, assuming its name is the current token.
+     * @throws Exception where an error occurs reading the calendar
+     */
+    private void readContentLine() throws Exception {
+        if (lexer.isToken(Component.END, false)) {
+            // END:VCALENDAR
+            parser.assertToken(lexer, ':');
+
+            parser.assertToken(lexer, Calendar.VCALENDAR, true);
+
+            handler.endCalendar();
+            complete = true;
+            return;
+        }
+        else if (lexer.isToken(Component.BEGIN, false)) {
+            parser.parseComponent(lexer, handler);
+        }
+        else {
+            parser.parseProperty(lexer, handler);
+        }
+        // absorb extraneous whitespace between content lines (KOrganizer)..
+        while (lexer.nextToken() == ContentLineLexer.TT_EOL) {
+            // skip blank line..
+        }
+    }
+
+    /**
+     * A calendar builder that retains only calendar properties and timezones, passing all other completed components
+     * back to the reader.
+     */
+    private class ComponentHandler extends CalendarBuilder {
+
+        /**
+         * @param registry a timezone registry
+         */
+        public ComponentHandler(final TimeZoneRegistry registry) {
+            super(parser, registry);
+        }
+
+        /*
+         * (non-Javadoc)
+         * @see net.fortuna.ical4j.data.CalendarBuilder#endComponent(java.lang.String)
+         */
+        public void endComponent(final String name) {
+            if (component != null && subComponent == null
+                    && !(component instanceof VTimeZone)) {
+                next = component;
+                component = null;
+            }
+            else {
+                super.endComponent(name);
+            }
+        }
+    }
+}
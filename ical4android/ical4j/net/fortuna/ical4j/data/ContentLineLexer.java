@@ -0,0 +1,182 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.data;
+
+import java.io.IOException;
+import java.io.StreamTokenizer;
+
+/**
+ * Splits iCalendar data into the tokens of content lines (see RFC2445 4.1) for {@link ContentLineParser}.
+ * Implementations scan their input in place, such that strings are only created for the names and values that are
+ * actually requested by the parser.
+ * 
+ * Tokens are delimited exactly as by the {@link StreamTokenizer} configured in {@link CalendarParserImpl}, such that
+ * parsers using a lexer produce identical results.
+ * @author Ben Fortuna
+ */
+abstract class ContentLineLexer {
+
+    /**
+     * Token type indicating the end of the stream has been reached.
+     */
+    static final int TT_EOF = StreamTokenizer.TT_EOF;
+
+    /**
+     * Token type indicating the end of a line has been reached.
+     */
+    static final int TT_EOL = StreamTokenizer.TT_EOL;
+
+    /**
+     * Token type indicating a word token has been read.
+     */
+    static final int TT_WORD = StreamTokenizer.TT_WORD;
+
+    /**
+     * Token type indicating a quoted string has been read.
+     */
+    static final int TT_QUOTE = '"';
+
+    static final int TT_NOTHING = -4;
+
+    static final int WHITESPACE_CHAR_END = 20;
+
+    static final int WORD_CHAR_START = 32;
+
+    int lineNo = 1;
+
+    int ttype = TT_NOTHING;
+
+    /**
+     * @return the current line number
+     */
+    final int getLineNo() {
+        return lineNo;
+    }
+
+    /**
+     * Returns the number of folded lines preceding the current position of the lexer. As per the
+     * {@link java.io.StreamTokenizer} used by {@link CalendarParserImpl}, the current position follows the character
+     * read ahead of a word token.
+     * @return the number of lines unfolded
+     */
+    abstract int getLinesUnfolded();
+
+    /**
+     * @return the type of the most recently read token
+     */
+    final int getTokenType() {
+        return ttype;
+    }
+
+    /**
+     * Returns the string value of the current token.
+     * @return the value of the current word or quoted string token, or null if the current token is of another type
+     */
+    abstract String getToken();
+
+    /**
+     * Indicates whether the value of the current token matches the specified string, without the need to create a
+     * string from the token.
+     * @param value a string to compare with the current token
+     * @param ignoreCase specifies whether comparison is case-insensitive
+     * @return true if the current token is a word or quoted string with the specified value, otherwise false
+     */
+    abstract boolean isToken(String value, boolean ignoreCase);
+
+    /**
+     * Reads the next token.
+     * @return the type of token read
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    abstract int nextToken() throws IOException;
+
+    /**
+     * Reads the remainder of the current line as a property value. Word and quoted string tokens are concatenated with
+     * any other characters, and whitespace characters are discarded.
+     * @return the value of the current content line, or null if the end of the stream is reached before the end of
+     * the line
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    abstract String readValue() throws IOException;
+
+    /**
+     * Skips the remainder of the current line, including any parameters and the property value, without creating
+     * strings for its content.
+     * @return false if the end of the stream is reached before the end of the line, otherwise true
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    abstract boolean skipLine() throws IOException;
+
+    /**
+     * @param c a character
+     * @return true if the specified character is part of a word token
+     */
+    static boolean isWordChar(final int c) {
+        return c >= WORD_CHAR_START && c != ':' && c != ';' && c != '='
+                && c != '"';
+    }
+
+    /**
+     * @param c a character
+     * @return true if the specified character is an octal digit
+     */
+    static boolean isOctalChar(final int c) {
+        return c >= '0' && c <= '7';
+    }
+
+    /**
+     * @param c the character following a backslash in a quoted string
+     * @return the character represented by the escape sequence, as per {@link StreamTokenizer}
+     */
+    static char getEscapeChar(final int c) {
+        switch (c) {
+        case 'a':
+            return (char) 0x7;
+        case 'b':
+            return '\b';
+        case 'f':
+            return (char) 0xC;
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        case 'v':
+            return (char) 0xB;
+        default:
+            return (char) c;
+        }
+    }
+}
@@ -37,11 +37,11 @@ import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.Writer;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
-
 /**
- * A writer that performs iCalendar folding as it writes.
+ * A writer that performs iCalendar folding as it writes. By default line length is measured in characters, however
+ * folding may also be performed on the number of octets each line occupies when encoded as UTF-8, as required by
+ * RFC2445. In either case a line is never folded within a surrogate pair or multi-octet sequence, and contiguous
+ * characters between folds are written to the underlying writer in bulk.
  * @author Ben Fortuna
  */
 public class FoldingWriter extends FilterWriter {
@@ -54,19 +54,35 @@ public class FoldingWriter extends FilterWriter {
 
     private static final char[] FOLD_PATTERN = { '\r', '\n', ' ' };
 
-    private Log log = LogFactory.getLog(FoldingWriter.class);
+    private static final int BUFFER_SIZE = 1024;
 
     private int lineLength;
 
     private int foldLength;
 
+    private boolean octetFolding;
+
+    private char[] buffer;
+
     /**
      * @param writer a writer to write output to
-     * @param foldLength
+     * @param foldLength maximum line length before a line is folded
+     * @param octetFolding if true, line length is measured in UTF-8 octets rather than characters
      */
-    public FoldingWriter(final Writer writer, final int foldLength) {
+    public FoldingWriter(final Writer writer, final int foldLength,
+            final boolean octetFolding) {
         super(writer);
         this.foldLength = Math.min(foldLength, MAX_FOLD_LENGTH);
+        this.octetFolding = octetFolding;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * @param writer a writer to write output to
+     * @param foldLength
+     */
+    public FoldingWriter(final Writer writer, final int foldLength) {
+        this(writer, foldLength, false);
     }
 
     /**
@@ -81,47 +97,42 @@ public class FoldingWriter extends FilterWriter {
      * @see java.io.FilterWriter#write(int)
      */
     public final void write(final int c) throws IOException {
-
-        /*
-         * super.write(c); if (c == '\n') { lineLength = 0; } else { lineLength += 1; } if (lineLength >= FOLD_LENGTH) {
-         * super.write(FOLD_PATTERN); }
-         */
-        write(new char[] { (char) c }, 0, 1);
+        buffer[0] = (char) c;
+        write(buffer, 0, 1);
     }
 
     /*
      * (non-Javadoc)
      * @see java.io.FilterWriter#write(char[], int, int)
      */
-    public final void write(final char[] buffer, final int offset,
+    public final void write(final char[] cbuf, final int offset,
             final int length) throws IOException {
-        int maxIndex = offset + length - 1;
-        for (int i = offset; i <= maxIndex; i++) {
 
-            // debugging..
-            if (log.isDebugEnabled()) {
-                log.debug("char [" + buffer[i] + "], line length ["
-                        + lineLength + "]");
+        int start = offset;
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            char c = cbuf[i];
+            if (c == '\r' || c == '\n') {
+                lineLength = 0;
+                continue;
             }
+            int width = getLength(c);
 
-            // check for fold first so we don't unnecessarily fold after
-            // no more data..
-            if (lineLength >= foldLength) {
-                super.write(FOLD_PATTERN, 0, FOLD_PATTERN.length);
+            // fold if the character won't fit on the current line, but never
+            // between the characters of a surrogate pair..
+            if (lineLength + width > foldLength
+                    && !Character.isLowSurrogate(c)) {
+
+                out.write(cbuf, start, i - start);
+                out.write(FOLD_PATTERN, 0, FOLD_PATTERN.length);
+                start = i;
 
                 // re-initialise to 1 to account for the space in fold pattern..
                 lineLength = 1;
             }
-
-            super.write(buffer[i]);
-
-            if (buffer[i] == '\r' || buffer[i] == '\n') {
-                lineLength = 0;
-            }
-            else {
-                lineLength += 1;
-            }
+            lineLength += width;
         }
+        out.write(cbuf, start, end - start);
     }
 
     /*
@@ -130,22 +141,36 @@ public class FoldingWriter extends FilterWriter {
      */
     public final void write(final String str, final int off, final int len)
             throws IOException {
-        write(str.toCharArray(), off, len);
-    }
 
-    /*
-     * (non-Javadoc)
-     * @see java.io.FilterWriter#write(java.lang.String, int, int) public void write(String arg0, int arg1, int arg2)
-     * throws IOException { super.write(arg0, arg1, arg2); if (arg0.indexOf('\n') >= 0) { lineLength = 0; } else {
-     * lineLength += 1; } fold(); }
-     */
+        int end = off + len;
+        for (int i = off; i < end; i += buffer.length) {
+            int count = Math.min(buffer.length, end - i);
+            str.getChars(i, i + count, buffer, 0);
+            write(buffer, 0, count);
+        }
+    }
 
-    /*
-     * (non-Javadoc)
-     * @see java.io.Writer#write(java.lang.String) public void write(String arg0) throws IOException { /* if (lineLength +
-     * arg0.length() >= FOLD_LENGTH) { super.write(arg0.substring(0,FOLD_LENGTH-lineLength-1));
-     * super.write(FOLD_PATTERN); super.write(arg0.substring(FOLD_LENGTH-lineLength)); } else { super.write(arg0); } if
-     * (arg0.indexOf('\n') >= 0) { lineLength = 0; } else { lineLength += 1; } fold(); char[] chars =
-     * arg0.toCharArray(); for (int i=0; i <chars.length; i++) { write(chars[i]); } }
+    /**
+     * @param c a character
+     * @return the length the specified character contributes to the current line
      */
+    private int getLength(final char c) {
+        if (!octetFolding) {
+            return 1;
+        }
+        else if (c < 0x80) {
+            return 1;
+        }
+        else if (c < 0x800) {
+            return 2;
+        }
+        else if (Character.isHighSurrogate(c)) {
+            // a surrogate pair is encoded as four octets..
+            return 4;
+        }
+        else if (Character.isLowSurrogate(c)) {
+            return 0;
+        }
+        return 3;
+    }
 }
@@ -0,0 +1,598 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.TimeZoneRegistry;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.util.CompatibilityContext;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Builds an iCalendar model from an input stream using multiple threads. The unfolded data stream is split on the
+ * boundaries of top-level components, and batches of components are then parsed concurrently. Calendar properties
+ * and VTIMEZONE components are parsed before any other components, such that all timezones are registered before
+ * TZID parameters of other components are resolved. The resulting calendar is equivalent to that produced by
+ * {@link CalendarBuilder}, with components in the same order as they appear in the data stream.
+ * 
+ * Note that the entire data stream is held in memory while parsing. Where the data cannot be parsed, it is parsed
+ * again by a {@link CalendarBuilder} such that errors are reported as per {@link CalendarBuilder}. Note also that this
+ * class is not thread-safe.
+ * @author Ben Fortuna
+ */
+public class ParallelCalendarBuilder {
+
+    private static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
+
+    /**
+     * The approximate number of characters of component data parsed by each task.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 65536;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final String BEGIN_PREFIX = Component.BEGIN + ':';
+
+    private static final String END_PREFIX = Component.END + ':';
+
+    private static final String CALENDAR_START = BEGIN_PREFIX
+            + Calendar.VCALENDAR + "\r\n";
+
+    private static final String CALENDAR_END = END_PREFIX + Calendar.VCALENDAR
+            + "\r\n";
+
+    /**
+     * Marks the position of a timezone component in the list of segments.
+     */
+    private static final Object TIMEZONE = new Object();
+
+    private Log log = LogFactory.getLog(ParallelCalendarBuilder.class);
+
+    private TimeZoneRegistry registry;
+
+    private int threads;
+
+    private CompatibilityContext compatibilityContext;
+
+    /**
+     * Default constructor. Components are parsed using one thread per available processor.
+     */
+    public ParallelCalendarBuilder() {
+        this(TimeZoneRegistryFactory.getInstance().createRegistry());
+    }
+
+    /**
+     * Constructs a new instance using the specified timezone registry.
+     * @param registry a timezone registry used to retrieve timezones and register additional timezone information found
+     * in the calendar
+     */
+    public ParallelCalendarBuilder(final TimeZoneRegistry registry) {
+        this(registry, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new instance using the specified timezone registry and number of threads.
+     * @param registry a timezone registry used to retrieve timezones and register additional timezone information found
+     * in the calendar
+     * @param threads the number of threads used to parse components
+     */
+    public ParallelCalendarBuilder(final TimeZoneRegistry registry,
+            final int threads) {
+        this.registry = registry;
+        this.threads = Math.max(threads, 1);
+    }
+
+    /**
+     * Builds an iCalendar model from the specified input stream.
+     * @param in
+     * @return a calendar
+     * @throws IOException
+     * @throws ParserException
+     */
+    public final Calendar build(final InputStream in) throws IOException,
+            ParserException {
+        return build(new InputStreamReader(in, DEFAULT_CHARSET));
+    }
+
+    /**
+     * Builds an iCalendar model from the specified reader. An <code>UnfoldingReader</code> is applied to the
+     * specified reader to ensure the data stream is correctly unfolded where appropriate.
+     * @param in
+     * @return a calendar
+     * @throws IOException
+     * @throws ParserException
+     */
+    public final Calendar build(final Reader in) throws IOException,
+            ParserException {
+        CompatibilityContext context = resolveCompatibilityContext();
+        return build(new UnfoldingReader(in, context.isRelaxedUnfolding()), context);
+    }
+
+    /**
+     * Build an iCalendar model by parsing data from the specified reader.
+     * @param uin an unfolding reader to read data from
+     * @return a calendar model
+     * @throws IOException
+     * @throws ParserException
+     */
+    public final Calendar build(final UnfoldingReader uin) throws IOException,
+            ParserException {
+        return build(uin, resolveCompatibilityContext());
+    }
+
+    /**
+     * @param uin an unfolding reader to read data from
+     * @param context the compatibility context of the build
+     * @return a calendar model
+     * @throws IOException
+     * @throws ParserException
+     */
+    private Calendar build(final UnfoldingReader uin, final CompatibilityContext context) throws IOException,
+            ParserException {
+
+        Source source = new Source(uin);
+        StringBuffer header = new StringBuffer();
+        List segments = new ArrayList();
+        if (!split(source, header, segments, context)) {
+            // components are not nested as expected, so read the remainder of the
+            // stream and report any errors as per CalendarBuilder..
+            source.readFully();
+            return buildSerial(source, context);
+        }
+
+        try {
+            return build(new Batch(header, 0, header.length(), false, context), segments);
+        }
+        catch (ParserException pe) {
+            // batch line numbers don't correspond to the original data..
+            return buildSerial(source, context);
+        }
+    }
+
+    /**
+     * @param header a batch containing calendar properties and timezones
+     * @param segments batches of components and timezone markers in the order they occur
+     * @return a calendar model
+     * @throws IOException
+     * @throws ParserException
+     */
+    private Calendar build(final Batch header, final List segments) throws IOException, ParserException {
+
+        // parse calendar properties and timezones first such that timezones
+        // are registered before other components are parsed..
+        Calendar calendar = header.parse();
+        List timezones = new ArrayList(calendar.getComponents());
+        calendar.getComponents().clear();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List futures = new ArrayList();
+            for (Iterator i = segments.iterator(); i.hasNext();) {
+                Object segment = i.next();
+                if (segment instanceof Batch) {
+                    futures.add(executor.submit((Batch) segment));
+                }
+            }
+
+            // reassemble components in their original order..
+            Iterator timezone = timezones.iterator();
+            Iterator future = futures.iterator();
+            for (Iterator i = segments.iterator(); i.hasNext();) {
+                if (i.next() == TIMEZONE) {
+                    calendar.getComponents().add(timezone.next());
+                }
+                else {
+                    calendar.getComponents().addAll(
+                            getComponents((Future) future.next()));
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return calendar;
+    }
+
+    /**
+     * Parses all data read from the source using a {@link CalendarBuilder}, such that any errors are reported with
+     * the same line numbers.
+     * @param source the source of the calendar data
+     * @param context the compatibility context of the build
+     * @return a calendar model
+     * @throws IOException
+     * @throws ParserException
+     */
+    private Calendar buildSerial(final Source source, final CompatibilityContext context) throws IOException,
+            ParserException {
+        CalendarBuilder builder = new CalendarBuilder(CalendarParserFactory.getInstance().createParser(), registry);
+        builder.setCompatibilityContext(context);
+        return builder.build(source.getReader(0, source.length()));
+    }
+
+    /**
+     * Splits the unfolded data stream into calendar content (calendar properties and timezones) and batches of other
+     * components. Splitting stops at the end of the calendar, or where components are not nested as expected by
+     * {@link CalendarParserImpl}.
+     * @param source the source of the calendar data
+     * @param header a buffer to which calendar content is appended
+     * @param segments a list to which batches of components and timezone markers are added in the order they occur
+     * @param context the compatibility context applied when parsing batches
+     * @return true if the end of the calendar was reached, or false if components are not nested as expected
+     * @throws IOException where an error occurs reading from the stream
+     */
+    private boolean split(final Source source, final StringBuffer header,
+            final List segments, final CompatibilityContext context) throws IOException {
+
+        char[] buffer = new char[BUFFER_SIZE];
+        StringBuffer line = new StringBuffer();
+        // names of the components enclosing the current line..
+        List components = new ArrayList();
+        Batch current = null;
+        Batch previous = null;
+        Batch batch = null;
+        int lineStart = 0;
+        boolean cr = false;
+        boolean eof = false;
+
+        while (!eof) {
+            if (line.length() == 0) {
+                lineStart = source.length();
+            }
+            int read = source.read(buffer);
+            if (read < 0) {
+                if (line.length() == 0) {
+                    return false;
+                }
+                // the last line may not be terminated..
+                eof = true;
+            }
+            else {
+                line.append(buffer, 0, read);
+
+                // the unfolding reader returns at most one line per read..
+                char last = buffer[read - 1];
+                if (last != '\r' && last != '\n') {
+                    continue;
+                }
+                // a line feed read separately from the preceding carriage
+                // return completes the previous line..
+                boolean lineFeed = cr && line.length() == 1 && last == '\n';
+                cr = last == '\r';
+                if (lineFeed) {
+                    if (previous != null) {
+                        previous.extend(source.length());
+                    }
+                    else {
+                        header.append(line);
+                    }
+                    line.setLength(0);
+                    continue;
+                }
+            }
+
+            int depth = components.size();
+            boolean end = false;
+            if (startsWith(line, BEGIN_PREFIX)) {
+                String name = line.substring(BEGIN_PREFIX.length()).trim();
+                if (depth == 0 && !Calendar.VCALENDAR.equals(name)) {
+                    return false;
+                }
+                else if (depth == 1) {
+                    if (Component.VTIMEZONE.equals(name)) {
+                        segments.add(TIMEZONE);
+                    }
+                    else {
+                        if (batch == null
+                                || batch.length() >= DEFAULT_BATCH_SIZE) {
+                            batch = new Batch(source.data, lineStart, lineStart, true, context);
+                            segments.add(batch);
+                        }
+                        current = batch;
+                    }
+                }
+                components.add(name);
+            }
+            else if (startsWith(line, END_PREFIX)) {
+                String name = line.substring(END_PREFIX.length()).trim();
+                if (depth == 0 || !name.equals(components.remove(depth - 1))) {
+                    return false;
+                }
+                end = depth == 1;
+            }
+
+            if (current != null) {
+                current.extend(source.length());
+            }
+            else {
+                header.append(line);
+                // a batch is a contiguous span of the data..
+                batch = null;
+            }
+            previous = current;
+            line.setLength(0);
+
+            if (components.size() <= 1) {
+                current = null;
+            }
+            if (end) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Split [" + source.length() + "] characters into [" + segments.size()
+                            + "] segments");
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the compatibility context used for all builds, or null if the context is resolved at the start of each
+     * build
+     */
+    public final CompatibilityContext getCompatibilityContext() {
+        return compatibilityContext;
+    }
+
+    /**
+     * Specifies the compatibility hints applied when building calendars with this builder. The context is made
+     * current for each thread parsing components for the duration of each build. Where no context is specified a
+     * context is resolved from {@link net.fortuna.ical4j.util.CompatibilityHints} at the start of each build.
+     * @param compatibilityContext a compatibility context, or null to resolve the context for each build
+     */
+    public final void setCompatibilityContext(final CompatibilityContext compatibilityContext) {
+        this.compatibilityContext = compatibilityContext;
+    }
+
+    /**
+     * @return the compatibility context for a build
+     */
+    private CompatibilityContext resolveCompatibilityContext() {
+        if (compatibilityContext != null) {
+            return compatibilityContext;
+        }
+        return new CompatibilityContext();
+    }
+
+    /**
+     * @param future a future representing the parsing of a batch of components
+     * @return the parsed components
+     * @throws IOException where an error occurred reading the components
+     * @throws ParserException where an error occurred parsing the components
+     */
+    private List getComponents(final Future future)
+            throws IOException, ParserException {
+        try {
+            return ((Calendar) future.get()).getComponents();
+        }
+        catch (InterruptedException ie) {
+            throw new InterruptedIOException(ie.getMessage());
+        }
+        catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof ParserException) {
+                throw (ParserException) cause;
+            }
+            else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ParserException(cause.getMessage(), -1, cause);
+        }
+    }
+
+    /**
+     * @param buffer a string buffer
+     * @param prefix a prefix
+     * @return true if the buffer starts with the specified prefix
+     */
+    private static boolean startsWith(final StringBuffer buffer,
+            final String prefix) {
+        if (buffer.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (buffer.charAt(i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the data read from an unfolding reader with folds restored, such that the data may be parsed again with
+     * the same line numbers.
+     */
+    private static class Source {
+
+        /**
+         * Restores a fold skipped by the unfolding reader. Characters adjacent to a fold in the original data never
+         * form another fold, and so the data is unfolded again as read.
+         */
+        private static final String FOLD = "\r\n ";
+
+        private UnfoldingReader in;
+
+        private StringBuffer data = new StringBuffer();
+
+        private int linesUnfolded;
+
+        /**
+         * @param in an unfolding reader to read data from
+         */
+        public Source(final UnfoldingReader in) {
+            this.in = in;
+        }
+
+        /**
+         * Reads unfolded characters and records them along with any preceding folds. As per {@link UnfoldingReader},
+         * at most one line is read per invocation, and folds only precede the characters read.
+         * @param buffer a buffer to read characters into
+         * @return the number of characters read, or -1 if the end of the stream has been reached
+         * @throws IOException where an error occurs reading from the stream
+         */
+        public int read(final char[] buffer) throws IOException {
+            int read = in.read(buffer, 0, buffer.length);
+            for (; linesUnfolded < in.getLinesUnfolded(); linesUnfolded++) {
+                data.append(FOLD);
+            }
+            if (read > 0) {
+                data.append(buffer, 0, read);
+            }
+            return read;
+        }
+
+        /**
+         * Reads and records the remainder of the stream.
+         * @throws IOException where an error occurs reading from the stream
+         */
+        public void readFully() throws IOException {
+            char[] buffer = new char[BUFFER_SIZE];
+            while (read(buffer) >= 0) {
+                continue;
+            }
+        }
+
+        /**
+         * @return the number of characters recorded
+         */
+        public int length() {
+            return data.length();
+        }
+
+        /**
+         * @param start the start of a span of the recorded data
+         * @param end the end of a span of the recorded data
+         * @return a reader that unfolds the span of data as originally read
+         */
+        public UnfoldingReader getReader(final int start, final int end) {
+            return new UnfoldingReader(new StringReader(data.substring(start, end)), false);
+        }
+    }
+
+    /**
+     * A batch of calendar data that is parsed independently of other batches.
+     */
+    private class Batch implements Callable {
+
+        private StringBuffer data;
+
+        private int start;
+
+        private int end;
+
+        private boolean components;
+
+        private CompatibilityContext context;
+
+        /**
+         * @param data a buffer containing calendar data
+         * @param start the start of the batch in the buffer
+         * @param end the end of the batch in the buffer
+         * @param components indicates whether the batch contains only components, and so must be enclosed in a
+         * calendar
+         * @param context the compatibility hints applied when parsing the batch
+         */
+        public Batch(final StringBuffer data, final int start, final int end, final boolean components,
+                final CompatibilityContext context) {
+            this.data = data;
+            this.start = start;
+            this.end = end;
+            this.components = components;
+            this.context = context;
+        }
+
+        /**
+         * @param end the new end of the batch in the buffer
+         */
+        public void extend(final int end) {
+            this.end = end;
+        }
+
+        /**
+         * @return the number of characters in the batch
+         */
+        public int length() {
+            return end - start;
+        }
+
+        /**
+         * @return a calendar containing the components of the batch
+         * @throws IOException where an error occurs reading the batch
+         * @throws ParserException where an error occurs parsing the batch
+         */
+        public Calendar parse() throws IOException, ParserException {
+            String content = data.substring(start, end);
+            if (components) {
+                content = CALENDAR_START + content + CALENDAR_END;
+            }
+            CalendarBuilder builder = new CalendarBuilder(CalendarParserFactory.getInstance().createParser(),
+                    registry);
+            builder.setCompatibilityContext(context);
+            // restored folds are unfolded as originally read..
+            return builder.build(new UnfoldingReader(new StringReader(content), false));
+        }
+
+        /*
+         * (non-Javadoc)
+         * @see java.util.concurrent.Callable#call()
+         */
+        public Object call() throws Exception {
+            return parse();
+        }
+    }
+}
@@ -0,0 +1,430 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.data;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StreamTokenizer;
+
+/**
+ * Splits iCalendar data into the tokens of content lines (see RFC2445 4.1). Characters are read from the underlying
+ * reader in blocks and scanned in place, and tokens are identified as spans of the internal buffer. Strings are only
+ * created for the names and values that are actually requested by the parser.
+ * 
+ * Tokens are delimited exactly as by the {@link StreamTokenizer} configured in {@link CalendarParserImpl}, such that
+ * parsers using this lexer produce identical results (including line numbers).
+ * @author Ben Fortuna
+ */
+final class ReaderContentLineLexer extends ContentLineLexer {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final Reader in;
+
+    /**
+     * The underlying reader where it unfolds lines, otherwise null.
+     */
+    private final UnfoldingReader unfoldingReader;
+
+    private char[] buffer;
+
+    private int position;
+
+    private int limit;
+
+    /**
+     * The start of a region of the buffer that must be retained when the buffer is refilled, or -1 if no region
+     * is marked.
+     */
+    private int mark = -1;
+
+    private boolean eof;
+
+    private boolean skipLf;
+
+    private int tokenStart;
+
+    private int tokenEnd;
+
+    private String quoted;
+
+    /**
+     * The position in the buffer of the characters returned by the last read from the underlying reader.
+     */
+    private int readStart;
+
+    /**
+     * The number of lines unfolded by the underlying reader prior to the last read.
+     */
+    private int previousLinesUnfolded;
+
+    /**
+     * The number of lines unfolded by the underlying reader up to and including the last read.
+     */
+    private int linesUnfolded;
+
+    /**
+     * @param in a reader to read iCalendar data from
+     */
+    ReaderContentLineLexer(final Reader in) {
+        this(in, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param in a reader to read iCalendar data from
+     * @param bufferSize the initial size of the character buffer
+     */
+    ReaderContentLineLexer(final Reader in, final int bufferSize) {
+        this.in = in;
+        this.buffer = new char[bufferSize];
+        if (in instanceof UnfoldingReader) {
+            unfoldingReader = (UnfoldingReader) in;
+        }
+        else {
+            unfoldingReader = null;
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.ContentLineLexer#getToken()
+     */
+    String getToken() {
+        if (ttype == TT_WORD) {
+            return new String(buffer, tokenStart, tokenEnd - tokenStart);
+        }
+        else if (ttype == TT_QUOTE) {
+            return quoted;
+        }
+        return null;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.ContentLineLexer#isToken(java.lang.String, boolean)
+     */
+    boolean isToken(final String value, final boolean ignoreCase) {
+        if (ttype == TT_QUOTE) {
+            return ignoreCase ? value.equalsIgnoreCase(quoted) : value.equals(quoted);
+        }
+        else if (ttype != TT_WORD || tokenEnd - tokenStart != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c1 = buffer[tokenStart + i];
+            char c2 = value.charAt(i);
+            if (c1 != c2 && !(ignoreCase
+                    && Character.toUpperCase(c1) == Character.toUpperCase(c2))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.ContentLineLexer#nextToken()
+     */
+    int nextToken() throws IOException {
+        quoted = null;
+        if (!skipLineFeed()) {
+            return ttype = TT_EOF;
+        }
+        // skip whitespace, where line endings are significant..
+        while (true) {
+            if (position == limit && !fill()) {
+                return ttype = TT_EOF;
+            }
+            char c = buffer[position];
+            if (c > WHITESPACE_CHAR_END) {
+                break;
+            }
+            position++;
+            if (c == '\r') {
+                lineNo++;
+                skipLf = true;
+                return ttype = TT_EOL;
+            }
+            else if (c == '\n') {
+                lineNo++;
+                return ttype = TT_EOL;
+            }
+        }
+
+        char c = buffer[position];
+        if (isWordChar(c)) {
+            mark = position;
+            do {
+                position++;
+            }
+            while ((position < limit || fill()) && isWordChar(buffer[position]));
+            tokenStart = mark;
+            tokenEnd = position;
+            mark = -1;
+            return ttype = TT_WORD;
+        }
+        position++;
+        if (c == '"') {
+            StringBuffer b = new StringBuffer();
+            readQuoted(b);
+            quoted = b.toString();
+            return ttype = TT_QUOTE;
+        }
+        return ttype = c;
+    }
+
+    /**
+     * An {@link UnfoldingReader} never returns characters either side of a fold from a single read, so the number of
+     * lines unfolded preceding a character depends only on whether it was returned by the last read.
+     * @see net.fortuna.ical4j.data.ContentLineLexer#getLinesUnfolded()
+     */
+    int getLinesUnfolded() {
+        // the character following a word token is read ahead as per StreamTokenizer..
+        int index = position;
+        if (ttype != TT_WORD) {
+            index--;
+        }
+        if (index >= readStart) {
+            return linesUnfolded;
+        }
+        return previousLinesUnfolded;
+    }
+
+    /**
+     * Where the value contains no whitespace or quoted strings it is created directly from the span of the buffer.
+     * @see net.fortuna.ical4j.data.ContentLineLexer#readValue()
+     */
+    String readValue() throws IOException {
+        quoted = null;
+        if (!skipLineFeed()) {
+            ttype = TT_EOF;
+            return null;
+        }
+        StringBuffer b = null;
+        mark = position;
+        while (true) {
+            if (position == limit && !fill()) {
+                mark = -1;
+                ttype = TT_EOF;
+                return null;
+            }
+            char c = buffer[position];
+            if (c > WHITESPACE_CHAR_END && c != '"') {
+                position++;
+            }
+            else if (c == '\r' || c == '\n') {
+                break;
+            }
+            else {
+                if (b == null) {
+                    b = new StringBuffer();
+                }
+                b.append(buffer, mark, position - mark);
+                position++;
+                if (c == '"') {
+                    b.append('"');
+                    readQuoted(b);
+                    b.append('"');
+                }
+                mark = position;
+            }
+        }
+
+        String value;
+        if (b == null) {
+            value = new String(buffer, mark, position - mark);
+        }
+        else {
+            value = b.append(buffer, mark, position - mark).toString();
+        }
+        mark = -1;
+
+        // consume line ending..
+        if (buffer[position++] == '\r') {
+            skipLf = true;
+        }
+        lineNo++;
+        ttype = TT_EOL;
+        return value;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.ContentLineLexer#skipLine()
+     */
+    boolean skipLine() throws IOException {
+        quoted = null;
+        if (!skipLineFeed()) {
+            ttype = TT_EOF;
+            return false;
+        }
+        while (true) {
+            if (position == limit && !fill()) {
+                ttype = TT_EOF;
+                return false;
+            }
+            char c = buffer[position++];
+            if (c == '\r') {
+                skipLf = true;
+                break;
+            }
+            else if (c == '\n') {
+                break;
+            }
+        }
+        lineNo++;
+        ttype = TT_EOL;
+        return true;
+    }
+
+    /**
+     * Reads a quoted string into the specified buffer (excluding quotes), assuming the opening quote has already been
+     * read. A quoted string is terminated by a closing quote or the end of the line. Escape sequences are interpreted
+     * as per {@link StreamTokenizer}.
+     * @param b a buffer to append the quoted string to
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    private void readQuoted(final StringBuffer b) throws IOException {
+        mark = position;
+        while (true) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            char c = buffer[position];
+            if (c == '"') {
+                b.append(buffer, mark, position - mark);
+                position++;
+                mark = -1;
+                return;
+            }
+            else if (c == '\r' || c == '\n') {
+                break;
+            }
+            else if (c == '\\') {
+                b.append(buffer, mark, position - mark);
+                position++;
+                b.append(readEscape());
+                mark = position;
+            }
+            else {
+                position++;
+            }
+        }
+        b.append(buffer, mark, position - mark);
+        mark = -1;
+    }
+
+    /**
+     * @return the character represented by the escape sequence following a backslash
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    private char readEscape() throws IOException {
+        if (position == limit && !fill()) {
+            return (char) TT_EOF;
+        }
+        char first = buffer[position++];
+        if (first >= '0' && first <= '7') {
+            int c = first - '0';
+            if ((position < limit || fill()) && isOctalChar(buffer[position])) {
+                c = (c << 3) + (buffer[position++] - '0');
+                if (first <= '3' && (position < limit || fill())
+                        && isOctalChar(buffer[position])) {
+                    c = (c << 3) + (buffer[position++] - '0');
+                }
+            }
+            return (char) c;
+        }
+        return getEscapeChar(first);
+    }
+
+    /**
+     * Discards a line feed immediately following a carriage return.
+     * @return false if the end of the stream was reached, otherwise true
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    private boolean skipLineFeed() throws IOException {
+        if (skipLf) {
+            skipLf = false;
+            if (position == limit && !fill()) {
+                return false;
+            }
+            if (buffer[position] == '\n') {
+                position++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads more characters from the underlying stream into the buffer. Characters preceding the current position
+     * (or the mark, if set) are discarded, and the buffer is expanded where it is already full.
+     * @return false if the end of the stream has been reached, otherwise true
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int retain = (mark >= 0) ? mark : position;
+        if (retain > 0) {
+            System.arraycopy(buffer, retain, buffer, 0, limit - retain);
+            limit -= retain;
+            position -= retain;
+            readStart -= retain;
+            if (mark >= 0) {
+                mark = 0;
+            }
+        }
+        if (limit == buffer.length) {
+            char[] expanded = new char[buffer.length * 2];
+            System.arraycopy(buffer, 0, expanded, 0, limit);
+            buffer = expanded;
+        }
+        int read = 0;
+        while (read == 0) {
+            read = in.read(buffer, limit, buffer.length - limit);
+        }
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        if (unfoldingReader != null) {
+            previousLinesUnfolded = linesUnfolded;
+            linesUnfolded = unfoldingReader.getLinesUnfolded();
+        }
+        readStart = limit;
+        limit += read;
+        return true;
+    }
+}
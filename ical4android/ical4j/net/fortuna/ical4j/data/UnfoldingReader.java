@@ -36,7 +36,6 @@ package net.fortuna.ical4j.data;
 import java.io.IOException;
 import java.io.PushbackReader;
 import java.io.Reader;
-import java.util.Arrays;
 
 import net.fortuna.ical4j.util.CompatibilityHints;
 
@@ -47,25 +46,30 @@ import org.apache.commons.logging.LogFactory;
  * A reader which performs iCalendar unfolding as it reads. Note that unfolding rules may be "relaxed" to allow
  * unfolding of non-conformant *.ics files. By specifying the system property "ical4j.unfolding.relaxed=true" iCalendar
  * files created with Mozilla Calendar/Sunbird may be correctly unfolded.
+ * <p>
+ * Characters are read from the underlying reader in blocks, and folds (a CRLF sequence followed by a single space or
+ * horizontal tab, or in relaxed mode a single LF followed by a space) are detected in a single pass over the buffered
+ * characters.
  * @author Ben Fortuna
  */
 public class UnfoldingReader extends PushbackReader {
 
-    private Log log = LogFactory.getLog(UnfoldingReader.class);
-
     /**
-     * The pattern used to identify a fold in an iCalendar data stream.
+     * The number of characters that may be pushed back onto the stream.
      */
-    private static final char[] DEFAULT_FOLD_PATTERN = { '\r', '\n', ' ' };
+    private static final int PUSHBACK_SIZE = 3;
 
-    /**
-     * The pattern used to identify a fold in Mozilla Calendar/Sunbird and KOrganizer.
-     */
-    private static final char[] RELAXED_FOLD_PATTERN = { '\n', ' ' };
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
 
-    private char[][] patterns;
+    private Log log = LogFactory.getLog(UnfoldingReader.class);
 
-    private char[][] buffers;
+    private boolean relaxed;
+
+    private char[] buffer;
+
+    private int position;
+
+    private int limit;
 
     private int linesUnfolded;
 
@@ -84,20 +88,9 @@ public class UnfoldingReader extends PushbackReader {
      * @param relaxed specifies whether unfolding is relaxed
      */
     public UnfoldingReader(final Reader in, final boolean relaxed) {
-        super(in, DEFAULT_FOLD_PATTERN.length);
-        if (relaxed) {
-            patterns = new char[2][];
-            patterns[0] = DEFAULT_FOLD_PATTERN;
-            patterns[1] = RELAXED_FOLD_PATTERN;
-        }
-        else {
-            patterns = new char[1][];
-            patterns[0] = DEFAULT_FOLD_PATTERN;
-        }
-        buffers = new char[patterns.length][];
-        for (int i = 0; i < patterns.length; i++) {
-            buffers[i] = new char[patterns[i].length];
-        }
+        super(in, PUSHBACK_SIZE);
+        this.relaxed = relaxed;
+        this.buffer = new char[DEFAULT_BUFFER_SIZE];
     }
 
     /**
@@ -111,33 +104,177 @@ public class UnfoldingReader extends PushbackReader {
      * @see java.io.PushbackReader#read()
      */
     public final int read() throws IOException {
-        boolean didUnfold;
+        if (!skipFolds()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
 
-        // need to loop since one line fold might be directly followed by another
-        do {
-            didUnfold = false;
-
-            for (int i = 0; i < buffers.length; i++) {
-                int read = super.read(buffers[i]);
-                if (read > 0) {
-                    if (!Arrays.equals(patterns[i], buffers[i])) {
-                        unread(buffers[i], 0, read);
-                    }
-                    else {
-                        if (log.isDebugEnabled()) {
-                            log.debug("Unfolding...");
-                        }
-                        linesUnfolded++;
-                        didUnfold = true;
-                    }
+    /**
+     * Reads characters into a portion of an array. At most one line is read per invocation, and a read ends before
+     * any fold within the line, such that the number of lines unfolded is accurate for all of the characters read.
+     * @see java.io.PushbackReader#read(char[], int, int)
+     */
+    public int read(final char[] cbuf, final int off, final int len)
+            throws IOException {
+
+        int read = 0;
+        while (read < len) {
+            // avoid blocking once some characters have been read..
+            if (read > 0 && position >= limit && !in.ready()) {
+                break;
+            }
+            if (read > 0) {
+                if ((position >= limit && !fill(1)) || getFoldLength() > 0) {
+                    break;
                 }
-                else {
-                    return read;
+            }
+            else if (!skipFolds()) {
+                break;
+            }
+            char c = buffer[position];
+            if (c == '\r' || c == '\n') {
+                cbuf[off + read++] = c;
+                position++;
+                // keep a CRLF line ending together..
+                if (c == '\r' && read < len && position < limit
+                        && buffer[position] == '\n') {
+                    cbuf[off + read++] = '\n';
+                    position++;
                 }
+                break;
+            }
+            int start = position;
+            int end = position + Math.min(len - read, limit - position);
+            while (position < end && buffer[position] != '\r'
+                    && buffer[position] != '\n') {
+                position++;
+            }
+            System.arraycopy(buffer, start, cbuf, off + read, position - start);
+            read += position - start;
+        }
+        if (read == 0 && len > 0) {
+            return -1;
+        }
+        return read;
+    }
+
+    /**
+     * @see java.io.PushbackReader#unread(int)
+     */
+    public void unread(final int c) throws IOException {
+        if (position == 0) {
+            throw new IOException("Pushback buffer overflow");
+        }
+        buffer[--position] = (char) c;
+    }
+
+    /**
+     * @see java.io.PushbackReader#unread(char[], int, int)
+     */
+    public void unread(final char[] cbuf, final int off, final int len)
+            throws IOException {
+        if (len > position) {
+            throw new IOException("Pushback buffer overflow");
+        }
+        position -= len;
+        System.arraycopy(cbuf, off, buffer, position, len);
+    }
+
+    /**
+     * @see java.io.PushbackReader#ready()
+     */
+    public boolean ready() throws IOException {
+        return position < limit || in.ready();
+    }
+
+    /**
+     * @see java.io.PushbackReader#skip(long)
+     */
+    public long skip(final long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && read() >= 0) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Advances the current position past any folds, such that the next buffered character is the next unfolded
+     * character of the stream.
+     * @return false if the end of the stream has been reached, otherwise true
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    private boolean skipFolds() throws IOException {
+        // need to loop since one line fold might be directly followed by another
+        while (position < limit || fill(1)) {
+            int fold = getFoldLength();
+            if (fold == 0) {
+                return true;
+            }
+            position += fold;
+            if (log.isDebugEnabled()) {
+                log.debug("Unfolding...");
+            }
+            linesUnfolded++;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of characters in a fold at the current position, or zero if there is no fold
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    private int getFoldLength() throws IOException {
+        char c = buffer[position];
+        if (c == '\r') {
+            if (fill(3) && buffer[position + 1] == '\n'
+                    && isFoldChar(buffer[position + 2])) {
+                return 3;
             }
         }
-        while (didUnfold);
+        else if (c == '\n' && relaxed) {
+            if (fill(2) && buffer[position + 1] == ' ') {
+                return 2;
+            }
+        }
+        return 0;
+    }
 
-        return super.read();
+    /**
+     * @param c a character
+     * @return true if the specified character may follow a line break to indicate a fold
+     */
+    private static boolean isFoldChar(final char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    /**
+     * Ensures at least the specified number of characters are buffered from the current position, reading from the
+     * underlying stream as required.
+     * @param count the number of characters required
+     * @return true if the required number of characters are available, or false if the end of the stream was reached
+     * @throws IOException where an error occurs reading from the underlying stream
+     */
+    private boolean fill(final int count) throws IOException {
+        if (limit - position >= count) {
+            return true;
+        }
+        if (position + count > buffer.length) {
+            // retain room for pushback before the current position..
+            int retain = Math.min(position, PUSHBACK_SIZE);
+            System.arraycopy(buffer, position - retain, buffer, 0,
+                    limit - position + retain);
+            limit -= position - retain;
+            position = retain;
+        }
+        while (limit - position < count) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
     }
 }
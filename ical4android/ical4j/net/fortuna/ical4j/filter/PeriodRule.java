@@ -42,7 +42,6 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import net.fortuna.ical4j.model.Component;
-import net.fortuna.ical4j.model.DateList;
 import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.Period;
 import net.fortuna.ical4j.model.Property;
@@ -114,10 +113,14 @@ public class PeriodRule extends ComponentRule {
         for (Iterator i = component.getProperties(Property.RRULE).iterator(); i
                 .hasNext();) {
             RRule rrule = (RRule) i.next();
-            DateList startDates = rrule.getRecur().getDates(start.getDate(),
-                    period, (Value) start.getParameter(Parameter.VALUE));
-            for (Iterator j = startDates.iterator(); j.hasNext();) {
+            // stop at the first matching recurrence..
+            for (Iterator j = rrule.getCompiledRecur().iterator(start.getDate(),
+                    period.getStart(), (Value) start.getParameter(Parameter.VALUE));
+                    j.hasNext();) {
                 Date recurDate = (Date) j.next();
+                if (!recurDate.before(period.getEnd())) {
+                    break;
+                }
                 if (period.includes(recurDate)) {
                     debug(recurDate, "recurrence rule");
                     return true;
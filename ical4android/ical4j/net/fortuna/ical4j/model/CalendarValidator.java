@@ -0,0 +1,295 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.component.VTimeZone;
+import net.fortuna.ical4j.model.component.VToDo;
+import net.fortuna.ical4j.util.CompatibilityContext;
+
+/**
+ * Validates calendars equivalently to {@link Calendar#validate()}, optionally validating batches of components
+ * concurrently using an executor. Where the validator is incremental, components that were successfully validated by
+ * a previous invocation are not validated again unless properties or sub-components (such as alarms) have since been
+ * added to or removed from the component, properties have been added to or removed from its sub-components, or the
+ * component has been marked dirty via {@link #markDirty(Component)}. Components must be marked dirty where the value
+ * of an existing property is modified, or where a property or sub-component is replaced. All components are
+ * revalidated where the compatibility hints in effect differ from those of the previous invocation.
+ * 
+ * Where an executor is specified the compatibility hints in effect for the calling thread are applied to the
+ * validation of all components. If more than one component is invalid the exception thrown is that of the first
+ * invalid component, as for serial validation. Note that this class is not thread-safe.
+ * @author Ben Fortuna
+ */
+public class CalendarValidator {
+
+    /**
+     * The number of components validated by each task.
+     */
+    private static final int DEFAULT_BATCH_SIZE = 256;
+
+    private Executor executor;
+
+    private int batchSize;
+
+    private boolean incremental;
+
+    /**
+     * Modification counts of successfully validated components, keyed on component identity.
+     * @see #getModCounts(Component)
+     */
+    private Map validated = new IdentityHashMap();
+
+    private CompatibilityContext validatedContext;
+
+    /**
+     * Default constructor. Components are validated serially by the calling thread.
+     */
+    public CalendarValidator() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new instance that validates batches of components using the specified executor.
+     * @param executor an executor used to validate components, or null to validate components serially by the
+     * calling thread
+     */
+    public CalendarValidator(final Executor executor) {
+        this(executor, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a new instance that validates batches of components using the specified executor.
+     * @param executor an executor used to validate components, or null to validate components serially by the
+     * calling thread
+     * @param batchSize the number of components validated by each task
+     */
+    public CalendarValidator(final Executor executor, final int batchSize) {
+        this.executor = executor;
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * @return true if components validated by a previous invocation are not validated again unless modified
+     */
+    public final boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * @param incremental specifies whether components validated by a previous invocation are validated again only
+     * where modified
+     */
+    public final void setIncremental(final boolean incremental) {
+        this.incremental = incremental;
+        if (!incremental) {
+            validated.clear();
+        }
+    }
+
+    /**
+     * Indicates that the specified component has been modified such that it must be validated again by the next
+     * incremental validation.
+     * @param component a modified component
+     */
+    public final void markDirty(final Component component) {
+        validated.remove(component);
+    }
+
+    /**
+     * Validates the specified calendar, its properties and its components.
+     * @param calendar a calendar to validate
+     * @throws ValidationException where the calendar is not in a valid state
+     */
+    public void validate(final Calendar calendar) throws ValidationException {
+        CompatibilityContext context = new CompatibilityContext();
+        if (!context.equals(validatedContext)) {
+            validated.clear();
+            validatedContext = context;
+        }
+
+        calendar.validate(false);
+        for (Iterator i = calendar.getProperties().iterator(); i.hasNext();) {
+            ((Property) i.next()).validate();
+        }
+
+        List components = new ArrayList();
+        for (Iterator i = calendar.getComponents().iterator(); i.hasNext();) {
+            Component component = (Component) i.next();
+            int[] modCounts = (int[]) validated.get(component);
+            if (!incremental || modCounts == null
+                    || !Arrays.equals(modCounts, getModCounts(component))) {
+                components.add(component);
+            }
+        }
+
+        if (executor == null || components.size() <= batchSize) {
+            new Batch(components, context).call();
+        }
+        else {
+            validate(components, context);
+        }
+
+        if (incremental) {
+            // retain only components of the most recently validated calendar..
+            validated = new IdentityHashMap();
+            for (Iterator i = calendar.getComponents().iterator(); i.hasNext();) {
+                Component component = (Component) i.next();
+                validated.put(component, getModCounts(component));
+            }
+        }
+    }
+
+    /**
+     * @param component a component
+     * @return the modification counts of the property list of the component, its list of sub-components (if any), and
+     * the property lists of its sub-components
+     */
+    private static int[] getModCounts(final Component component) {
+        ComponentList subComponents = null;
+        if (component instanceof VEvent) {
+            subComponents = ((VEvent) component).getAlarms();
+        }
+        else if (component instanceof VToDo) {
+            subComponents = ((VToDo) component).getAlarms();
+        }
+        else if (component instanceof VTimeZone) {
+            subComponents = ((VTimeZone) component).getObservances();
+        }
+        if (subComponents == null) {
+            return new int[] {component.getProperties().getModCount()};
+        }
+        int[] modCounts = new int[subComponents.size() + 2];
+        modCounts[0] = component.getProperties().getModCount();
+        modCounts[1] = subComponents.getModCount();
+        for (int i = 0; i < subComponents.size(); i++) {
+            modCounts[i + 2] = ((Component) subComponents.get(i)).getProperties().getModCount();
+        }
+        return modCounts;
+    }
+
+    /**
+     * Validates batches of components using the executor.
+     * @param components the components to validate
+     * @param context the compatibility hints applied to validation
+     * @throws ValidationException where a component is not in a valid state
+     */
+    private void validate(final List components, final CompatibilityContext context)
+            throws ValidationException {
+
+        List tasks = new ArrayList();
+        for (int i = 0; i < components.size(); i += batchSize) {
+            List batch = components.subList(i, Math.min(i + batchSize, components.size()));
+            FutureTask task = new FutureTask(new Batch(batch, context));
+            tasks.add(task);
+            executor.execute(task);
+        }
+        try {
+            // report the first invalid component in the order of the calendar..
+            for (Iterator i = tasks.iterator(); i.hasNext();) {
+                ((FutureTask) i.next()).get();
+            }
+        }
+        catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ValidationException("Validation interrupted");
+        }
+        catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof ValidationException) {
+                throw (ValidationException) cause;
+            }
+            else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ValidationException(cause.getMessage());
+        }
+        finally {
+            for (Iterator i = tasks.iterator(); i.hasNext();) {
+                ((FutureTask) i.next()).cancel(false);
+            }
+        }
+    }
+
+    /**
+     * A batch of components validated with the compatibility hints of the invoking thread.
+     */
+    private static class Batch implements Callable {
+
+        private List components;
+
+        private CompatibilityContext context;
+
+        /**
+         * @param components the components to validate
+         * @param context the compatibility hints applied to validation
+         */
+        public Batch(final List components, final CompatibilityContext context) {
+            this.components = components;
+            this.context = context;
+        }
+
+        /**
+         * @return null
+         * @throws ValidationException where a component is not in a valid state
+         */
+        public Object call() throws ValidationException {
+            CompatibilityContext previousContext = CompatibilityContext.getCurrent();
+            CompatibilityContext.setCurrent(context);
+            try {
+                for (Iterator i = components.iterator(); i.hasNext();) {
+                    ((Component) i.next()).validate();
+                }
+            }
+            finally {
+                CompatibilityContext.setCurrent(previousContext);
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,1125 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.fortuna.ical4j.model.parameter.Value;
+import net.fortuna.ical4j.util.Dates;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * An immutable, compiled form of a {@link Recur}. The frequency, BY* rules and the sequence in which the rules are
+ * applied are resolved once on compilation, such that repeated expansions of the same recurrence don't repeat this
+ * setup. Subsequent modifications to the recur from which an instance is compiled are not reflected.
+ * <p>
+ * BYHOUR, BYMINUTE, BYSECOND and BYSETPOS values are sorted. As the candidates of each frequency period are sorted
+ * prior to selection the order of these values doesn't affect the dates generated. Other rules are retained in the
+ * order specified, as these are applied cumulatively where a value exceeds the length of the month or year.
+ * @author Ben Fortuna
+ * @see Recur#compile()
+ */
+public final class CompiledRecur {
+
+    // frequencies..
+    public static final int SECONDLY = 1;
+
+    public static final int MINUTELY = 2;
+
+    public static final int HOURLY = 3;
+
+    public static final int DAILY = 4;
+
+    public static final int WEEKLY = 5;
+
+    public static final int MONTHLY = 6;
+
+    public static final int YEARLY = 7;
+
+    /**
+     * The number of years without candidates after which an unbounded expansion of a daily (or longer) frequency is
+     * abandoned. As the Gregorian calendar repeats every 400 years a rule without candidates in this time has none.
+     */
+    private static final long MAX_EMPTY_YEARS = 400;
+
+    // expansion steps, in order of application..
+    private static final int BYMONTH = 0;
+
+    private static final int BYWEEKNO = 1;
+
+    private static final int BYYEARDAY = 2;
+
+    private static final int BYMONTHDAY = 3;
+
+    private static final int BYDAY = 4;
+
+    private static final int BYHOUR = 5;
+
+    private static final int BYMINUTE = 6;
+
+    private static final int BYSECOND = 7;
+
+    private static final int BYSETPOS = 8;
+
+    private static final String[] STEP_NAMES = new String[] {"BYMONTH", "BYWEEKNO", "BYYEARDAY",
+        "BYMONTHDAY", "BYDAY", "BYHOUR", "BYMINUTE", "BYSECOND", "SETPOS"};
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Log log = LogFactory.getLog(CompiledRecur.class);
+
+    private final int frequency;
+
+    private final int calendarField;
+
+    private final int interval;
+
+    private final int count;
+
+    private final boolean hasUntil;
+
+    private final long untilTime;
+
+    private final int[] months;
+
+    private final int[] weekNos;
+
+    private final int[] yearDays;
+
+    private final int[] monthDays;
+
+    private final WeekDay[] days;
+
+    private final int[] calendarDays;
+
+    private final int[] dayOffsets;
+
+    private final int[] hours;
+
+    private final int[] minutes;
+
+    private final int[] seconds;
+
+    private final int[] setPositions;
+
+    private final int[] plan;
+
+    // BY* number values in the order specified, for identifying a modified recur..
+    private final int[][] sources;
+
+    private final boolean dayFilter;
+
+    private final int dayScope;
+
+    private final String canonical;
+
+    private final long lookBack;
+
+    private final long horizon;
+
+    /**
+     * @param recur the recurrence to compile
+     */
+    CompiledRecur(final Recur recur) {
+        frequency = getFrequency(recur.getFrequency());
+        switch (frequency) {
+            case SECONDLY:
+                calendarField = Calendar.SECOND;
+                break;
+            case MINUTELY:
+                calendarField = Calendar.MINUTE;
+                break;
+            case HOURLY:
+                calendarField = Calendar.HOUR_OF_DAY;
+                break;
+            case DAILY:
+                calendarField = Calendar.DAY_OF_YEAR;
+                break;
+            case WEEKLY:
+                calendarField = Calendar.WEEK_OF_YEAR;
+                break;
+            case MONTHLY:
+                calendarField = Calendar.MONTH;
+                break;
+            default:
+                calendarField = Calendar.YEAR;
+        }
+        interval = (recur.getInterval() >= 1) ? recur.getInterval() : 1;
+        count = recur.getCount();
+        hasUntil = recur.getUntil() != null;
+        untilTime = hasUntil ? recur.getUntil().getTime() : 0;
+
+        months = toArray(recur.getMonthList());
+        weekNos = toArray(recur.getWeekNoList());
+        yearDays = toArray(recur.getYearDayList());
+        monthDays = toArray(recur.getMonthDayList());
+        int[] hourValues = toArray(recur.getHourList());
+        int[] minuteValues = toArray(recur.getMinuteList());
+        int[] secondValues = toArray(recur.getSecondList());
+        int[] setPosValues = toArray(recur.getSetPosList());
+        sources = new int[][] {months, weekNos, yearDays, monthDays, hourValues, minuteValues, secondValues,
+                setPosValues};
+        hours = sort(hourValues, 0, 23);
+        minutes = sort(minuteValues, 0, 59);
+        seconds = sort(secondValues, 0, 59);
+        setPositions = sort(setPosValues, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        days = (WeekDay[]) recur.getDayList().toArray(new WeekDay[recur.getDayList().size()]);
+        calendarDays = new int[days.length];
+        dayOffsets = new int[days.length];
+        for (int i = 0; i < days.length; i++) {
+            calendarDays[i] = WeekDay.getCalendarDay(days[i]);
+            dayOffsets[i] = days[i].getOffset();
+        }
+
+        int[][] rules = new int[][] {months, weekNos, yearDays, monthDays, calendarDays, hours, minutes, seconds,
+                setPositions};
+        int steps = 0;
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i].length > 0) {
+                steps++;
+            }
+        }
+        plan = new int[steps];
+        steps = 0;
+        for (int i = 0; i < rules.length; i++) {
+            if (rules[i].length > 0) {
+                plan[steps++] = i;
+            }
+        }
+
+        // week days limit candidates where BYYEARDAY or BYMONTHDAY is specified..
+        dayFilter = yearDays.length > 0 || monthDays.length > 0;
+        if (frequency == DAILY) {
+            dayScope = DAILY;
+        }
+        else if (frequency == WEEKLY || weekNos.length > 0) {
+            dayScope = WEEKLY;
+        }
+        else if (frequency == MONTHLY || months.length > 0) {
+            dayScope = MONTHLY;
+        }
+        else if (frequency == YEARLY) {
+            dayScope = YEARLY;
+        }
+        else {
+            dayScope = 0;
+        }
+        canonical = recur.toString();
+
+        // the furthest a candidate may occur before the seed of its frequency period..
+        if (frequency == YEARLY || months.length > 0 || weekNos.length > 0 || yearDays.length > 0) {
+            lookBack = (366 + Dates.DAYS_PER_WEEK + 1) * Dates.MILLIS_PER_DAY;
+        }
+        else if (frequency == MONTHLY || monthDays.length > 0) {
+            lookBack = 32 * Dates.MILLIS_PER_DAY;
+        }
+        else if (frequency == WEEKLY || dayScope == WEEKLY) {
+            lookBack = (Dates.DAYS_PER_WEEK + 1) * Dates.MILLIS_PER_DAY;
+        }
+        else {
+            lookBack = 2 * Dates.MILLIS_PER_DAY;
+        }
+
+        // the time without candidates after which an unbounded expansion is abandoned, scaled such that the number of
+        // empty periods expanded remains practical for shorter frequencies..
+        if (frequency == SECONDLY) {
+            horizon = Dates.MILLIS_PER_WEEK;
+        }
+        else if (frequency == MINUTELY) {
+            horizon = 366 * Dates.MILLIS_PER_DAY;
+        }
+        else if (frequency == HOURLY) {
+            horizon = 40 * 366 * Dates.MILLIS_PER_DAY;
+        }
+        else {
+            horizon = MAX_EMPTY_YEARS * 366 * Dates.MILLIS_PER_DAY;
+        }
+    }
+
+    /**
+     * @return the frequency of the recurrence, being one of {@link #SECONDLY} to {@link #YEARLY}
+     */
+    public int getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Returns a list of start dates in the specified period represented by this recur.
+     * @param periodStart the start of the period
+     * @param periodEnd the end of the period
+     * @param value the type of dates to generate (i.e. date/date-time)
+     * @return a list of dates
+     * @see Recur#getDates(Date, Date, Value)
+     */
+    public DateList getDates(final Date periodStart, final Date periodEnd, final Value value) {
+        return getDates(periodStart, periodStart, periodEnd, value);
+    }
+
+    /**
+     * Convenience method for retrieving recurrences in a specified period.
+     * @param seed the start date of this Recurrence's first instance
+     * @param period the period of returned recurrence dates
+     * @param value type of dates to generate
+     * @return a list of dates
+     * @see Recur#getDates(Date, Period, Value)
+     */
+    public DateList getDates(final Date seed, final Period period, final Value value) {
+        return getDates(seed, period.getStart(), period.getEnd(), value);
+    }
+
+    /**
+     * Returns a list of start dates in the specified period represented by this recur.
+     * @param seed the start date of this Recurrence's first instance
+     * @param periodStart the start of the period
+     * @param periodEnd the end of the period
+     * @param value the type of dates to generate (i.e. date/date-time)
+     * @return a list of dates represented by this recur instance
+     * @see Recur#getDates(Date, Date, Date, Value)
+     */
+    public DateList getDates(final Date seed, final Date periodStart, final Date periodEnd, final Value value) {
+        RecurIterator i = new RecurIterator(seed, periodStart, periodEnd, value);
+        DateList dates = new DateList(value);
+        if (seed instanceof DateTime) {
+            if (((DateTime) seed).isUtc()) {
+                dates.setUtc(true);
+            }
+            else {
+                dates.setTimeZone(((DateTime) seed).getTimeZone());
+            }
+        }
+        while (i.hasNext()) {
+            dates.add(i.next());
+        }
+        // sort final list..
+        Collections.sort(dates);
+        return dates;
+    }
+
+    /**
+     * Returns an iterator over the start dates represented by this recur, beginning with the first date that occurs on
+     * or after the specified period start. Where no UNTIL date is specified the iterator is also exhausted when no
+     * dates are generated for an extended time, being a week for a secondly frequency, a year for minutely, 40 years
+     * for hourly and 400 years for daily or longer frequencies.
+     * @param seed the start date of this Recurrence's first instance
+     * @param periodStart the earliest date to return
+     * @param value the type of dates to generate (i.e. date/date-time)
+     * @return an iterator over instances of {@link Date}
+     * @see Recur#iterator(Date, Date, Value)
+     */
+    public Iterator iterator(final Date seed, final Date periodStart, final Value value) {
+        return new RecurIterator(seed, periodStart, null, value);
+    }
+
+    /**
+     * Indicates whether this instance is equivalent to a compilation of the specified recur in its current state. As
+     * compilation is the more expensive operation this may be used to determine whether a retained instance is stale
+     * where the recur may have been modified since.
+     * @param recur a recur
+     * @return true if compiling the specified recur would produce an instance equivalent to this one
+     */
+    public boolean isCompiledFrom(final Recur recur) {
+        if (getFrequency(recur.getFrequency()) != frequency
+                || Math.max(recur.getInterval(), 1) != interval
+                || recur.getCount() != count
+                || (recur.getUntil() != null) != hasUntil
+                || (hasUntil && recur.getUntil().getTime() != untilTime)) {
+            return false;
+        }
+        return recur.hasRules(sources, days);
+    }
+
+    /**
+     * @return the string representation of the recur from which this instance was compiled
+     * @see java.lang.Object#toString()
+     */
+    public String toString() {
+        return canonical;
+    }
+
+    /**
+     * Generates the dates of a recurrence lazily, retaining only the candidates of the current frequency period.
+     */
+    private class RecurIterator implements Iterator {
+
+        private final Date seed;
+
+        private final Date periodStart;
+
+        private final Date periodEnd;
+
+        private final Value value;
+
+        private final Calendar cal;
+
+        private final boolean utc;
+
+        private final TimeZone timezone;
+
+        private final RecurExpander expander;
+
+        private DateList candidates;
+
+        private int position;
+
+        private Date candidate;
+
+        private Date next;
+
+        private int dateCount;
+
+        private int invalidCandidateCount;
+
+        private final long endTime;
+
+        private long lastPeriodTime;
+
+        private boolean complete;
+
+        /**
+         * @param seed the start date of the first instance
+         * @param periodStart the earliest date to return
+         * @param periodEnd the (exclusive) end of the period, or null for no end
+         * @param value the type of dates to generate
+         */
+        RecurIterator(final Date seed, final Date periodStart,
+                final Date periodEnd, final Value value) {
+
+            this.seed = seed;
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+            this.value = value;
+            if (seed instanceof DateTime) {
+                utc = ((DateTime) seed).isUtc();
+                timezone = ((DateTime) seed).getTimeZone();
+            }
+            else {
+                utc = false;
+                timezone = null;
+            }
+            cal = Dates.getCalendarInstance(seed);
+            cal.setTime(seed);
+            expander = new RecurExpander(CompiledRecur.this);
+            if (periodEnd != null && hasUntil) {
+                endTime = Math.min(periodEnd.getTime(), untilTime);
+            }
+            else if (periodEnd != null) {
+                endTime = periodEnd.getTime();
+            }
+            else if (hasUntil) {
+                endTime = untilTime;
+            }
+            else {
+                endTime = Long.MAX_VALUE;
+            }
+
+            // optimize the start time for selecting candidates
+            // (only applicable where a COUNT is not specified)
+            if (count < 1) {
+                skip(cal, periodStart);
+            }
+            lastPeriodTime = cal.getTimeInMillis();
+        }
+
+        /*
+         * (non-Javadoc)
+         * @see java.util.Iterator#hasNext()
+         */
+        public boolean hasNext() {
+            if (next == null && !complete) {
+                next = nextDate();
+                complete = (next == null);
+            }
+            return next != null;
+        }
+
+        /*
+         * (non-Javadoc)
+         * @see java.util.Iterator#next()
+         */
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Date date = next;
+            next = null;
+            return date;
+        }
+
+        /*
+         * (non-Javadoc)
+         * @see java.util.Iterator#remove()
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * @return the next date of the recurrence, or null if there are no more dates
+         */
+        private Date nextDate() {
+            while (true) {
+                while (candidates != null && position < candidates.size()) {
+                    candidate = (Date) candidates.get(position++);
+                    // don't count candidates that occur before the seed date..
+                    if (candidate.before(seed)) {
+                        continue;
+                    }
+                    // candidates exclusive of periodEnd..
+                    if (candidate.before(periodStart)
+                            || (periodEnd != null && !candidate.before(periodEnd))) {
+                        invalidCandidateCount++;
+                    }
+                    else if (count >= 1
+                            && (dateCount + invalidCandidateCount) >= count) {
+                        // skip remaining candidates in this period..
+                        position = candidates.size();
+                    }
+                    else if (!isAfterUntil(candidate)) {
+                        dateCount++;
+                        return candidate;
+                    }
+                }
+                if (candidates != null) {
+                    cal.add(calendarField, interval);
+                }
+                if (candidate != null && isAfterUntil(candidate)) {
+                    return null;
+                }
+                if (periodEnd != null && candidate != null
+                        && candidate.after(periodEnd)) {
+                    return null;
+                }
+                if (count >= 1
+                        && (dateCount + invalidCandidateCount) >= count) {
+                    return null;
+                }
+                // guard against rules that produce no further candidates..
+                if (isExhausted(cal.getTimeInMillis())) {
+                    return null;
+                }
+
+                Date candidateSeed = Dates.getInstance(cal.getTime(), value);
+                if (Value.DATE_TIME.equals(value)) {
+                    if (utc) {
+                        ((DateTime) candidateSeed).setUtc(true);
+                    }
+                    else {
+                        ((DateTime) candidateSeed).setTimeZone(timezone);
+                    }
+                }
+                // expand candidates without a calendar where possible..
+                candidates = expander.expand(candidateSeed, value);
+                if (candidates == null) {
+                    candidates = getCandidates(candidateSeed, value);
+                }
+                // sort candidates for identifying when UNTIL date is exceeded..
+                Collections.sort(candidates);
+                position = 0;
+                if (!candidates.isEmpty()) {
+                    lastPeriodTime = cal.getTimeInMillis();
+                }
+            }
+        }
+
+        /**
+         * Indicates whether no further candidates may be returned. Where the expansion is bounded by a period end or
+         * UNTIL date this is the case once no candidate of the current period may occur before the bound. Otherwise
+         * the expansion is abandoned once no candidates have been generated in the horizon of the frequency.
+         * @param periodTime the seed time of the current frequency period
+         * @return true if the expansion is complete
+         */
+        private boolean isExhausted(final long periodTime) {
+            if (endTime != Long.MAX_VALUE) {
+                return periodTime - lookBack > endTime;
+            }
+            return periodTime - lastPeriodTime > horizon;
+        }
+    }
+
+    /**
+     * @param date a date
+     * @return true if an UNTIL date is specified and the specified date occurs after it
+     */
+    private boolean isAfterUntil(final Date date) {
+        return hasUntil && date.getTime() > untilTime;
+    }
+
+    /**
+     * Advances the specified calendar to the last period of this recurrence starting before the specified date. The
+     * number of periods to skip is calculated rather than counted via successive increments. Sub-daily frequencies are
+     * skipped in elapsed time, and daily and longer frequencies in wall-clock time relative to the seed date. Note that
+     * where the seed time of day does not exist on an intermediate date (i.e. it falls in a daylight savings gap) the
+     * time of day is retained, whereas successive increments would carry the adjusted time forward.
+     * @param cal a calendar initialised with the seed date
+     * @param periodStart the date to advance the calendar towards
+     */
+    private void skip(final Calendar cal, final Date periodStart) {
+        if (!cal.getTime().before(periodStart)) {
+            return;
+        }
+        long seedTime = cal.getTimeInMillis();
+        long time = periodStart.getTime();
+
+        long periodLength = 0;
+        if (frequency == SECONDLY) {
+            periodLength = interval * Dates.MILLIS_PER_SECOND;
+        }
+        else if (frequency == MINUTELY) {
+            periodLength = interval * Dates.MILLIS_PER_MINUTE;
+        }
+        else if (frequency == HOURLY) {
+            periodLength = interval * Dates.MILLIS_PER_HOUR;
+        }
+        if (periodLength > 0) {
+            // the last period starting before the period start..
+            cal.setTimeInMillis(seedTime + ((time - seedTime - 1) / periodLength) * periodLength);
+            return;
+        }
+
+        long periods;
+        if (frequency == DAILY || frequency == WEEKLY) {
+            java.util.TimeZone zone = cal.getTimeZone();
+            long localElapsed = (time + zone.getOffset(time)) - (seedTime + zone.getOffset(seedTime));
+            if (frequency == DAILY) {
+                periods = localElapsed / (interval * Dates.MILLIS_PER_DAY);
+            }
+            else {
+                periods = localElapsed / (interval * Dates.MILLIS_PER_WEEK);
+            }
+        }
+        else if (cal.get(Calendar.DAY_OF_MONTH) <= 28) {
+            Calendar periodStartCal = (Calendar) cal.clone();
+            periodStartCal.setTimeInMillis(time);
+            long months = (periodStartCal.get(Calendar.YEAR) - cal.get(Calendar.YEAR)) * 12L
+                    + periodStartCal.get(Calendar.MONTH) - cal.get(Calendar.MONTH);
+            if (frequency == MONTHLY) {
+                periods = months / interval;
+            }
+            else {
+                periods = months / (interval * 12L);
+            }
+        }
+        else {
+            // days of the month that are not valid in every month are truncated by
+            // successive increments, so these must be applied individually..
+            Calendar seededCal = (Calendar) cal.clone();
+            while (seededCal.getTime().before(periodStart)) {
+                cal.setTime(seededCal.getTime());
+                seededCal.add(calendarField, interval);
+            }
+            return;
+        }
+
+        // correct the estimate for variations in period length..
+        if (periods < 0) {
+            periods = 0;
+        }
+        Calendar skipped = getPeriod(cal, calendarField, periods * interval);
+        while (periods > 0 && !skipped.getTime().before(periodStart)) {
+            periods--;
+            skipped = getPeriod(cal, calendarField, periods * interval);
+        }
+        Calendar next = getPeriod(cal, calendarField, (periods + 1) * interval);
+        while (next.getTime().before(periodStart)) {
+            periods++;
+            skipped = next;
+            next = getPeriod(cal, calendarField, (periods + 1) * interval);
+        }
+        cal.setTimeInMillis(skipped.getTimeInMillis());
+    }
+
+    /**
+     * @param seedCal a calendar initialised with the seed date
+     * @param field the calendar field to increment
+     * @param amount the amount to increment the field by
+     * @return a new calendar instance representing the seed date incremented by the specified amount
+     */
+    private static Calendar getPeriod(final Calendar seedCal, final int field, final long amount) {
+        Calendar cal = (Calendar) seedCal.clone();
+        cal.add(field, (int) amount);
+        return cal;
+    }
+
+    /**
+     * Returns a list of possible dates generated from the applicable BY* rules, using the specified date as a seed.
+     * @param date the seed date
+     * @param value the type of date list to return
+     * @return a DateList
+     */
+    private DateList getCandidates(final Date date, final Value value) {
+        DateList dates = new DateList(value);
+        if (date instanceof DateTime) {
+            if (((DateTime) date).isUtc()) {
+                dates.setUtc(true);
+            }
+            else {
+                dates.setTimeZone(((DateTime) date).getTimeZone());
+            }
+        }
+        dates.add(date);
+        for (int i = 0; i < plan.length; i++) {
+            switch (plan[i]) {
+                case BYMONTH:
+                    dates = getMonthVariants(dates);
+                    break;
+                case BYWEEKNO:
+                    dates = getWeekNoVariants(dates);
+                    break;
+                case BYYEARDAY:
+                    dates = getYearDayVariants(dates);
+                    break;
+                case BYMONTHDAY:
+                    dates = getMonthDayVariants(dates);
+                    break;
+                case BYDAY:
+                    dates = getDayVariants(dates);
+                    break;
+                case BYHOUR:
+                    dates = getTimeVariants(dates, Calendar.HOUR_OF_DAY, hours);
+                    break;
+                case BYMINUTE:
+                    dates = getTimeVariants(dates, Calendar.MINUTE, minutes);
+                    break;
+                case BYSECOND:
+                    dates = getTimeVariants(dates, Calendar.SECOND, seconds);
+                    break;
+                default:
+                    dates = applySetPosRules(dates);
+            }
+            // debugging..
+            if (log.isDebugEnabled()) {
+                log.debug("Dates after " + STEP_NAMES[plan[i]] + " processing: " + dates);
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Applies BYSETPOS rules to <code>dates</code>. Valid positions are from 1 to the size of the date list. Invalid
+     * positions are ignored.
+     * @param dates
+     */
+    private DateList applySetPosRules(final DateList dates) {
+        // sort the list before processing..
+        Collections.sort(dates);
+        DateList setPosDates = new DateList(dates.getType(), dates
+                .getTimeZone());
+        int size = dates.size();
+        for (int i = 0; i < setPositions.length; i++) {
+            int pos = setPositions[i];
+            if (pos > 0 && pos <= size) {
+                setPosDates.add(dates.get(pos - 1));
+            }
+            else if (pos < 0 && pos >= -size) {
+                setPosDates.add(dates.get(size + pos));
+            }
+        }
+        return setPosDates;
+    }
+
+    /**
+     * Applies BYMONTH rules to the specified date list.
+     * @param dates
+     * @return
+     */
+    private DateList getMonthVariants(final DateList dates) {
+        DateList monthlyDates = new DateList(dates.getType(), dates
+                .getTimeZone());
+        for (Iterator i = dates.iterator(); i.hasNext();) {
+            Date date = (Date) i.next();
+            Calendar cal = Dates.getCalendarInstance(date);
+            cal.setTime(date);
+            for (int j = 0; j < months.length; j++) {
+                // Java months are zero-based..
+                cal.roll(Calendar.MONTH,
+                        (months[j] - 1) - cal.get(Calendar.MONTH));
+                monthlyDates.add(Dates.getInstance(cal.getTime(), monthlyDates
+                        .getType()));
+            }
+        }
+        return monthlyDates;
+    }
+
+    /**
+     * Applies BYWEEKNO rules to the specified date list.
+     * @param dates
+     * @return
+     */
+    private DateList getWeekNoVariants(final DateList dates) {
+        DateList weekNoDates = new DateList(dates.getType(), dates
+                .getTimeZone());
+        for (Iterator i = dates.iterator(); i.hasNext();) {
+            Date date = (Date) i.next();
+            Calendar cal = Dates.getCalendarInstance(date);
+            cal.setTime(date);
+            for (int j = 0; j < weekNos.length; j++) {
+                cal.set(Calendar.WEEK_OF_YEAR, Dates.getAbsWeekNo(
+                        cal.getTime(), weekNos[j]));
+                weekNoDates.add(Dates.getInstance(cal.getTime(), weekNoDates
+                        .getType()));
+            }
+        }
+        return weekNoDates;
+    }
+
+    /**
+     * Applies BYYEARDAY rules to the specified date list.
+     * @param dates
+     * @return
+     */
+    private DateList getYearDayVariants(final DateList dates) {
+        DateList yearDayDates = new DateList(dates.getType(), dates
+                .getTimeZone());
+        for (Iterator i = dates.iterator(); i.hasNext();) {
+            Date date = (Date) i.next();
+            Calendar cal = Dates.getCalendarInstance(date);
+            cal.setTime(date);
+            for (int j = 0; j < yearDays.length; j++) {
+                cal.set(Calendar.DAY_OF_YEAR, Dates.getAbsYearDay(
+                        cal.getTime(), yearDays[j]));
+                yearDayDates.add(Dates.getInstance(cal.getTime(), yearDayDates
+                        .getType()));
+            }
+        }
+        return yearDayDates;
+    }
+
+    /**
+     * Applies BYMONTHDAY rules to the specified date list.
+     * @param dates
+     * @return
+     */
+    private DateList getMonthDayVariants(final DateList dates) {
+        DateList monthDayDates = new DateList(dates.getType(), dates
+                .getTimeZone());
+        for (Iterator i = dates.iterator(); i.hasNext();) {
+            Date date = (Date) i.next();
+            Calendar cal = Dates.getCalendarInstance(date);
+            cal.setTime(date);
+            for (int j = 0; j < monthDays.length; j++) {
+                cal.set(Calendar.DAY_OF_MONTH, Dates.getAbsMonthDay(cal
+                        .getTime(), monthDays[j]));
+                monthDayDates.add(Dates.getInstance(cal.getTime(),
+                        monthDayDates.getType()));
+            }
+        }
+        return monthDayDates;
+    }
+
+    /**
+     * Applies BYDAY rules to the specified date list. Where BYYEARDAY or BYMONTHDAY rules are specified the date list
+     * is filtered, otherwise dates are expanded to the matching week days of the frequency period.
+     * @param dates
+     * @return
+     */
+    private DateList getDayVariants(final DateList dates) {
+        DateList weekDayDates = new DateList(dates.getType(), dates
+                .getTimeZone());
+        for (Iterator i = dates.iterator(); i.hasNext();) {
+            Date date = (Date) i.next();
+            for (int j = 0; j < days.length; j++) {
+                if (dayFilter) {
+                    Calendar cal = Calendar.getInstance();
+                    cal.setTime(date);
+                    if (days[j].equals(WeekDay.getWeekDay(cal))) {
+                        weekDayDates.add(date);
+                    }
+                }
+                else {
+                    weekDayDates.addAll(getAbsWeekDays(date, dates.getType(), j));
+                }
+            }
+        }
+        return weekDayDates;
+    }
+
+    /**
+     * Returns a list of applicable dates corresponding to the specified week day in accordance with the frequency
+     * specified by this recurrence rule.
+     * @param date
+     * @param type
+     * @param index the index of the week day
+     * @return
+     */
+    private DateList getAbsWeekDays(final Date date, final Value type, final int index) {
+        Calendar cal = Dates.getCalendarInstance(date);
+        cal.setTime(date);
+        DateList weekDays = new DateList(type);
+        if (date instanceof DateTime) {
+            if (((DateTime) date).isUtc()) {
+                weekDays.setUtc(true);
+            }
+            else {
+                weekDays.setTimeZone(((DateTime) date).getTimeZone());
+            }
+        }
+        int calDay = calendarDays[index];
+        if (calDay == -1) {
+            // a matching weekday cannot be identified..
+            return weekDays;
+        }
+        if (dayScope == DAILY) {
+            if (cal.get(Calendar.DAY_OF_WEEK) == calDay) {
+                weekDays.add(Dates.getInstance(cal.getTime(), type));
+            }
+        }
+        else if (dayScope == WEEKLY) {
+            // construct a list of possible week days..
+            while (cal.get(Calendar.DAY_OF_WEEK) != calDay) {
+                cal.add(Calendar.DAY_OF_WEEK, 1);
+            }
+            int weekNo = cal.get(Calendar.WEEK_OF_YEAR);
+            while (cal.get(Calendar.WEEK_OF_YEAR) == weekNo) {
+                weekDays.add(Dates.getInstance(cal.getTime(), type));
+                cal.add(Calendar.DAY_OF_WEEK, Dates.DAYS_PER_WEEK);
+            }
+        }
+        else if (dayScope == MONTHLY) {
+            int month = cal.get(Calendar.MONTH);
+            // construct a list of possible month days..
+            cal.set(Calendar.DAY_OF_MONTH, 1);
+            while (cal.get(Calendar.DAY_OF_WEEK) != calDay) {
+                cal.add(Calendar.DAY_OF_MONTH, 1);
+            }
+            while (cal.get(Calendar.MONTH) == month) {
+                weekDays.add(Dates.getInstance(cal.getTime(), type));
+                cal.add(Calendar.DAY_OF_MONTH, Dates.DAYS_PER_WEEK);
+            }
+        }
+        else if (dayScope == YEARLY) {
+            int year = cal.get(Calendar.YEAR);
+            // construct a list of possible year days..
+            cal.set(Calendar.DAY_OF_YEAR, 1);
+            while (cal.get(Calendar.DAY_OF_WEEK) != calDay) {
+                cal.add(Calendar.DAY_OF_YEAR, 1);
+            }
+            while (cal.get(Calendar.YEAR) == year) {
+                weekDays.add(Dates.getInstance(cal.getTime(), type));
+                cal.add(Calendar.DAY_OF_YEAR, Dates.DAYS_PER_WEEK);
+            }
+        }
+        return getOffsetDates(weekDays, dayOffsets[index]);
+    }
+
+    /**
+     * Returns a single-element sublist containing the element of <code>list</code> at <code>offset</code>. Valid
+     * offsets are from 1 to the size of the list. If an invalid offset is supplied, all elements from <code>list</code>
+     * are added to <code>sublist</code>.
+     * @param dates
+     * @param offset
+     */
+    private DateList getOffsetDates(final DateList dates, final int offset) {
+        if (offset == 0) {
+            return dates;
+        }
+        DateList offsetDates = new DateList(dates.getType(), dates.getTimeZone());
+        int size = dates.size();
+        if (offset < 0 && offset >= -size) {
+            offsetDates.add(dates.get(size + offset));
+        }
+        else if (offset > 0 && offset <= size) {
+            offsetDates.add(dates.get(offset - 1));
+        }
+        return offsetDates;
+    }
+
+    /**
+     * Applies BYHOUR, BYMINUTE or BYSECOND rules to the specified date list.
+     * @param dates
+     * @param field the calendar field specified by the rule values
+     * @param values the rule values
+     * @return
+     */
+    private DateList getTimeVariants(final DateList dates, final int field, final int[] values) {
+        DateList timeDates = new DateList(dates.getType(), dates
+                .getTimeZone());
+        for (Iterator i = dates.iterator(); i.hasNext();) {
+            Date date = (Date) i.next();
+            Calendar cal = Dates.getCalendarInstance(date);
+            cal.setTime(date);
+            for (int j = 0; j < values.length; j++) {
+                cal.set(field, values[j]);
+                timeDates.add(Dates.getInstance(cal.getTime(),
+                        timeDates.getType()));
+            }
+        }
+        return timeDates;
+    }
+
+    /**
+     * @return the BYMONTH values
+     */
+    int[] getMonths() {
+        return months;
+    }
+
+    /**
+     * @return the BYWEEKNO values
+     */
+    int[] getWeekNos() {
+        return weekNos;
+    }
+
+    /**
+     * @return the BYYEARDAY values
+     */
+    int[] getYearDays() {
+        return yearDays;
+    }
+
+    /**
+     * @return the BYMONTHDAY values
+     */
+    int[] getMonthDays() {
+        return monthDays;
+    }
+
+    /**
+     * @return the <code>java.util.Calendar</code> week days of the BYDAY values
+     */
+    int[] getCalendarDays() {
+        return calendarDays;
+    }
+
+    /**
+     * @return the offsets of the BYDAY values
+     */
+    int[] getDayOffsets() {
+        return dayOffsets;
+    }
+
+    /**
+     * @return the BYHOUR values
+     */
+    int[] getHours() {
+        return hours;
+    }
+
+    /**
+     * @return the BYMINUTE values
+     */
+    int[] getMinutes() {
+        return minutes;
+    }
+
+    /**
+     * @return the BYSECOND values
+     */
+    int[] getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * @return the BYSETPOS values
+     */
+    int[] getSetPositions() {
+        return setPositions;
+    }
+
+    /**
+     * @return true if BYDAY rules limit candidates rather than expanding them
+     */
+    boolean isDayFilter() {
+        return dayFilter;
+    }
+
+    /**
+     * @param frequency a frequency string
+     * @return the corresponding frequency constant
+     */
+    private static int getFrequency(final String frequency) {
+        if (Recur.SECONDLY.equals(frequency)) {
+            return SECONDLY;
+        }
+        else if (Recur.MINUTELY.equals(frequency)) {
+            return MINUTELY;
+        }
+        else if (Recur.HOURLY.equals(frequency)) {
+            return HOURLY;
+        }
+        else if (Recur.DAILY.equals(frequency)) {
+            return DAILY;
+        }
+        else if (Recur.WEEKLY.equals(frequency)) {
+            return WEEKLY;
+        }
+        else if (Recur.MONTHLY.equals(frequency)) {
+            return MONTHLY;
+        }
+        return YEARLY;
+    }
+
+    /**
+     * @param list a list of numbers
+     * @return an array of the specified numbers
+     */
+    private static int[] toArray(final NumberList list) {
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+        int[] values = new int[list.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ((Integer) list.get(i)).intValue();
+        }
+        return values;
+    }
+
+    /**
+     * Returns a sorted copy of the specified values where all are within the specified range. Out of range values carry
+     * into a larger unit when applied, such that the order of subsequent values is significant.
+     * @param values an array of values
+     * @param min the minimum value
+     * @param max the maximum value
+     * @return a sorted copy of the specified array, or the specified array if it cannot be sorted
+     */
+    private static int[] sort(final int[] values, final int min, final int max) {
+        if (values.length < 2) {
+            return values;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] < min || values[i] > max) {
+                return values;
+            }
+        }
+        int[] sorted = (int[]) values.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -33,13 +33,13 @@
  */
 package net.fortuna.ical4j.model;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Iterator;
 
 import net.fortuna.ical4j.util.Strings;
 
 import org.apache.commons.lang.ObjectUtils;
-import org.apache.commons.lang.builder.HashCodeBuilder;
 
 /**
  * Defines an iCalendar component. Subclasses of this class provide additional
@@ -95,19 +95,33 @@ public abstract class Component implements Serializable {
      */
     public String toString() {
         StringBuffer buffer = new StringBuffer();
-        buffer.append(BEGIN);
-        buffer.append(':');
-        buffer.append(getName());
-        buffer.append(Strings.LINE_SEPARATOR);
-        buffer.append(getProperties());
-        buffer.append(END);
-        buffer.append(':');
-        buffer.append(getName());
-        buffer.append(Strings.LINE_SEPARATOR);
-
+        try {
+            appendTo(buffer);
+        }
+        catch (IOException ioe) {
+            // not thrown when appending to a string buffer..
+        }
         return buffer.toString();
     }
 
+    /**
+     * Appends the iCalendar representation of this component to the specified output. Subclasses containing
+     * sub-components should override this method to append them before the end of the component.
+     * @param out the output to append to
+     * @throws IOException where an error occurs appending to the output
+     */
+    public void appendTo(final Appendable out) throws IOException {
+        out.append(BEGIN);
+        out.append(':');
+        out.append(getName());
+        out.append(Strings.LINE_SEPARATOR);
+        getProperties().appendTo(out);
+        out.append(END);
+        out.append(':');
+        out.append(getName());
+        out.append(Strings.LINE_SEPARATOR);
+    }
+
     /**
      * @return Returns the name.
      */
@@ -178,19 +192,24 @@ public abstract class Component implements Serializable {
      * name and property lists are equal.
      */
     public final boolean equals(final Object arg0) {
+        if (arg0 == this) {
+            return true;
+        }
         if (arg0 instanceof Component) {
             Component c = (Component) arg0;
             return ObjectUtils.equals(getName(), c.getName())
+                    && getProperties().size() == c.getProperties().size()
                     && ObjectUtils.equals(getProperties(), c.getProperties());
         }
         return super.equals(arg0);
     }
 
     /**
-     * Uses {@link HashCodeBuilder} to build hashcode.
+     * Combines the hashcodes of the component name and properties. Note that
+     * property values are only formatted once where they are deferred values
+     * that have not yet been accessed.
      */
     public final int hashCode() {
-        return new HashCodeBuilder().append(getName())
-            .append(getProperties()).toHashCode();
+        return 37 * getName().hashCode() + getProperties().hashCode();
     }
 }
@@ -0,0 +1,157 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Describes the differences between two lists of components. Components are matched on their {@link ComponentKey},
+ * such that a revision of a component is reported as changed rather than as a removal and addition. Components that
+ * don't specify a unique identifier (or that duplicate the key of a preceding component) are matched on equality.
+ * The differences are determined in a single pass over each list.
+ * @author Ben Fortuna
+ */
+public class ComponentDiff {
+
+    private ComponentList added;
+
+    private ComponentList removed;
+
+    private ComponentList changed;
+
+    private Map originals;
+
+    /**
+     * Determines the differences between the specified component lists.
+     * @param from the original list of components
+     * @param to the revised list of components
+     */
+    public ComponentDiff(final ComponentList from, final ComponentList to) {
+        added = new ComponentList();
+        removed = new ComponentList();
+        changed = new ComponentList();
+        originals = new HashMap();
+
+        Map keyed = new HashMap();
+        Set unkeyed = new HashSet();
+        for (Iterator i = from.iterator(); i.hasNext();) {
+            Component component = (Component) i.next();
+            ComponentKey key = ComponentKey.getInstance(component);
+            if (key == null || keyed.containsKey(key)) {
+                unkeyed.add(component);
+            }
+            else {
+                keyed.put(key, component);
+            }
+        }
+
+        Set revisedKeys = new HashSet();
+        for (Iterator i = to.iterator(); i.hasNext();) {
+            Component component = (Component) i.next();
+            ComponentKey key = ComponentKey.getInstance(component);
+            if (key != null && revisedKeys.add(key)) {
+                Component original = (Component) keyed.get(key);
+                if (original == null) {
+                    added.add(component);
+                }
+                else if (!original.equals(component)) {
+                    changed.add(component);
+                    originals.put(key, original);
+                }
+            }
+            else if (!unkeyed.remove(component)) {
+                added.add(component);
+            }
+        }
+
+        // retain the original ordering of removed components..
+        for (Iterator i = from.iterator(); i.hasNext();) {
+            Component component = (Component) i.next();
+            ComponentKey key = ComponentKey.getInstance(component);
+            if (key != null && keyed.get(key) == component) {
+                if (!revisedKeys.contains(key)) {
+                    removed.add(component);
+                }
+            }
+            else if (unkeyed.remove(component)) {
+                removed.add(component);
+            }
+        }
+    }
+
+    /**
+     * @return components of the revised list that have no match in the original list
+     */
+    public final ComponentList getAdded() {
+        return added;
+    }
+
+    /**
+     * @return components of the original list that have no match in the revised list
+     */
+    public final ComponentList getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return components of the revised list that differ from the matching component of the original list
+     */
+    public final ComponentList getChanged() {
+        return changed;
+    }
+
+    /**
+     * Returns the component of the original list that was revised by the specified changed component.
+     * @param component a component from the list of changed components
+     * @return the original revision of the component, or null if the component is not a changed component
+     */
+    public final Component getOriginal(final Component component) {
+        ComponentKey key = ComponentKey.getInstance(component);
+        if (key != null) {
+            return (Component) originals.get(key);
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the component lists don't differ, otherwise false
+     */
+    public final boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model;
+
+import java.io.Serializable;
+
+import net.fortuna.ical4j.model.property.DateProperty;
+
+import org.apache.commons.lang.ObjectUtils;
+
+/**
+ * Identifies a component independently of its revision, as the combination of the component name, unique identifier
+ * and recurrence identifier. Timezone definitions are identified by their TZID. Keys are used to match different
+ * revisions of the same component, which may then be ordered according to their SEQUENCE and LAST-MODIFIED
+ * properties.
+ * @author Ben Fortuna
+ */
+public final class ComponentKey implements Serializable {
+
+    private static final long serialVersionUID = -4263870316593766046L;
+
+    private final String name;
+
+    private final String uid;
+
+    private final Long recurrenceTime;
+
+    /**
+     * Constructs a key for retrieval of a component with the specified identifiers.
+     * @param name a component name
+     * @param uid a unique identifier (or TZID of a timezone definition)
+     * @param recurrenceId the date of the recurrence identifier, or null to identify a component other than a
+     * recurrence instance
+     */
+    public ComponentKey(final String name, final String uid, final Date recurrenceId) {
+        this(name, uid, recurrenceId != null ? Long.valueOf(recurrenceId.getTime()) : null);
+        if (name == null || uid == null) {
+            throw new IllegalArgumentException("Component name and unique identifier must be specified");
+        }
+    }
+
+    /**
+     * @param name a component name
+     * @param uid a unique identifier
+     * @param recurrenceTime the time of the recurrence identifier, or null
+     */
+    private ComponentKey(final String name, final String uid, final Long recurrenceTime) {
+        this.name = name;
+        this.uid = uid;
+        this.recurrenceTime = recurrenceTime;
+    }
+
+    /**
+     * Returns a key identifying the specified component.
+     * @param component a component
+     * @return a key for the component, or null if the component doesn't specify a unique identifier
+     */
+    public static ComponentKey getInstance(final Component component) {
+        Property uid;
+        if (Component.VTIMEZONE.equals(component.getName())) {
+            uid = component.getProperty(Property.TZID);
+        }
+        else {
+            uid = component.getProperty(Property.UID);
+        }
+        if (uid == null || uid.getValue() == null) {
+            return null;
+        }
+        Long recurrenceTime = null;
+        Property recurrenceId = component.getProperty(Property.RECURRENCE_ID);
+        if (recurrenceId instanceof DateProperty && ((DateProperty) recurrenceId).getDate() != null) {
+            // match recurrence instances independently of their representation..
+            recurrenceTime = Long.valueOf(((DateProperty) recurrenceId).getDate().getTime());
+        }
+        return new ComponentKey(component.getName(), uid.getValue(), recurrenceTime);
+    }
+
+    /**
+     * @return the component name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the unique identifier of the component
+     */
+    public String getUid() {
+        return uid;
+    }
+
+    /**
+     * @return the time of the recurrence identifier in milliseconds, or null if the key doesn't identify a
+     * recurrence instance
+     */
+    public Long getRecurrenceTime() {
+        return recurrenceTime;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    public boolean equals(final Object arg0) {
+        if (arg0 instanceof ComponentKey) {
+            ComponentKey key = (ComponentKey) arg0;
+            return name.equals(key.name) && uid.equals(key.uid)
+                    && ObjectUtils.equals(recurrenceTime, key.recurrenceTime);
+        }
+        return super.equals(arg0);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+    public int hashCode() {
+        int hash = 37 * name.hashCode() + uid.hashCode();
+        if (recurrenceTime != null) {
+            hash = 37 * hash + recurrenceTime.hashCode();
+        }
+        return hash;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#toString()
+     */
+    public String toString() {
+        StringBuffer b = new StringBuffer(name);
+        b.append(':');
+        b.append(uid);
+        if (recurrenceTime != null) {
+            b.append(':');
+            b.append(recurrenceTime);
+        }
+        return b.toString();
+    }
+}
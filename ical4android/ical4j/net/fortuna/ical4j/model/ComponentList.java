@@ -33,12 +33,22 @@
  */
 package net.fortuna.ical4j.model;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Defines a list of iCalendar components.
+ * Defines a list of iCalendar components. Once components are retrieved by identifier the list maintains an index of
+ * components by name, unique identifier and recurrence identifier, such that subsequent retrieval by identifier does
+ * not require a scan of the list. The index is updated as components are appended to and removed from the list, and
+ * is otherwise rebuilt in full prior to publication, such that concurrent retrieval from an unmodified list is safe.
+ * Note that modifying the UID or RECURRENCE-ID property value of a component already in the list is not reflected in
+ * the index, and such components should be removed and added again.
  *
  * @author Ben Fortuna
  */
@@ -46,6 +56,23 @@ public class ComponentList extends ArrayList implements Serializable {
     
     private static final long serialVersionUID = 7308557606558767449L;
 
+    /**
+     * An unmodifiable empty list returned where no components match an identifier.
+     */
+    private static final ComponentList EMPTY_LIST = new ComponentList(0);
+
+    static {
+        EMPTY_LIST.unmodifiable = true;
+    }
+
+    /**
+     * The index of components by identifier, or null if components have not been retrieved by identifier since the
+     * list was last modified.
+     */
+    private transient volatile UidIndex uidIndex;
+
+    private boolean unmodifiable;
+
     /**
      * Default constructor.
      */
@@ -65,12 +92,26 @@ public class ComponentList extends ArrayList implements Serializable {
      */
     public final String toString() {
         StringBuffer buffer = new StringBuffer();
-        for (Iterator i = iterator(); i.hasNext();) {
-            buffer.append(i.next().toString());
+        try {
+            appendTo(buffer);
+        }
+        catch (IOException ioe) {
+            // not thrown when appending to a string buffer..
         }
         return buffer.toString();
     }
 
+    /**
+     * Appends the iCalendar representation of each component in the list to the specified output.
+     * @param out the output to append to
+     * @throws IOException where an error occurs appending to the output
+     */
+    public final void appendTo(final Appendable out) throws IOException {
+        for (Iterator i = iterator(); i.hasNext();) {
+            ((Component) i.next()).appendTo(out);
+        }
+    }
+
     /**
      * Returns the first component of specified name.
      * @param aName name of component to return
@@ -103,6 +144,94 @@ public class ComponentList extends ArrayList implements Serializable {
         return components;
     }
 
+    /**
+     * Returns the first component with the specified key.
+     * @param key a key identifying a component
+     * @return a component or null if no matching component found
+     */
+    public final Component getComponent(final ComponentKey key) {
+        if (key == null) {
+            return null;
+        }
+        return (Component) getIndex().keys.get(key);
+    }
+
+    /**
+     * Returns all components with the specified name and unique identifier, including any recurrence instances. The
+     * returned list is unmodifiable, and contains the matching components of this list at the time of invocation.
+     * @param name name of components to return
+     * @param uid the unique identifier (or TZID of timezone definitions) of components to return
+     * @return a list of matching components
+     */
+    public final ComponentList getComponents(final String name, final String uid) {
+        if (name == null || uid == null) {
+            return EMPTY_LIST;
+        }
+        Map components = (Map) getIndex().uids.get(name);
+        if (components != null) {
+            List list = (List) components.get(uid);
+            if (list != null) {
+                // copy the indexed components such that subsequent
+                // modification of this list is not reflected..
+                ComponentList copy = new ComponentList(list.size());
+                copy.addAllUnmodifiable(list);
+                return copy;
+            }
+        }
+        return EMPTY_LIST;
+    }
+
+    /**
+     * @return the modification count of the list, which changes whenever components are added or removed
+     */
+    final int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * @return the index of components by identifier, rebuilt where the list has been modified since the index was
+     * last updated
+     */
+    private UidIndex getIndex() {
+        UidIndex index = uidIndex;
+        if (index == null || index.modCount != modCount) {
+            // the index is built in full prior to publication..
+            index = new UidIndex(this);
+            uidIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of components by identifier where it reflects the current contents of the list, otherwise
+     * null
+     */
+    private UidIndex getCurrentIndex() {
+        UidIndex index = uidIndex;
+        if (index != null && index.modCount == modCount) {
+            return index;
+        }
+        return null;
+    }
+
+    /**
+     * @param components components to add to an unmodifiable copy of indexed components
+     */
+    private void addAllUnmodifiable(final Collection components) {
+        super.addAll(components);
+        unmodifiable = true;
+    }
+
+    /**
+     * @throws UnsupportedOperationException where this list is an unmodifiable list of indexed components
+     */
+    private void checkModifiable() {
+        if (unmodifiable) {
+            throw new UnsupportedOperationException(
+                    "Component list is unmodifiable");
+        }
+    }
+
     /**
      * Add a component to the list.
      * @param component the component to add
@@ -119,10 +248,141 @@ public class ComponentList extends ArrayList implements Serializable {
      * @see List#add(E)
      */
     public final boolean add(final Object arg0) {
+        checkModifiable();
         if (!(arg0 instanceof Component)) {
             throw new IllegalArgumentException("Argument not a " + Component.class.getName());
         }
-        return super.add(arg0);
+        UidIndex index = getCurrentIndex();
+        boolean added = super.add(arg0);
+        if (index != null) {
+            // appending to the list only requires appending to the index..
+            index.add((Component) arg0);
+            index.modCount = modCount;
+        }
+        return added;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#add(int, java.lang.Object)
+     */
+    public final void add(final int index, final Object element) {
+        checkModifiable();
+        super.add(index, element);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#addAll(java.util.Collection)
+     */
+    public final boolean addAll(final Collection c) {
+        checkModifiable();
+        UidIndex index = getCurrentIndex();
+        int start = size();
+        boolean changed = super.addAll(c);
+        if (index != null) {
+            for (int i = start; i < size(); i++) {
+                index.add((Component) get(i));
+            }
+            index.modCount = modCount;
+        }
+        return changed;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#addAll(int, java.util.Collection)
+     */
+    public final boolean addAll(final int index, final Collection c) {
+        checkModifiable();
+        return super.addAll(index, c);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#set(int, java.lang.Object)
+     */
+    public final Object set(final int index, final Object element) {
+        checkModifiable();
+        Object previous = super.set(index, element);
+        // replacing an element doesn't change the modification count..
+        uidIndex = null;
+        return previous;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#remove(int)
+     */
+    public final Object remove(final int index) {
+        checkModifiable();
+        UidIndex uids = getCurrentIndex();
+        Object removed = super.remove(index);
+        if (uids != null && uids.remove((Component) removed)) {
+            uids.modCount = modCount;
+        }
+        return removed;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#remove(java.lang.Object)
+     */
+    public final boolean remove(final Object o) {
+        checkModifiable();
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#removeAll(java.util.Collection)
+     */
+    public final boolean removeAll(final Collection c) {
+        checkModifiable();
+        return super.removeAll(c);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#retainAll(java.util.Collection)
+     */
+    public final boolean retainAll(final Collection c) {
+        checkModifiable();
+        return super.retainAll(c);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#clear()
+     */
+    public final void clear() {
+        checkModifiable();
+        super.clear();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#removeRange(int, int)
+     */
+    protected final void removeRange(final int fromIndex, final int toIndex) {
+        checkModifiable();
+        super.removeRange(fromIndex, toIndex);
+    }
+
+    /**
+     * The copy is modifiable and does not share the index of this list.
+     * @see java.util.ArrayList#clone()
+     */
+    public Object clone() {
+        ComponentList list = (ComponentList) super.clone();
+        list.uidIndex = null;
+        list.unmodifiable = false;
+        return list;
     }
 
     /**
@@ -167,4 +427,104 @@ public class ComponentList extends ArrayList implements Serializable {
 //    public final List toList() {
 //        return new ArrayList(components);
 //    }
+
+    /**
+     * An index of the components of a list by name and unique identifier, and by {@link ComponentKey}.
+     */
+    private static final class UidIndex {
+
+        /**
+         * Lists of components keyed on component name and then unique identifier.
+         */
+        private final Map uids = new HashMap();
+
+        /**
+         * The first component with each {@link ComponentKey}.
+         */
+        private final Map keys = new HashMap();
+
+        /**
+         * The modification count of the list when the index was last updated.
+         */
+        private int modCount;
+
+        /**
+         * @param list the list to index
+         */
+        UidIndex(final ComponentList list) {
+            for (int i = 0; i < list.size(); i++) {
+                add((Component) list.get(i));
+            }
+            modCount = list.modCount;
+        }
+
+        /**
+         * Adds the specified component to the index.
+         * @param component a component appended to the indexed list
+         */
+        void add(final Component component) {
+            ComponentKey key = ComponentKey.getInstance(component);
+            if (key == null) {
+                return;
+            }
+            if (!keys.containsKey(key)) {
+                keys.put(key, component);
+            }
+            Map components = (Map) uids.get(key.getName());
+            if (components == null) {
+                components = new HashMap();
+                uids.put(key.getName(), components);
+            }
+            List list = (List) components.get(key.getUid());
+            if (list == null) {
+                list = new ArrayList(1);
+                components.put(key.getUid(), list);
+            }
+            list.add(component);
+        }
+
+        /**
+         * Removes the specified component from the index.
+         * @param component a component removed from the indexed list
+         * @return true if the index was updated, or false if the component was not found in the index
+         */
+        boolean remove(final Component component) {
+            ComponentKey key = ComponentKey.getInstance(component);
+            if (key == null) {
+                // components without a unique identifier aren't indexed..
+                return true;
+            }
+            Map components = (Map) uids.get(key.getName());
+            List list = null;
+            if (components != null) {
+                list = (List) components.get(key.getUid());
+            }
+            int position = -1;
+            for (int i = 0; list != null && i < list.size(); i++) {
+                if (list.get(i) == component) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                return false;
+            }
+            list.remove(position);
+            if (list.isEmpty()) {
+                components.remove(key.getUid());
+            }
+            if (keys.get(key) == component) {
+                // promote the next component with the same key (if any)..
+                keys.remove(key);
+                for (int i = position; i < list.size(); i++) {
+                    Component next = (Component) list.get(i);
+                    if (key.equals(ComponentKey.getInstance(next))) {
+                        keys.put(key, next);
+                        break;
+                    }
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -45,4 +45,21 @@ import java.io.Serializable;
  */
 public abstract class Content implements Serializable {
 
+    /**
+     * Generates a hashcode for the specified content name that is consistent
+     * with case-insensitive comparison of names, without creating an uppercase
+     * copy of the name.
+     * @param name a property or parameter name
+     * @return a hashcode for the name
+     */
+    static int hashCodeIgnoreCase(final String name) {
+        if (name == null) {
+            return 0;
+        }
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + Character.toUpperCase(name.charAt(i));
+        }
+        return hash;
+    }
 }
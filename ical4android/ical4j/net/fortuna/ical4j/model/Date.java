@@ -99,6 +99,6 @@ public class Date extends Iso8601 {
      */
     public Date(final String value) throws ParseException {
         this();
-        setTime(getFormat().parse(value).getTime());
+        setTime(parseTime(value));
     }
 }
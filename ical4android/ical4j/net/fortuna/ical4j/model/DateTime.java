@@ -43,7 +43,6 @@ import net.fortuna.ical4j.util.CompatibilityHints;
 import net.fortuna.ical4j.util.Dates;
 import net.fortuna.ical4j.util.TimeZones;
 
-import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.builder.HashCodeBuilder;
 
 /**
@@ -61,41 +60,68 @@ public class DateTime extends Date {
     private static final String RELAXED_PATTERN = "yyyyMMdd";
 
     /**
-     * Used for parsing times in a UTC date-time representation.
+     * The length of a date-time value in the canonical local form.
      */
-    private static final DateFormat UTC_FORMAT = new SimpleDateFormat(
-            UTC_PATTERN);
-    static {
-        UTC_FORMAT.setTimeZone(TimeZone.getTimeZone(TimeZones.UTC_ID));
-        UTC_FORMAT.setLenient(false);
-    }
+    private static final int DEFAULT_LENGTH = 15;
 
     /**
-     * Used for parsing times in a local date-time representation.
+     * The length of a date-time value in the canonical UTC form.
      */
-    private static final DateFormat DEFAULT_FORMAT = new SimpleDateFormat(
-            DEFAULT_PATTERN);
-    static {
-        DEFAULT_FORMAT.setLenient(false);
-    }
+    private static final int UTC_LENGTH = 16;
+
+    /**
+     * The earliest year parsed without date formats. Earlier dates are subject to the Julian calendar.
+     */
+    private static final int MIN_PARSE_YEAR = 1583;
+
+    /**
+     * Indicates a value that could not be parsed in the canonical form.
+     */
+    private static final long INVALID_TIME = Long.MIN_VALUE;
+
+    private static final int UTC_FORMAT = 0;
 
-    private static final DateFormat LENIENT_DEFAULT_FORMAT = new SimpleDateFormat(
-            DEFAULT_PATTERN);
+    private static final int DEFAULT_FORMAT = 1;
 
-    private static final DateFormat RELAXED_FORMAT = new SimpleDateFormat(
-            RELAXED_PATTERN);
+    private static final int LENIENT_DEFAULT_FORMAT = 2;
 
-    private Time time;
+    private static final int RELAXED_FORMAT = 3;
+
+    /**
+     * Formats used for parsing values that are not in the canonical form. As date formats are not thread-safe each
+     * thread maintains its own formats, avoiding contention between threads.
+     */
+    private static final ThreadLocal PARSE_FORMATS = new ThreadLocal() {
+        protected Object initialValue() {
+            DateFormat[] formats = new DateFormat[4];
+            // Used for parsing times in a UTC date-time representation..
+            formats[UTC_FORMAT] = new SimpleDateFormat(UTC_PATTERN);
+            formats[UTC_FORMAT].setTimeZone(TimeZone.getTimeZone(TimeZones.UTC_ID));
+            formats[UTC_FORMAT].setLenient(false);
+            // Used for parsing times in a local date-time representation..
+            formats[DEFAULT_FORMAT] = new SimpleDateFormat(DEFAULT_PATTERN);
+            formats[DEFAULT_FORMAT].setLenient(false);
+            formats[LENIENT_DEFAULT_FORMAT] = new SimpleDateFormat(DEFAULT_PATTERN);
+            formats[RELAXED_FORMAT] = new SimpleDateFormat(RELAXED_PATTERN);
+            return formats;
+        }
+    };
+
+    /**
+     * Used for formatting times in a UTC date-time representation.
+     */
+    private static final java.util.TimeZone UTC_TIMEZONE = TimeZone.getTimeZone(TimeZones.UTC_ID);
 
     private TimeZone timezone;
 
+    private boolean utc;
+
     /**
      * Default constructor.
      */
     public DateTime() {
         super(Dates.PRECISION_SECOND);
-        this.time = new Time(System.currentTimeMillis(), getFormat()
-                .getTimeZone());
+        this.utc = isDefaultUtc();
     }
 
     /**
@@ -111,7 +137,7 @@ public class DateTime extends Date {
      */
     public DateTime(final long time) {
         super(time, Dates.PRECISION_SECOND);
-        this.time = new Time(time, getFormat().getTimeZone());
+        this.utc = isDefaultUtc();
     }
 
     /**
@@ -119,7 +145,6 @@ public class DateTime extends Date {
      */
     public DateTime(final java.util.Date date) {
         super(date.getTime(), Dates.PRECISION_SECOND);
-        this.time = new Time(date.getTime(), getFormat().getTimeZone());
         // copy timezone information if applicable..
         if (date instanceof DateTime) {
             DateTime dateTime = (DateTime) date;
@@ -130,6 +155,9 @@ public class DateTime extends Date {
                 setTimeZone(dateTime.getTimeZone());
             }
         }
+        else {
+            this.utc = isDefaultUtc();
+        }
     }
 
     /**
@@ -156,28 +184,172 @@ public class DateTime extends Date {
     public DateTime(final String value, final TimeZone timezone)
             throws ParseException {
         this();
+        long time = parseTime(value, timezone);
+        if (time != INVALID_TIME) {
+            setTime(time);
+            if (value.length() == UTC_LENGTH) {
+                setUtc(true);
+            }
+            else {
+                setTimeZone(timezone);
+            }
+        }
+        else {
+            setTime(value, timezone);
+        }
+    }
+
+    /**
+     * Parses a date-time value in the canonical form without the use of date formats.
+     * @param value a date-time string representation
+     * @param timezone the timezone of a local date-time value, or null for a floating value
+     * @return the time represented by the specified value, or {@link #INVALID_TIME} if the value is not in the
+     * canonical form or cannot be resolved without date formats
+     */
+    private static long parseTime(final String value, final TimeZone timezone) {
+        final int length = value.length();
+        if ((length != DEFAULT_LENGTH && (length != UTC_LENGTH || value.charAt(DEFAULT_LENGTH) != 'Z'))
+                || value.charAt(8) != 'T') {
+            return INVALID_TIME;
+        }
+        final int year = parseDigits(value, 0, 4);
+        final int month = parseDigits(value, 4, 6);
+        final int day = parseDigits(value, 6, 8);
+        final int hour = parseDigits(value, 9, 11);
+        final int minute = parseDigits(value, 11, 13);
+        final int second = parseDigits(value, 13, 15);
+        // values not accepted by the strict date formats are left to the date formats..
+        if (year < MIN_PARSE_YEAR || month < 1 || month > 12 || day < 1 || day > getDaysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID_TIME;
+        }
+        final long localTime = getEpochDay(year, month, day) * Dates.MILLIS_PER_DAY + hour * Dates.MILLIS_PER_HOUR
+                + minute * Dates.MILLIS_PER_MINUTE + second * Dates.MILLIS_PER_SECOND;
+
+        if (length == UTC_LENGTH) {
+            return localTime;
+        }
+        else if (timezone != null) {
+            // resolve the offset in the same way as java.util.GregorianCalendar..
+            long time = localTime - timezone.getRawOffset();
+            if (timezone.inDaylightTime(new java.util.Date(time))) {
+                time -= timezone.getDSTSavings();
+            }
+            // local times skipped by a daylight savings transition are rejected by the strict date format..
+            if (time + timezone.getOffset(time) != localTime) {
+                return INVALID_TIME;
+            }
+            return time;
+        }
+        // floating times are resolved in the default timezone. Times close to a transition are left to the
+        // date formats, which determine how skipped and repeated local times are resolved..
+        final java.util.TimeZone defaultTimeZone = java.util.TimeZone.getDefault();
+        final int offset = defaultTimeZone.getOffset(localTime - defaultTimeZone.getRawOffset());
+        final long time = localTime - offset;
+        if (defaultTimeZone.getOffset(time - Dates.MILLIS_PER_DAY) != offset
+                || defaultTimeZone.getOffset(time + Dates.MILLIS_PER_DAY) != offset) {
+            return INVALID_TIME;
+        }
+        return time;
+    }
+
+    /**
+     * @param value a string value
+     * @param start the index of the first digit
+     * @param end the index after the last digit
+     * @return the decimal value of the specified digits, or -1 if any character is not a digit
+     */
+    private static int parseDigits(final String value, final int start, final int end) {
+        int result = 0;
+        for (int i = start; i < end; i++) {
+            final int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    /**
+     * @param year a year in the Gregorian calendar
+     * @param month a month of the year (1-12)
+     * @return the number of days in the specified month
+     */
+    private static int getDaysInMonth(final int year, final int month) {
+        if (month == 2) {
+            if (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) {
+                return 29;
+            }
+            return 28;
+        }
+        else if (month == 4 || month == 6 || month == 9 || month == 11) {
+            return 30;
+        }
+        return 31;
+    }
+
+    /**
+     * @param year a year in the Gregorian calendar
+     * @param month a month of the year (1-12)
+     * @param day a day of the month
+     * @return the number of days between the epoch (1970-01-01) and the specified date
+     */
+    private static long getEpochDay(final int year, final int month, final int day) {
+        // count years from March so that the leap day is the last day of the year..
+        final int y;
+        final int m;
+        if (month > 2) {
+            y = year;
+            m = month - 3;
+        }
+        else {
+            y = year - 1;
+            m = month + 9;
+        }
+        final int era = y / 400;
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * m + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Parses a date-time value using date formats, for values not in the canonical form.
+     * @param value a date-time string representation
+     * @param timezone the timezone of a local date-time value, or null for a floating value
+     * @throws ParseException where the specified value is not a valid representation
+     */
+    private void setTime(final String value, final TimeZone timezone) throws ParseException {
+        final DateFormat[] formats = (DateFormat[]) PARSE_FORMATS.get();
         try {
-            setTime(value, UTC_FORMAT, null);
+            setTime(value, formats[UTC_FORMAT], null);
             setUtc(true);
         }
         catch (ParseException pe) {
             try {
                 if (timezone != null) {
-                    setTime(value, DEFAULT_FORMAT, timezone);
+                    setTime(value, formats[DEFAULT_FORMAT], timezone);
                 }
                 else {
                     // Use lenient parsing for floating times. This is to overcome
                     // the problem of parsing VTimeZone dates that specify dates
                     // that the strict parser does not accept.
-                    setTime(value, LENIENT_DEFAULT_FORMAT, getFormat()
-                            .getTimeZone());
+                    setTime(value, formats[LENIENT_DEFAULT_FORMAT], java.util.TimeZone
+                            .getDefault());
                 }
             }
             catch (ParseException pe2) {
                 if (CompatibilityHints
                         .isHintEnabled(CompatibilityHints.KEY_RELAXED_PARSING)) {
 
-                    setTime(value, RELAXED_FORMAT, timezone);
+                    if (timezone != null) {
+                        setTime(value, formats[RELAXED_FORMAT], timezone);
+                    }
+                    else {
+                        setTime(value, formats[RELAXED_FORMAT], java.util.TimeZone
+                                .getDefault());
+                    }
                 }
                 else {
                     throw pe2;
@@ -197,12 +369,10 @@ public class DateTime extends Date {
     private void setTime(String value, DateFormat format, java.util.TimeZone tz)
             throws ParseException {
 
-        synchronized (format) {
-            if (tz != null) {
-                format.setTimeZone(tz);
-            }
-            setTime(format.parse(value).getTime());
+        if (tz != null) {
+            format.setTimeZone(tz);
         }
+        setTime(format.parse(value).getTime());
     }
 
     /*
@@ -211,14 +381,13 @@ public class DateTime extends Date {
      */
     public final void setTime(final long time) {
         super.setTime(time);
-        this.time.setTime(time);
     }
 
     /**
      * @return Returns the utc.
      */
     public final boolean isUtc() {
-        return time.isUtc();
+        return utc;
     }
 
     /**
@@ -229,8 +398,8 @@ public class DateTime extends Date {
         // reset the timezone associated with this instance..
         setTimeZone(null);
         if (utc) {
-            getFormat().setTimeZone(TimeZone.getTimeZone(TimeZones.UTC_ID));
-            time = new Time(time, getFormat().getTimeZone());
+            setFormatTimeZone(UTC_TIMEZONE);
+            this.utc = true;
         }
     }
 
@@ -240,16 +409,21 @@ public class DateTime extends Date {
      */
     public final void setTimeZone(final TimeZone timezone) {
         this.timezone = timezone;
+        // a null format timezone implies the default timezone..
+        setFormatTimeZone(timezone);
         if (timezone != null) {
-            getFormat().setTimeZone(timezone);
+            utc = TimeZones.isUtc(timezone);
         }
         else {
-            // use GMT timezone to avoid daylight savings rules affecting floating
-            // time values..
-            getFormat().setTimeZone(TimeZone.getDefault());
-            // getFormat().setTimeZone(TimeZone.getTimeZone(TimeZones.GMT_ID));
+            utc = isDefaultUtc();
         }
-        time = new Time(time, getFormat().getTimeZone());
+    }
+
+    /**
+     * @return true if the default timezone is equivalent to UTC
+     */
+    private static boolean isDefaultUtc() {
+        return TimeZones.isUtc(java.util.TimeZone.getDefault());
     }
 
     /**
@@ -265,20 +439,20 @@ public class DateTime extends Date {
      * @see java.lang.Object#toString()
      */
     public final String toString() {
-        StringBuffer b = new StringBuffer(super.toString());
-        b.append('T');
-        b.append(time.toString());
-        return b.toString();
+        if (utc) {
+            return format(UTC_PATTERN);
+        }
+        return format(DEFAULT_PATTERN);
     }
 
     /**
-     * Uses {@link ObjectUtils} to test equality.
+     * Date-time instances are equal where they represent the same instant in time.
      */
     public boolean equals(final Object arg0) {
         // TODO: what about compareTo, before, after, etc.?
 
         if (arg0 instanceof DateTime) {
-            return ObjectUtils.equals(time, ((DateTime) arg0).time);
+            return getTime() == ((DateTime) arg0).getTime();
         }
         return super.equals(arg0);
     }
@@ -287,6 +461,6 @@ public class DateTime extends Date {
      * Uses {@link HashCodeBuilder} to build hashcode.
      */
     public int hashCode() {
-        return new HashCodeBuilder().append(time).append(timezone).hashCode();
+        return new HashCodeBuilder().append(super.hashCode()).append(timezone).hashCode();
     }
 }
@@ -40,9 +40,13 @@ import java.util.Iterator;
 import java.util.Map;
 
 /**
- * Provides indexing of components on a specific property.
+ * Provides indexing of components on a specific property. Note that the index is not updated where the indexed list
+ * is subsequently modified.
  * @author Ben Fortuna
+ * @deprecated retrieval of components by unique identifier is indexed by {@link ComponentList} via
+ * {@link ComponentList#getComponents(String, String)} and {@link ComponentList#getComponent(ComponentKey)}
  */
+@Deprecated
 public class IndexedComponentList {
 
     private Map index;
@@ -58,7 +62,12 @@ public class IndexedComponentList {
             Component component = (Component) i.next();
             for (Iterator j = component.getProperties(propertyName).iterator(); j.hasNext();) {
                 Property property = (Property) j.next();
-                getComponents(property.getValue()).add(component);
+                ComponentList components = (ComponentList) index.get(property.getValue());
+                if (components == null) {
+                    components = new ComponentList();
+                    index.put(property.getValue(), components);
+                }
+                components.add(component);
             }
         }
     }
@@ -73,8 +82,8 @@ public class IndexedComponentList {
     public ComponentList getComponents(final String propertyValue) {
         ComponentList components = (ComponentList) index.get(propertyValue);
         if (components == null) {
-            components = new ComponentList();
-            index.put(propertyValue, components);
+            // don't retain empty lists for unmatched values..
+            return new ComponentList(0);
         }
         return components;
     }
@@ -34,7 +34,6 @@
 package net.fortuna.ical4j.model;
 
 import org.apache.commons.lang.ObjectUtils;
-import org.apache.commons.lang.builder.HashCodeBuilder;
 
 import net.fortuna.ical4j.util.Strings;
 
@@ -213,11 +212,12 @@ public abstract class Parameter extends Content {
     }
 
     /**
-     * Uses {@link HashCodeBuilder} to build hashcode.
+     * Combines the hashcodes of the parameter name and value.
      */
     public final int hashCode() {
         // as parameter name is case-insensitive generate hash for uppercase..
-        return new HashCodeBuilder().append(getName().toUpperCase())
-            .append(getValue()).toHashCode();
+        String value = getValue();
+        return 37 * hashCodeIgnoreCase(getName())
+            + (value != null ? value.hashCode() : 0);
     }
 }
@@ -33,6 +33,7 @@
  */
 package net.fortuna.ical4j.model;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
@@ -41,7 +42,6 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.apache.commons.lang.ObjectUtils;
-import org.apache.commons.lang.builder.HashCodeBuilder;
 
 /**
  * Defines a list of iCalendar parameters. A parameter list may be specified as unmodifiable at instantiation - useful
@@ -54,6 +54,11 @@ public class ParameterList implements Serializable {
 
     private List parameters;
 
+    /**
+     * The cached hashcode of the list, reset to zero when the list is modified.
+     */
+    private transient int hash;
+
     /**
      * Default constructor. Creates a modifiable parameter list.
      */
@@ -98,14 +103,28 @@ public class ParameterList implements Serializable {
     public final String toString() {
 
         StringBuffer buffer = new StringBuffer();
+        try {
+            appendTo(buffer);
+        }
+        catch (IOException ioe) {
+            // not thrown when appending to a string buffer..
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Appends the iCalendar representation of each parameter in the list, including the leading separator, to the
+     * specified output.
+     * @param out the output to append to
+     * @throws IOException where an error occurs appending to the output
+     */
+    public final void appendTo(final Appendable out) throws IOException {
 
         for (Iterator i = parameters.iterator(); i.hasNext();) {
 
-            buffer.append(';');
-            buffer.append(i.next().toString());
+            out.append(';');
+            out.append(i.next().toString());
         }
-
-        return buffer.toString();
     }
 
     /**
@@ -153,6 +172,7 @@ public class ParameterList implements Serializable {
      * @see List#add(java.lang.Object)
      */
     public final boolean add(final Parameter parameter) {
+        hash = 0;
         return parameters.add(parameter);
     }
 
@@ -182,7 +202,19 @@ public class ParameterList implements Serializable {
      * @see List#iterator()
      */
     public final Iterator iterator() {
-        return parameters.iterator();
+        final Iterator i = parameters.iterator();
+        return new Iterator() {
+            public boolean hasNext() {
+                return i.hasNext();
+            }
+            public Object next() {
+                return i.next();
+            }
+            public void remove() {
+                hash = 0;
+                i.remove();
+            }
+        };
     }
 
     /**
@@ -192,6 +224,7 @@ public class ParameterList implements Serializable {
      * @see List#remove(java.lang.Object)
      */
     public final boolean remove(final Parameter parameter) {
+        hash = 0;
         return parameters.remove(parameter);
     }
 
@@ -205,21 +238,34 @@ public class ParameterList implements Serializable {
 
     /**
      * Uses {@link ObjectUtils} to test equality. Two parameter lists are equals if and only if they contain the same
-     * set of parameters.
+     * set of parameters. Lists of differing size or hashcode are rejected without comparing individual parameters.
      * @see java.lang.Object#equals(java.lang.Object)
      */
     public final boolean equals(final Object arg0) {
+        if (arg0 == this) {
+            return true;
+        }
         if (arg0 instanceof ParameterList) {
             ParameterList p = (ParameterList) arg0;
+            if (parameters.size() != p.parameters.size()
+                    || (hash != 0 && p.hash != 0 && hash != p.hash)) {
+                return false;
+            }
             return ObjectUtils.equals(parameters, p.parameters);
         }
         return super.equals(arg0);
     }
 
     /**
-     * Uses {@link HashCodeBuilder} to build hashcode.
+     * Returns the hashcode of the list of parameters. As parameters are immutable the hashcode is cached until the
+     * list is next modified.
      */
     public final int hashCode() {
-        return new HashCodeBuilder().append(parameters).toHashCode();
+        int h = hash;
+        if (h == 0) {
+            h = parameters.hashCode();
+            hash = h;
+        }
+        return h;
     }
 }
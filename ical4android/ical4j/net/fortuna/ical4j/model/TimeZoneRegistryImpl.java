@@ -102,9 +102,10 @@ public class TimeZoneRegistryImpl implements TimeZoneRegistry {
     public final TimeZone getTimeZone(final String id) {
         TimeZone timezone = (TimeZone) timezones.get(id);
         if (timezone == null) {
-            timezone = (TimeZone) DEFAULT_TIMEZONES.get(id);
-            if (timezone == null) {
-                synchronized (DEFAULT_TIMEZONES) {
+            // default timezones are shared by all registries, so guard against concurrent loading..
+            synchronized (DEFAULT_TIMEZONES) {
+                timezone = (TimeZone) DEFAULT_TIMEZONES.get(id);
+                if (timezone == null) {
                     try {
                         VTimeZone vTimeZone = loadVTimeZone(id);
                         if (vTimeZone != null) {
@@ -140,7 +140,7 @@ public abstract class Observance extends Component implements Comparable {
      * @return the latest applicable observance date or null if there is no applicable observance onset for the
      * specified date
      */
-    public final Date getLatestOnset(final Date date) {
+    public final synchronized Date getLatestOnset(final Date date) {
         Date initialOnset = ((DtStart) getProperty(Property.DTSTART)).getDate();
 
         // observance not applicable if date is before the effective date of this observance..
@@ -205,10 +205,12 @@ public abstract class Observance extends Component implements Comparable {
                 cal.setTime(date);
                 cal.add(Calendar.YEAR, 10);
                 onsetLimit = Dates.getInstance(cal.getTime(), dateType);
-                DateList recurrenceDates = rrule.getRecur().getDates(onset,
-                         onsetLimit, dateType);
-                for (Iterator j = recurrenceDates.iterator(); j.hasNext();) {
+                for (Iterator j = rrule.getCompiledRecur().iterator(onset, onset,
+                        dateType); j.hasNext();) {
                     Date rruleOnset = (Date) j.next();
+                    if (!rruleOnset.before(onsetLimit)) {
+                        break;
+                    }
                     if (!rruleOnset.after(date) && rruleOnset.after(onset)) {
                         onset = rruleOnset;
                     }
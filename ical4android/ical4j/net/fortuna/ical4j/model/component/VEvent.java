@@ -33,6 +33,7 @@
  */
 package net.fortuna.ical4j.model.component;
 
+import java.io.IOException;
 import java.util.Iterator;
 
 import net.fortuna.ical4j.model.Component;
@@ -294,21 +295,19 @@ public class VEvent extends CalendarComponent {
     }
 
     /**
-     * @see java.lang.Object#toString()
+     * @see net.fortuna.ical4j.model.Component#appendTo(java.lang.Appendable)
      */
-    public final String toString() {
-        StringBuffer b = new StringBuffer();
-        b.append(BEGIN);
-        b.append(':');
-        b.append(getName());
-        b.append(Strings.LINE_SEPARATOR);
-        b.append(getProperties());
-        b.append(getAlarms());
-        b.append(END);
-        b.append(':');
-        b.append(getName());
-        b.append(Strings.LINE_SEPARATOR);
-        return b.toString();
+    public final void appendTo(final Appendable out) throws IOException {
+        out.append(BEGIN);
+        out.append(':');
+        out.append(getName());
+        out.append(Strings.LINE_SEPARATOR);
+        getProperties().appendTo(out);
+        getAlarms().appendTo(out);
+        out.append(END);
+        out.append(':');
+        out.append(getName());
+        out.append(Strings.LINE_SEPARATOR);
     }
 
     /**
@@ -508,7 +507,7 @@ public class VEvent extends CalendarComponent {
         PropertyList rRules = getProperties(Property.RRULE);
         for (Iterator i = rRules.iterator(); i.hasNext();) {
             RRule rrule = (RRule) i.next();
-            DateList startDates = rrule.getRecur().getDates(start.getDate(),
+            DateList startDates = rrule.getCompiledRecur().getDates(start.getDate(),
                     adjustedRangeStart, rangeEnd,
                     (Value) start.getParameter(Parameter.VALUE));
             // DateList startDates = rrule.getRecur().getDates(start.getDate(), rangeStart, rangeEnd, (Value)
@@ -554,7 +553,7 @@ public class VEvent extends CalendarComponent {
             ExRule exrule = (ExRule) i.next();
             // DateList startDates = exrule.getRecur().getDates(start.getDate(), adjustedRangeStart, rangeEnd, (Value)
             // start.getParameters().getParameter(Parameter.VALUE));
-            DateList startDates = exrule.getRecur().getDates(start.getDate(),
+            DateList startDates = exrule.getCompiledRecur().getDates(start.getDate(),
                     rangeStart, rangeEnd,
                     (Value) start.getParameter(Parameter.VALUE));
             for (Iterator j = startDates.iterator(); j.hasNext();) {
@@ -33,6 +33,7 @@
  */
 package net.fortuna.ical4j.model.component;
 
+import java.io.IOException;
 import java.util.Iterator;
 
 import net.fortuna.ical4j.model.Component;
@@ -200,21 +201,19 @@ public class VToDo extends CalendarComponent {
     }
 
     /**
-     * @see java.lang.Object#toString()
+     * @see net.fortuna.ical4j.model.Component#appendTo(java.lang.Appendable)
      */
-    public final String toString() {
-        StringBuffer buffer = new StringBuffer();
-        buffer.append(BEGIN);
-        buffer.append(':');
-        buffer.append(getName());
-        buffer.append(Strings.LINE_SEPARATOR);
-        buffer.append(getProperties());
-        buffer.append(getAlarms());
-        buffer.append(END);
-        buffer.append(':');
-        buffer.append(getName());
-        buffer.append(Strings.LINE_SEPARATOR);
-        return buffer.toString();
+    public final void appendTo(final Appendable out) throws IOException {
+        out.append(BEGIN);
+        out.append(':');
+        out.append(getName());
+        out.append(Strings.LINE_SEPARATOR);
+        getProperties().appendTo(out);
+        getAlarms().appendTo(out);
+        out.append(END);
+        out.append(':');
+        out.append(getName());
+        out.append(Strings.LINE_SEPARATOR);
     }
 
     /*
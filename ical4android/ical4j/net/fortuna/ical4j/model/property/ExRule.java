@@ -37,6 +37,8 @@ package net.fortuna.ical4j.model.property;
 
 import java.text.ParseException;
 
+import net.fortuna.ical4j.model.CompiledRecur;
+import net.fortuna.ical4j.model.Deferrable;
 import net.fortuna.ical4j.model.ParameterList;
 import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.Recur;
@@ -46,12 +48,14 @@ import net.fortuna.ical4j.model.ValidationException;
  * Defines a EXRULE iCalendar component property.
  * @author benf
  */
-public class ExRule extends Property {
+public class ExRule extends Property implements Deferrable {
 
     private static final long serialVersionUID = -9171193801247139294L;
 
     private Recur recur;
 
+    private transient CompiledRecur compiledRecur;
+
     /**
      * Default constructor.
      */
@@ -93,15 +97,34 @@ public class ExRule extends Property {
      * @return Returns the recur.
      */
     public final Recur getRecur() {
+        resolveValue();
         return recur;
     }
 
+    /**
+     * Returns a compiled form of the recur, retained for subsequent expansions of this rule. The recur is compiled again
+     * only where it has been replaced or modified since.
+     * @return a compiled recur
+     * @see Recur#compile()
+     */
+    public final CompiledRecur getCompiledRecur() {
+        Recur value = getRecur();
+        CompiledRecur compiled = compiledRecur;
+        if (compiled == null || !compiled.isCompiledFrom(value)) {
+            compiled = value.compile();
+            compiledRecur = compiled;
+        }
+        return compiled;
+    }
+
     /*
      * (non-Javadoc)
      * @see net.fortuna.ical4j.model.Property#setValue(java.lang.String)
      */
     public final void setValue(final String aValue) throws ParseException {
+        discardValue();
         recur = new Recur(aValue);
+        compiledRecur = null;
     }
 
     /*
@@ -116,7 +139,9 @@ public class ExRule extends Property {
      * @param recur The recur to set.
      */
     public final void setRecur(final Recur recur) {
+        discardValue();
         this.recur = recur;
+        compiledRecur = null;
     }
 
     /*
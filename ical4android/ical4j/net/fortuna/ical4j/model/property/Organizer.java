@@ -38,6 +38,7 @@ package net.fortuna.ical4j.model.property;
 import java.net.URI;
 import java.net.URISyntaxException;
 
+import net.fortuna.ical4j.model.Deferrable;
 import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.ParameterList;
 import net.fortuna.ical4j.model.Property;
@@ -128,7 +129,7 @@ import net.fortuna.ical4j.util.Uris;
  * 
  * @author Ben Fortuna
  */
-public class Organizer extends Property {
+public class Organizer extends Property implements Deferrable {
 
     private static final long serialVersionUID = -5216965653165090725L;
 
@@ -205,6 +206,7 @@ public class Organizer extends Property {
      * @return Returns the calAddress.
      */
     public final URI getCalAddress() {
+        resolveValue();
         return calAddress;
     }
 
@@ -213,6 +215,7 @@ public class Organizer extends Property {
      * @see net.fortuna.ical4j.model.Property#setValue(java.lang.String)
      */
     public final void setValue(final String aValue) throws URISyntaxException {
+        discardValue();
         calAddress = Uris.create(aValue);
     }
 
@@ -228,6 +231,7 @@ public class Organizer extends Property {
      * @param calAddress The calAddress to set.
      */
     public final void setCalAddress(final URI calAddress) {
+        discardValue();
         this.calAddress = calAddress;
     }
 }
@@ -221,6 +221,7 @@ public class RDate extends DateListProperty {
      * @return Returns the period list.
      */
     public final PeriodList getPeriods() {
+        resolveValue();
         return periods;
     }
 
@@ -230,6 +231,7 @@ public class RDate extends DateListProperty {
      */
     public final void setValue(final String aValue) throws ParseException {
         if (Value.PERIOD.equals(getParameter(Parameter.VALUE))) {
+            discardValue();
             periods = new PeriodList(aValue);
         }
         else {
@@ -252,7 +254,7 @@ public class RDate extends DateListProperty {
      * @see net.fortuna.ical4j.model.property.DateListProperty#setTimeZone(net.fortuna.ical4j.model.TimeZone)
      */
     public final void setTimeZone(TimeZone timezone) {
-        if (periods != null) {
+        if (getPeriods() != null) {
             periods.setTimeZone(timezone);
         }
         else {
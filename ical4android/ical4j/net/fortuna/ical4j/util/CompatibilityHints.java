@@ -35,6 +35,7 @@
  */
 package net.fortuna.ical4j.util;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -75,7 +76,10 @@ public final class CompatibilityHints {
      */
     public static final String KEY_NOTES_COMPATIBILITY = "ical4j.compatibility.notes";
 
-    private static final Map HINTS = new HashMap();
+    /**
+     * Hints are replaced rather than modified such that they may be read without synchronization.
+     */
+    private static volatile Map hints = Collections.EMPTY_MAP;
 
     /**
      * Constructor made private to enforce static nature.
@@ -87,16 +91,34 @@ public final class CompatibilityHints {
      * @param key
      * @param value
      */
-    public static void setHintEnabled(final String key, final boolean enabled) {
-        HINTS.put(key, Boolean.valueOf(enabled));
+    public static synchronized void setHintEnabled(final String key, final boolean enabled) {
+        Map newHints = new HashMap(hints);
+        newHints.put(key, Boolean.valueOf(enabled));
+        hints = newHints;
     }
 
     /**
+     * Indicates whether the specified hint is enabled. Where a {@link CompatibilityContext} is current for the calling
+     * thread the hint is resolved by the context, otherwise the hint is resolved from the hints enabled via
+     * {@link #setHintEnabled(String, boolean)} and system properties.
      * @param key
      * @return
      */
     public static boolean isHintEnabled(final String key) {
-        Boolean enabled = (Boolean) HINTS.get(key);
+        CompatibilityContext context = CompatibilityContext.getCurrent();
+        if (context != null) {
+            return context.isHintEnabled(key);
+        }
+        return isGlobalHintEnabled(key);
+    }
+
+    /**
+     * @param key
+     * @return true if the specified hint is enabled via {@link #setHintEnabled(String, boolean)} or system
+     * properties
+     */
+    static boolean isGlobalHintEnabled(final String key) {
+        Boolean enabled = (Boolean) hints.get(key);
         if (enabled != null) {
             return enabled.booleanValue();
         }
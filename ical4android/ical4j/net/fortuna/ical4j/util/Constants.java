@@ -35,6 +35,9 @@
  */
 package net.fortuna.ical4j.util;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import net.fortuna.ical4j.model.Property;
 import net.fortuna.ical4j.model.property.Action;
 import net.fortuna.ical4j.model.property.CalScale;
@@ -52,6 +55,35 @@ import net.fortuna.ical4j.model.property.Version;
  */
 public final class Constants {
 
+    /**
+     * Constant properties keyed on property name, then on property value.
+     */
+    private static final Map CONSTANTS = new HashMap();
+
+    static {
+        Property[] constants = new Property[] {
+            Action.AUDIO, Action.DISPLAY, Action.EMAIL, Action.PROCEDURE, CalScale.GREGORIAN,
+            Clazz.CONFIDENTIAL, Clazz.PRIVATE, Clazz.PUBLIC, Method.ADD, Method.CANCEL,
+            Method.COUNTER, Method.DECLINE_COUNTER, Method.PUBLISH, Method.REFRESH, Method.REPLY,
+            Method.REQUEST, Priority.HIGH, Priority.LOW, Priority.MEDIUM, Priority.UNDEFINED,
+            Status.VEVENT_CANCELLED, Status.VEVENT_CONFIRMED, Status.VEVENT_TENTATIVE,
+            Status.VJOURNAL_CANCELLED, Status.VJOURNAL_DRAFT, Status.VJOURNAL_FINAL,
+            Status.VTODO_CANCELLED, Status.VTODO_COMPLETED, Status.VTODO_IN_PROCESS,
+            Status.VTODO_NEEDS_ACTION, Transp.OPAQUE, Transp.TRANSPARENT, Version.VERSION_2_0
+        };
+        for (int i = 0; i < constants.length; i++) {
+            Map values = (Map) CONSTANTS.get(constants[i].getName());
+            if (values == null) {
+                values = new HashMap();
+                CONSTANTS.put(constants[i].getName(), values);
+            }
+            // where constants share a value the first takes precedence..
+            if (!values.containsKey(constants[i].getValue())) {
+                values.put(constants[i].getValue(), constants[i]);
+            }
+        }
+    }
+
     /**
      * Constructor made private to enforce static nature.
      */
@@ -61,109 +93,18 @@ public final class Constants {
     /**
      * Returns a constant equivalent to the specified property
      * if one is applicable. Otherwise will return the specified
-     * property.
+     * property. A constant is identified by the name and value
+     * of the property, where the property has no parameters.
      * @param property
      * @return a Property instance
      */
     public static Property forProperty(final Property property) {
-        if (Action.AUDIO.equals(property)) {
-            return Action.AUDIO;
-        }
-        else if (Action.DISPLAY.equals(property)) {
-            return Action.DISPLAY;
-        }
-        else if (Action.EMAIL.equals(property)) {
-            return Action.EMAIL;
-        }
-        else if (Action.PROCEDURE.equals(property)) {
-            return Action.PROCEDURE;
-        }
-        else if (CalScale.GREGORIAN.equals(property)) {
-            return CalScale.GREGORIAN;
-        }
-        else if (Clazz.CONFIDENTIAL.equals(property)) {
-            return Clazz.CONFIDENTIAL;
-        }
-        else if (Clazz.PRIVATE.equals(property)) {
-            return Clazz.PRIVATE;
-        }
-        else if (Clazz.PUBLIC.equals(property)) {
-            return Clazz.PUBLIC;
-        }
-        else if (Method.ADD.equals(property)) {
-            return Method.ADD;
-        }
-        else if (Method.CANCEL.equals(property)) {
-            return Method.CANCEL;
-        }
-        else if (Method.COUNTER.equals(property)) {
-            return Method.COUNTER;
-        }
-        else if (Method.DECLINE_COUNTER.equals(property)) {
-            return Method.DECLINE_COUNTER;
-        }
-        else if (Method.PUBLISH.equals(property)) {
-            return Method.PUBLISH;
-        }
-        else if (Method.REFRESH.equals(property)) {
-            return Method.REFRESH;
-        }
-        else if (Method.REPLY.equals(property)) {
-            return Method.REPLY;
-        }
-        else if (Method.REQUEST.equals(property)) {
-            return Method.REQUEST;
-        }
-        else if (Priority.HIGH.equals(property)) {
-            return Priority.HIGH;
-        }
-        else if (Priority.LOW.equals(property)) {
-            return Priority.LOW;
-        }
-        else if (Priority.MEDIUM.equals(property)) {
-            return Priority.MEDIUM;
-        }
-        else if (Priority.UNDEFINED.equals(property)) {
-            return Priority.UNDEFINED;
-        }
-        else if (Status.VEVENT_CANCELLED.equals(property)) {
-            return Status.VEVENT_CANCELLED;
-        }
-        else if (Status.VEVENT_CONFIRMED.equals(property)) {
-            return Status.VEVENT_CONFIRMED;
-        }
-        else if (Status.VEVENT_TENTATIVE.equals(property)) {
-            return Status.VEVENT_TENTATIVE;
-        }
-        else if (Status.VJOURNAL_CANCELLED.equals(property)) {
-            return Status.VJOURNAL_CANCELLED;
-        }
-        else if (Status.VJOURNAL_DRAFT.equals(property)) {
-            return Status.VJOURNAL_DRAFT;
-        }
-        else if (Status.VJOURNAL_FINAL.equals(property)) {
-            return Status.VJOURNAL_FINAL;
-        }
-        else if (Status.VTODO_CANCELLED.equals(property)) {
-            return Status.VTODO_CANCELLED;
-        }
-        else if (Status.VTODO_COMPLETED.equals(property)) {
-            return Status.VTODO_COMPLETED;
-        }
-        else if (Status.VTODO_IN_PROCESS.equals(property)) {
-            return Status.VTODO_IN_PROCESS;
-        }
-        else if (Status.VTODO_NEEDS_ACTION.equals(property)) {
-            return Status.VTODO_NEEDS_ACTION;
-        }
-        else if (Transp.OPAQUE.equals(property)) {
-            return Transp.OPAQUE;
-        }
-        else if (Transp.TRANSPARENT.equals(property)) {
-            return Transp.TRANSPARENT;
-        }
-        else if (Version.VERSION_2_0.equals(property)) {
-            return Version.VERSION_2_0;
+        Map values = (Map) CONSTANTS.get(property.getName());
+        if (values != null && property.getParameters().isEmpty()) {
+            Property constant = (Property) values.get(property.getValue());
+            if (constant != null) {
+                return constant;
+            }
         }
         return property;
     }
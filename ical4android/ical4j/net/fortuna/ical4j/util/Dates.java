@@ -67,6 +67,17 @@ public final class Dates {
 
     public static final int PRECISION_DAY = 1;
 
+    /**
+     * The minimum time either side of a rounded time over which the timezone offset must be constant. This exceeds
+     * the largest change in offset of any timezone (one day).
+     */
+    private static final long OFFSET_PERIOD_MARGIN = 2 * MILLIS_PER_DAY;
+
+    /**
+     * The most recently resolved offset period of the default timezone.
+     */
+    private static volatile OffsetPeriod offsetPeriod;
+
     /**
      * Constructor made private to prevent instantiation.
      */
@@ -199,6 +210,29 @@ public final class Dates {
      * @return a round time value
      */
     public static long round(final long time, final int precision) {
+        if (precision == PRECISION_DAY || precision == PRECISION_SECOND) {
+            // rounding is performed on local time in the default timezone. Away from
+            // timezone transitions this doesn't require a calendar..
+            final TimeZone zone = TimeZone.getDefault();
+            final OffsetPeriod period = getOffsetPeriod(zone, time);
+            if (period != null) {
+                final long localTime = time + period.offset;
+                long rounded;
+                if (precision == PRECISION_DAY) {
+                    rounded = localTime - remainder(localTime, MILLIS_PER_DAY) - period.offset;
+                }
+                else {
+                    rounded = localTime - remainder(localTime, MILLIS_PER_SECOND) - period.offset;
+                }
+                if (period.includes(rounded)) {
+                    return rounded;
+                }
+                final OffsetPeriod roundedPeriod = getOffsetPeriod(zone, rounded);
+                if (roundedPeriod != null && roundedPeriod.offset == period.offset) {
+                    return rounded;
+                }
+            }
+        }
         Calendar cal = Calendar.getInstance();
         cal.setTimeInMillis(time);
         if (precision == PRECISION_DAY) {
@@ -215,4 +249,121 @@ public final class Dates {
         // unrecognised precision..
         return cal.getTimeInMillis();
     }
+
+    /**
+     * @param value a dividend
+     * @param divisor a positive divisor
+     * @return the non-negative remainder of the specified division
+     */
+    private static long remainder(final long value, final long divisor) {
+        final long remainder = value % divisor;
+        if (remainder < 0) {
+            return remainder + divisor;
+        }
+        return remainder;
+    }
+
+    /**
+     * Returns a period over which the offset of the specified timezone is constant, and which includes at least
+     * two days either side of the specified time. The most recently resolved period is retained and extended where
+     * possible, such that successive times in close proximity don't require offset lookups.
+     * @param zone a timezone
+     * @param time a time value
+     * @return an offset period applicable to the specified time, or null if the time is close to a
+     * transition of the specified timezone
+     */
+    private static OffsetPeriod getOffsetPeriod(final TimeZone zone, final long time) {
+        final long start = time - OFFSET_PERIOD_MARGIN;
+        final long end = time + OFFSET_PERIOD_MARGIN;
+        OffsetPeriod period = offsetPeriod;
+        if (period != null && period.isApplicable(zone) && time >= period.start && time <= period.end) {
+            if (period.includes(time)) {
+                return period;
+            }
+            // extend the period beyond the required margin to avoid extending it for every successive time..
+            final long extendedStart = Math.min(start - OFFSET_PERIOD_MARGIN, period.start);
+            final long extendedEnd = Math.max(end + OFFSET_PERIOD_MARGIN, period.end);
+            if (!isOffsetConstant(zone, extendedStart, period.start, period.offset)
+                    || !isOffsetConstant(zone, period.end, extendedEnd, period.offset)) {
+                return null;
+            }
+            period = new OffsetPeriod(zone, extendedStart, extendedEnd, period.offset);
+        }
+        else {
+            final int offset = zone.getOffset(time);
+            if (!isOffsetConstant(zone, start, end, offset)) {
+                return null;
+            }
+            period = new OffsetPeriod(zone, start, end, offset);
+        }
+        offsetPeriod = period;
+        return period;
+    }
+
+    /**
+     * Indicates whether the offset of the specified timezone is constant over the specified period. Offsets are
+     * checked at intervals of no more than a day, on the basis that timezones don't transition and revert within a
+     * single day.
+     * @param zone a timezone
+     * @param start the start of the period
+     * @param end the end of the period
+     * @param offset the expected offset
+     * @return true if the timezone offset is the expected offset over the specified period
+     */
+    private static boolean isOffsetConstant(final TimeZone zone, final long start, final long end,
+            final int offset) {
+        for (long time = start; time < end; time += MILLIS_PER_DAY) {
+            if (zone.getOffset(time) != offset) {
+                return false;
+            }
+        }
+        return start == end || zone.getOffset(end) == offset;
+    }
+
+    /**
+     * A period of time over which the offset of a timezone from UTC is constant. As timezones are mutable and not
+     * thread-safe, the timezone is identified by its ID and raw offset.
+     */
+    private static final class OffsetPeriod {
+
+        private final String zoneId;
+
+        private final int rawOffset;
+
+        private final long start;
+
+        private final long end;
+
+        private final int offset;
+
+        /**
+         * @param zone the timezone
+         * @param start the start of the period
+         * @param end the end of the period
+         * @param offset the offset from UTC over the period
+         */
+        private OffsetPeriod(final TimeZone zone, final long start, final long end, final int offset) {
+            this.zoneId = zone.getID();
+            this.rawOffset = zone.getRawOffset();
+            this.start = start;
+            this.end = end;
+            this.offset = offset;
+        }
+
+        /**
+         * @param zone a timezone
+         * @return true if this period applies to the specified timezone
+         */
+        private boolean isApplicable(final TimeZone zone) {
+            return rawOffset == zone.getRawOffset() && zoneId.equals(zone.getID());
+        }
+
+        /**
+         * @param time a time value
+         * @return true if this period includes at least two days either side of the specified time
+         */
+        private boolean includes(final long time) {
+            return time - OFFSET_PERIOD_MARGIN >= start && time + OFFSET_PERIOD_MARGIN <= end;
+        }
+    }
 }
@@ -0,0 +1,116 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.util;
+
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.ComponentKey;
+import net.fortuna.ical4j.model.Property;
+import net.fortuna.ical4j.model.property.LastModified;
+import net.fortuna.ical4j.model.property.Sequence;
+
+/**
+ * Determines which of two revisions of a component is retained when merging calendars. Revisions are identified by
+ * a matching {@link ComponentKey}.
+ * @author Ben Fortuna
+ */
+public abstract class MergePolicy {
+
+    /**
+     * Retains the revision from the first calendar.
+     */
+    public static final MergePolicy PREFER_FIRST = new MergePolicy() {
+        public Component select(final Component c1, final Component c2) {
+            return c1;
+        }
+    };
+
+    /**
+     * Retains the revision from the second calendar.
+     */
+    public static final MergePolicy PREFER_SECOND = new MergePolicy() {
+        public Component select(final Component c1, final Component c2) {
+            return c2;
+        }
+    };
+
+    /**
+     * Retains the revision with the highest SEQUENCE, or where sequences are equal the most recent LAST-MODIFIED
+     * date. Where neither property distinguishes the revisions the revision from the second calendar is retained.
+     */
+    public static final MergePolicy PREFER_NEWER = new MergePolicy() {
+        public Component select(final Component c1, final Component c2) {
+            int sequence1 = getSequenceNo(c1);
+            int sequence2 = getSequenceNo(c2);
+            if (sequence1 != sequence2) {
+                return sequence1 > sequence2 ? c1 : c2;
+            }
+            if (getLastModified(c1) > getLastModified(c2)) {
+                return c1;
+            }
+            return c2;
+        }
+    };
+
+    /**
+     * Selects one of two revisions of a component.
+     * @param c1 the revision from the first calendar
+     * @param c2 the revision from the second calendar
+     * @return the revision to retain
+     */
+    public abstract Component select(Component c1, Component c2);
+
+    /**
+     * @param component a component
+     * @return the sequence number of the component, or zero if not specified
+     */
+    private static int getSequenceNo(final Component component) {
+        Property sequence = component.getProperty(Property.SEQUENCE);
+        if (sequence instanceof Sequence) {
+            return ((Sequence) sequence).getSequenceNo();
+        }
+        return 0;
+    }
+
+    /**
+     * @param component a component
+     * @return the last modified time of the component, or <code>Long.MIN_VALUE</code> if not specified
+     */
+    private static long getLastModified(final Component component) {
+        Property lastModified = component.getProperty(Property.LAST_MODIFIED);
+        if (lastModified instanceof LastModified && ((LastModified) lastModified).getDate() != null) {
+            return ((LastModified) lastModified).getDate().getTime();
+        }
+        return Long.MIN_VALUE;
+    }
+}
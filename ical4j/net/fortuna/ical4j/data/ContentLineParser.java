@@ -0,0 +1,440 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.text.ParseException;
+
+import net.fortuna.ical4j.model.Calendar;
+import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.util.CompatibilityHints;
+import net.fortuna.ical4j.util.Strings;
+
+/**
+ * A calendar parser that reads content lines via a {@link ContentLineLexer} rather than a
+ * <code>java.io.StreamTokenizer</code>. The lexer scans buffered blocks of characters and property values are created
+ * directly from the scanned content line, which avoids the per-character overhead of {@link CalendarParserImpl} when
+ * parsing large calendars. The content handler is notified exactly as it would be by {@link CalendarParserImpl}.
+ * 
+ * A parser may also be constructed with a projection of the component and property names of interest, in which case
+ * all other components and properties are skipped by the lexer without notifying the content handler. For example,
+ * the following builds calendars containing only the UID and DTSTART properties of VEVENT components:
+ * 
+ * <pre>
+ * CalendarBuilder builder = new CalendarBuilder(new ContentLineParser(
+ *         new String[] {Component.VEVENT},
+ *         new String[] {Property.UID, Property.DTSTART}));
+ * </pre>
+ * 
+ * To use this parser by default specify the following system property:
+ * 
+ * <pre>
+ * net.fortuna.ical4j.parser=net.fortuna.ical4j.data.ContentLineParserFactory
+ * </pre>
+ * 
+ * @author Ben Fortuna
+ */
+public class ContentLineParser implements CalendarParser {
+
+    private final String[] componentNames;
+
+    private final String[] propertyNames;
+
+    /**
+     * Default constructor. All components and properties are reported to the content handler.
+     */
+    public ContentLineParser() {
+        this(null, null);
+    }
+
+    /**
+     * Constructs a new parser that only reports the specified components and properties to the content handler. Names
+     * are matched case-insensitively, and apply to components and properties at all levels of the calendar (such
+     * that sub-components, such as VALARM, must also be specified where required).
+     * @param componentNames the names of components to report, or null to report all components
+     * @param propertyNames the names of properties to report, or null to report all properties
+     */
+    public ContentLineParser(final String[] componentNames,
+            final String[] propertyNames) {
+        this.componentNames = componentNames;
+        this.propertyNames = propertyNames;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.CalendarParser#parse(java.io.InputStream, net.fortuna.ical4j.data.ContentHandler)
+     */
+    public final void parse(final InputStream in, final ContentHandler handler)
+            throws IOException, ParserException {
+        parse(new InputStreamReader(in), handler);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see net.fortuna.ical4j.data.CalendarParser#parse(java.io.Reader, net.fortuna.ical4j.data.ContentHandler)
+     */
+    public final void parse(final Reader in, final ContentHandler handler)
+            throws IOException, ParserException {
+
+        parse(new ReaderContentLineLexer(in), handler);
+    }
+
+    /**
+     * Parses UTF-8 encoded iCalendar data from the specified buffer, such as a memory-mapped file. Content lines are
+     * scanned and unfolded directly in the encoded data, and only the names and values passed to the content handler
+     * are decoded. Data is read from the current position of the buffer to its limit, and the position of the buffer
+     * is not modified.
+     * @param buffer a buffer containing UTF-8 encoded iCalendar data
+     * @param handler a content handler notified of calendar content
+     * @throws IOException where an error occurs notifying the content handler
+     * @throws ParserException where the calendar data is invalid
+     */
+    public final void parse(final ByteBuffer buffer, final ContentHandler handler)
+            throws IOException, ParserException {
+
+        parse(new ByteBufferContentLineLexer(buffer, CompatibilityHints
+                .isHintEnabled(CompatibilityHints.KEY_RELAXED_UNFOLDING)),
+                handler);
+    }
+
+    /**
+     * @param lexer the content line lexer
+     * @param handler the content handler to notify
+     * @throws IOException
+     * @throws ParserException
+     */
+    private void parse(final ContentLineLexer lexer,
+            final ContentHandler handler) throws IOException,
+            ParserException {
+
+        try {
+            // BEGIN:VCALENDAR
+            assertToken(lexer, Calendar.BEGIN);
+
+            assertToken(lexer, ':');
+
+            assertToken(lexer, Calendar.VCALENDAR, true);
+
+            assertToken(lexer, ContentLineLexer.TT_EOL);
+
+            handler.startCalendar();
+
+            // parse calendar properties and components..
+            parsePropertyList(lexer, handler);
+
+            // END:VCALENDAR
+            assertToken(lexer, ':');
+
+            assertToken(lexer, Calendar.VCALENDAR, true);
+
+            handler.endCalendar();
+        }
+        catch (IOException ioe) {
+            throw ioe;
+        }
+        catch (ParserException pe) {
+            throw pe;
+        }
+        catch (Exception e) {
+            throw createParserException(e, lexer);
+        }
+    }
+
+    /**
+     * Wraps an error that occurred while parsing in a parser exception, with a line number adjusted to account for
+     * the current token and any lines unfolded preceding it.
+     * @param e the error that occurred
+     * @param lexer the content line lexer
+     * @return a parser exception
+     */
+    static ParserException createParserException(final Exception e,
+            final ContentLineLexer lexer) {
+
+        int line = lexer.getLineNo();
+        if (lexer.getTokenType() == ContentLineLexer.TT_EOL) {
+            line -= 1;
+        }
+        // need to take unfolded lines into account
+        line += lexer.getLinesUnfolded();
+        return new ParserException(e.getMessage(), line, e);
+    }
+
+    /**
+     * Parses a list of properties and sub-components, up to and including the END token of the enclosing component.
+     * @param lexer the content line lexer
+     * @param handler the content handler to notify
+     * @throws IOException
+     * @throws ParseException
+     * @throws URISyntaxException
+     * @throws ParserException
+     */
+    private void parsePropertyList(final ContentLineLexer lexer,
+            final ContentHandler handler) throws IOException, ParseException,
+            URISyntaxException, ParserException {
+
+        assertToken(lexer, ContentLineLexer.TT_WORD);
+
+        while (!lexer.isToken(Component.END, false)) {
+            // check for timezones observances or vevent/vtodo alarms..
+            if (lexer.isToken(Component.BEGIN, false)) {
+                parseComponent(lexer, handler);
+            }
+            else if (isIncluded(lexer, propertyNames)) {
+                parseProperty(lexer, handler);
+            }
+            else if (!lexer.skipLine()) {
+                throw new ParserException("Unexpected end of file",
+                        lexer.getLineNo());
+            }
+            // absorb extraneous whitespace between content lines (KOrganizer)..
+            while (lexer.nextToken() == ContentLineLexer.TT_EOL) {
+                // skip blank line..
+            }
+        }
+    }
+
+    /**
+     * Parses a property, assuming the property name is the current token.
+     * @param lexer the content line lexer
+     * @param handler the content handler to notify
+     * @throws IOException
+     * @throws ParserException
+     * @throws URISyntaxException
+     * @throws ParseException
+     */
+    void parseProperty(final ContentLineLexer lexer,
+            final ContentHandler handler) throws IOException, ParserException,
+            URISyntaxException, ParseException {
+
+        String name = lexer.getToken();
+
+        handler.startProperty(name);
+
+        // the token following the parameters (i.e. ':') is discarded..
+        while (lexer.nextToken() == ';') {
+            parseParameter(lexer, handler);
+        }
+
+        // control tokens (ie. ':') are allowed in the value, so read to EOL..
+        String value = lexer.readValue();
+        if (value == null) {
+            throw new ParserException("Unexpected end of file",
+                    lexer.getLineNo());
+        }
+
+        handler.propertyValue(Strings.unescape(value));
+        handler.endProperty(name);
+    }
+
+    /**
+     * @param lexer the content line lexer
+     * @param handler the content handler to notify
+     * @throws IOException
+     * @throws ParserException
+     * @throws URISyntaxException
+     */
+    private void parseParameter(final ContentLineLexer lexer,
+            final ContentHandler handler) throws IOException, ParserException,
+            URISyntaxException {
+
+        assertToken(lexer, ContentLineLexer.TT_WORD);
+
+        String paramName = lexer.getToken();
+
+        assertToken(lexer, '=');
+
+        StringBuffer paramValue = new StringBuffer();
+
+        // preserve quote chars..
+        if (lexer.nextToken() == ContentLineLexer.TT_QUOTE) {
+            paramValue.append('"');
+            paramValue.append(lexer.getToken());
+            paramValue.append('"');
+        }
+        else {
+            paramValue.append(lexer.getToken());
+        }
+
+        handler.parameter(paramName, Strings.unescape(paramValue.toString()));
+    }
+
+    /**
+     * Parses a component, assuming the BEGIN token is the current token.
+     * @param lexer the content line lexer
+     * @param handler the content handler to notify
+     * @throws IOException
+     * @throws ParseException
+     * @throws URISyntaxException
+     * @throws ParserException
+     */
+    void parseComponent(final ContentLineLexer lexer,
+            final ContentHandler handler) throws IOException, ParseException,
+            URISyntaxException, ParserException {
+
+        assertToken(lexer, ':');
+
+        assertToken(lexer, ContentLineLexer.TT_WORD);
+
+        String name = lexer.getToken();
+
+        if (!isIncluded(lexer, componentNames)) {
+            skipComponent(lexer, name);
+            return;
+        }
+
+        handler.startComponent(name);
+
+        assertToken(lexer, ContentLineLexer.TT_EOL);
+
+        parsePropertyList(lexer, handler);
+
+        assertToken(lexer, ':');
+
+        assertToken(lexer, name, false);
+
+        assertToken(lexer, ContentLineLexer.TT_EOL);
+
+        handler.endComponent(name);
+    }
+
+    /**
+     * Skips the content of a component without notifying the content handler, assuming the component name is the
+     * current token.
+     * @param lexer the content line lexer
+     * @param name the name of the component to skip
+     * @throws IOException
+     * @throws ParserException
+     */
+    private void skipComponent(final ContentLineLexer lexer, final String name)
+            throws IOException, ParserException {
+
+        assertToken(lexer, ContentLineLexer.TT_EOL);
+
+        assertToken(lexer, ContentLineLexer.TT_WORD);
+
+        while (!lexer.isToken(Component.END, false)) {
+            if (lexer.isToken(Component.BEGIN, false)) {
+                assertToken(lexer, ':');
+                assertToken(lexer, ContentLineLexer.TT_WORD);
+                skipComponent(lexer, lexer.getToken());
+            }
+            else if (!lexer.skipLine()) {
+                throw new ParserException("Unexpected end of file",
+                        lexer.getLineNo());
+            }
+            while (lexer.nextToken() == ContentLineLexer.TT_EOL) {
+                // skip blank line..
+            }
+        }
+
+        assertToken(lexer, ':');
+
+        assertToken(lexer, name, false);
+
+        assertToken(lexer, ContentLineLexer.TT_EOL);
+    }
+
+    /**
+     * @param lexer the content line lexer
+     * @param names a list of names, or null to indicate all names
+     * @return true if the current token matches one of the specified names, otherwise false
+     */
+    private boolean isIncluded(final ContentLineLexer lexer,
+            final String[] names) {
+
+        if (names == null) {
+            return true;
+        }
+        for (int i = 0; i < names.length; i++) {
+            if (lexer.isToken(names[i], true)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Asserts that the next token read by the lexer is of the specified type.
+     * @param lexer the content line lexer
+     * @param token expected token type
+     * @throws IOException when unable to read from stream
+     * @throws ParserException when next token in the stream does not match the expected token
+     */
+    void assertToken(final ContentLineLexer lexer, final int token)
+            throws IOException, ParserException {
+
+        if (lexer.nextToken() != token) {
+            throw new ParserException("Expected [" + token + "], read ["
+                    + lexer.getTokenType() + "]", lexer.getLineNo());
+        }
+    }
+
+    /**
+     * Asserts that the next token read by the lexer is a word matching the specified string. This method is
+     * case-sensitive.
+     * @param lexer the content line lexer
+     * @param token expected token
+     * @throws IOException when unable to read from stream
+     * @throws ParserException when next token in the stream does not match the expected token
+     */
+    void assertToken(final ContentLineLexer lexer, final String token)
+            throws IOException, ParserException {
+        assertToken(lexer, token, false);
+    }
+
+    /**
+     * Asserts that the next token read by the lexer is a word matching the specified string.
+     * @param lexer the content line lexer
+     * @param token expected token
+     * @param ignoreCase specifies whether matching is case-insensitive
+     * @throws IOException when unable to read from stream
+     * @throws ParserException when next token in the stream does not match the expected token
+     */
+    void assertToken(final ContentLineLexer lexer, final String token,
+            final boolean ignoreCase) throws IOException, ParserException {
+
+        // ensure next token is a word token..
+        assertToken(lexer, ContentLineLexer.TT_WORD);
+
+        if (!lexer.isToken(token, ignoreCase)) {
+            throw new ParserException("Expected [" + token + "], read ["
+                    + lexer.getToken() + "]", lexer.getLineNo());
+        }
+    }
+}
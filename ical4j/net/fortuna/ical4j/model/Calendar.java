@@ -33,6 +33,7 @@
  */
 package net.fortuna.ical4j.model;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Iterator;
 
@@ -162,20 +163,34 @@ public class Calendar implements Serializable {
      */
     public final String toString() {
         StringBuffer buffer = new StringBuffer();
-        buffer.append(BEGIN);
-        buffer.append(':');
-        buffer.append(VCALENDAR);
-        buffer.append(Strings.LINE_SEPARATOR);
-        buffer.append(getProperties());
-        buffer.append(getComponents());
-        buffer.append(END);
-        buffer.append(':');
-        buffer.append(VCALENDAR);
-        buffer.append(Strings.LINE_SEPARATOR);
-
+        try {
+            appendTo(buffer);
+        }
+        catch (IOException ioe) {
+            // not thrown when appending to a string buffer..
+        }
         return buffer.toString();
     }
 
+    /**
+     * Appends the iCalendar representation of this calendar to the specified output. Each property and component is
+     * appended in turn, such that the calendar is never held in memory as a single string.
+     * @param out the output to append to
+     * @throws IOException where an error occurs appending to the output
+     */
+    public final void appendTo(final Appendable out) throws IOException {
+        out.append(BEGIN);
+        out.append(':');
+        out.append(VCALENDAR);
+        out.append(Strings.LINE_SEPARATOR);
+        getProperties().appendTo(out);
+        getComponents().appendTo(out);
+        out.append(END);
+        out.append(':');
+        out.append(VCALENDAR);
+        out.append(Strings.LINE_SEPARATOR);
+    }
+
     /**
      * @return Returns the components.
      */
@@ -40,6 +40,9 @@ import java.io.Serializable;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.StringTokenizer;
+import java.util.TimeZone;
+
+import net.fortuna.ical4j.util.Dates;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -260,23 +263,58 @@ public class Dur implements Comparable, Serializable {
      * @return the end of the duration as a date
      */
     public final Date getTime(final Date start) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(start);
+        // weeks and days are added to the local date in the default timezone, consistent
+        // with java.util.Calendar.add()..
+        final TimeZone zone = TimeZone.getDefault();
+        long time = start.getTime();
         if (isNegative()) {
-            cal.add(Calendar.WEEK_OF_YEAR, -weeks);
-            cal.add(Calendar.DAY_OF_WEEK, -days);
-            cal.add(Calendar.HOUR_OF_DAY, -hours);
-            cal.add(Calendar.MINUTE, -minutes);
-            cal.add(Calendar.SECOND, -seconds);
+            time = addDays(time, -weeks * (long) DAYS_PER_WEEK, zone);
+            time = addDays(time, -days, zone);
+            time -= hours * Dates.MILLIS_PER_HOUR + minutes * Dates.MILLIS_PER_MINUTE
+                    + seconds * Dates.MILLIS_PER_SECOND;
         }
         else {
-            cal.add(Calendar.WEEK_OF_YEAR, weeks);
-            cal.add(Calendar.DAY_OF_WEEK, days);
-            cal.add(Calendar.HOUR_OF_DAY, hours);
-            cal.add(Calendar.MINUTE, minutes);
-            cal.add(Calendar.SECOND, seconds);
+            time = addDays(time, weeks * (long) DAYS_PER_WEEK, zone);
+            time = addDays(time, days, zone);
+            time += hours * Dates.MILLIS_PER_HOUR + minutes * Dates.MILLIS_PER_MINUTE
+                    + seconds * Dates.MILLIS_PER_SECOND;
+        }
+        return new Date(time);
+    }
+
+    /**
+     * Adds days to the local date of the specified time, retaining the local time of day where possible.
+     * @param time a time value
+     * @param amount the number of days to add
+     * @param zone the timezone of the local date
+     * @return the resulting time value
+     */
+    private static long addDays(final long time, final long amount, final TimeZone zone) {
+        if (amount == 0) {
+            return time;
+        }
+        final int offset = zone.getOffset(time);
+        final long result = time + amount * Dates.MILLIS_PER_DAY;
+        final int offsetChange = offset - zone.getOffset(result);
+        // adjust for a change in offset unless the adjustment changes the date..
+        if (offsetChange != 0) {
+            final long adjusted = result + offsetChange;
+            if (getDay(adjusted + zone.getOffset(adjusted)) == getDay(time + offset) + amount) {
+                return adjusted;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param localTime a local time value
+     * @return the number of days between the epoch and the specified local time
+     */
+    private static long getDay(final long localTime) {
+        if (localTime < 0) {
+            return (localTime + 1) / Dates.MILLIS_PER_DAY - 1;
         }
-        return cal.getTime();
+        return localTime / Dates.MILLIS_PER_DAY;
     }
 
     /**
@@ -36,8 +36,12 @@
 package net.fortuna.ical4j.model;
 
 import java.text.DateFormat;
+import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
 
 import net.fortuna.ical4j.util.Dates;
 
@@ -49,9 +53,24 @@ import net.fortuna.ical4j.util.Dates;
  * @author Ben Fortuna
  */
 public abstract class Iso8601 extends Date {
-    
-    private DateFormat format;
-    
+
+    /**
+     * Date formats keyed on pattern. As date formats are not thread-safe and are expensive to create, each thread
+     * maintains its own formats which are shared by all instances.
+     */
+    private static final ThreadLocal FORMATS = new ThreadLocal() {
+        protected Object initialValue() {
+            return new HashMap();
+        }
+    };
+
+    private String pattern;
+
+    /**
+     * The timezone used to format this instance, or null to use the default timezone.
+     */
+    private TimeZone formatTimeZone;
+
     private int precision;
 
     /**
@@ -60,10 +79,7 @@ public abstract class Iso8601 extends Date {
      */
     public Iso8601(final long time, final String pattern, final int precision) {
         super(Dates.round(time, precision));
-        format = new SimpleDateFormat(pattern);
-        // use GMT timezone to avoid daylight savings rules affecting floating
-        // time values..
-//        format.setTimeZone(TimeZone.getTimeZone(TimeZones.GMT_ID));
+        this.pattern = pattern;
         this.precision = precision;
     }
     
@@ -86,15 +102,64 @@ public abstract class Iso8601 extends Date {
      * @see java.lang.Object#toString()
      */
     public String toString() {
-        return format.format(this);
+        return format(pattern);
+    }
+
+    /**
+     * Returns a string representation of this instance in the specified pattern, formatted in the timezone of this
+     * instance.
+     * @param aPattern a date format pattern
+     * @return a formatted string
+     */
+    protected final String format(final String aPattern) {
+        return getFormat(aPattern).format(this);
     }
 
     /**
-     * @return Returns the format.
+     * Parses the specified string in the pattern and timezone of this instance. Note that parsing is lenient.
+     * @param value a string representation of a date
+     * @return the time represented by the specified string
+     * @throws ParseException where the specified string is not a valid representation
      */
-    protected final DateFormat getFormat() {
+    protected final long parseTime(final String value) throws ParseException {
+        DateFormat format = getFormat(pattern);
+        format.setLenient(true);
+        return format.parse(value).getTime();
+    }
+
+    /**
+     * @param aPattern a date format pattern
+     * @return a date format for the current thread, with the timezone of this instance
+     */
+    private DateFormat getFormat(final String aPattern) {
+        Map formats = (Map) FORMATS.get();
+        DateFormat format = (DateFormat) formats.get(aPattern);
+        if (format == null) {
+            format = new SimpleDateFormat(aPattern);
+            formats.put(aPattern, format);
+        }
+        if (formatTimeZone != null) {
+            format.setTimeZone(formatTimeZone);
+        }
+        else {
+            format.setTimeZone(TimeZone.getDefault());
+        }
         return format;
     }
+
+    /**
+     * @return the timezone used to format this instance, or null if the default timezone is used
+     */
+    protected final TimeZone getFormatTimeZone() {
+        return formatTimeZone;
+    }
+
+    /**
+     * @param timezone the timezone used to format this instance, or null to use the default timezone
+     */
+    protected final void setFormatTimeZone(final TimeZone timezone) {
+        this.formatTimeZone = timezone;
+    }
     
     /* (non-Javadoc)
      * @see java.util.Date#setTime(long)
@@ -36,6 +36,8 @@
 package net.fortuna.ical4j.model;
 
 import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
 
 import net.fortuna.ical4j.model.parameter.AltRep;
 import net.fortuna.ical4j.model.parameter.Cn;
@@ -130,30 +132,19 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createCuTypeFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                CuType.INDIVIDUAL,
+                CuType.GROUP,
+                CuType.RESOURCE,
+                CuType.ROOM,
+                CuType.UNKNOWN}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                CuType parameter = new CuType(value);
-                if (CuType.INDIVIDUAL.equals(parameter)) {
-                    return CuType.INDIVIDUAL;
-                }
-                else if (CuType.GROUP.equals(parameter)) {
-                    return CuType.GROUP;
-                }
-                else if (CuType.RESOURCE.equals(parameter)) {
-                    return CuType.RESOURCE;
-                }
-                else if (CuType.ROOM.equals(parameter)) {
-                    return CuType.ROOM;
-                }
-                else if (CuType.UNKNOWN.equals(parameter)) {
-                    return CuType.UNKNOWN;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new CuType(value);
             }
         };
     }
@@ -210,21 +201,16 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createEncodingFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                Encoding.EIGHT_BIT,
+                Encoding.BASE64}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                Encoding parameter = new Encoding(value);
-                if (Encoding.EIGHT_BIT.equals(parameter)) {
-                    return Encoding.EIGHT_BIT;
-                }
-                else if (Encoding.BASE64.equals(parameter)) {
-                    return Encoding.BASE64;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new Encoding(value);
             }
         };
     }
@@ -249,27 +235,18 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createFbTypeFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                FbType.FREE,
+                FbType.BUSY,
+                FbType.BUSY_TENTATIVE,
+                FbType.BUSY_UNAVAILABLE}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                FbType parameter = new FbType(value);
-                if (FbType.FREE.equals(parameter)) {
-                    return FbType.FREE;
-                }
-                else if (FbType.BUSY.equals(parameter)) {
-                    return FbType.BUSY;
-                }
-                else if (FbType.BUSY_TENTATIVE.equals(parameter)) {
-                    return FbType.BUSY_TENTATIVE;
-                }
-                else if (FbType.BUSY_UNAVAILABLE.equals(parameter)) {
-                    return FbType.BUSY_UNAVAILABLE;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new FbType(value);
             }
         };
     }
@@ -310,36 +287,21 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createPartStatFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                PartStat.NEEDS_ACTION,
+                PartStat.ACCEPTED,
+                PartStat.DECLINED,
+                PartStat.TENTATIVE,
+                PartStat.DELEGATED,
+                PartStat.COMPLETED,
+                PartStat.IN_PROCESS}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                PartStat parameter = new PartStat(value);
-                if (PartStat.NEEDS_ACTION.equals(parameter)) {
-                    return PartStat.NEEDS_ACTION;
-                }
-                else if (PartStat.ACCEPTED.equals(parameter)) {
-                    return PartStat.ACCEPTED;
-                }
-                else if (PartStat.DECLINED.equals(parameter)) {
-                    return PartStat.DECLINED;
-                }
-                else if (PartStat.TENTATIVE.equals(parameter)) {
-                    return PartStat.TENTATIVE;
-                }
-                else if (PartStat.DELEGATED.equals(parameter)) {
-                    return PartStat.DELEGATED;
-                }
-                else if (PartStat.COMPLETED.equals(parameter)) {
-                    return PartStat.COMPLETED;
-                }
-                else if (PartStat.IN_PROCESS.equals(parameter)) {
-                    return PartStat.IN_PROCESS;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new PartStat(value);
             }
         };
     }
@@ -348,21 +310,16 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createRangeFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                Range.THISANDFUTURE,
+                Range.THISANDPRIOR}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                Range parameter = new Range(value);
-                if (Range.THISANDFUTURE.equals(parameter)) {
-                    return Range.THISANDFUTURE;
-                }
-                else if (Range.THISANDPRIOR.equals(parameter)) {
-                    return Range.THISANDPRIOR;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new Range(value);
             }
         };
     }
@@ -371,21 +328,16 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createRelatedFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                Related.START,
+                Related.END}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                Related parameter = new Related(value);
-                if (Related.START.equals(parameter)) {
-                    return Related.START;
-                }
-                else if (Related.END.equals(parameter)) {
-                    return Related.END;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new Related(value);
             }
         };
     }
@@ -394,24 +346,17 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createRelTypeFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                RelType.PARENT,
+                RelType.CHILD,
+                RelType.SIBLING}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                RelType parameter = new RelType(value);
-                if (RelType.PARENT.equals(parameter)) {
-                    return RelType.PARENT;
-                }
-                else if (RelType.CHILD.equals(parameter)) {
-                    return RelType.CHILD;
-                }
-                if (RelType.SIBLING.equals(parameter)) {
-                    return RelType.SIBLING;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new RelType(value);
             }
         };
     }
@@ -420,27 +365,18 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createRoleFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                Role.CHAIR,
+                Role.REQ_PARTICIPANT,
+                Role.OPT_PARTICIPANT,
+                Role.NON_PARTICIPANT}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                Role parameter = new Role(value);
-                if (Role.CHAIR.equals(parameter)) {
-                    return Role.CHAIR;
-                }
-                else if (Role.REQ_PARTICIPANT.equals(parameter)) {
-                    return Role.REQ_PARTICIPANT;
-                }
-                else if (Role.OPT_PARTICIPANT.equals(parameter)) {
-                    return Role.OPT_PARTICIPANT;
-                }
-                else if (Role.NON_PARTICIPANT.equals(parameter)) {
-                    return Role.NON_PARTICIPANT;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new Role(value);
             }
         };
     }
@@ -449,21 +385,16 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createRsvpFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                Rsvp.TRUE,
+                Rsvp.FALSE}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                Rsvp parameter = new Rsvp(value);
-                if (Rsvp.TRUE.equals(parameter)) {
-                    return Rsvp.TRUE;
-                }
-                else if (Rsvp.FALSE.equals(parameter)) {
-                    return Rsvp.FALSE;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new Rsvp(value);
             }
         };
     }
@@ -504,61 +435,80 @@ public final class ParameterFactoryImpl extends AbstractContentFactory
      * @return
      */
     private ParameterFactory createValueFactory() {
-        return new ParameterFactory() {
+        return new ConstantParameterFactory(new Parameter[] {
+                Value.BINARY,
+                Value.BOOLEAN,
+                Value.CAL_ADDRESS,
+                Value.DATE,
+                Value.DATE_TIME,
+                Value.DURATION,
+                Value.FLOAT,
+                Value.INTEGER,
+                Value.PERIOD,
+                Value.RECUR,
+                Value.TEXT,
+                Value.TIME,
+                Value.URI,
+                Value.UTC_OFFSET}) {
             /*
              * (non-Javadoc)
-             * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+             * @see net.fortuna.ical4j.model.ParameterFactoryImpl.ConstantParameterFactory#createParameter(java.lang.String)
              */
-            public Parameter createParameter(final String name,
-                    final String value) throws URISyntaxException {
-                Value parameter = new Value(value);
-                if (Value.BINARY.equals(parameter)) {
-                    return Value.BINARY;
-                }
-                else if (Value.BOOLEAN.equals(parameter)) {
-                    return Value.BOOLEAN;
-                }
-                else if (Value.CAL_ADDRESS.equals(parameter)) {
-                    return Value.CAL_ADDRESS;
-                }
-                else if (Value.DATE.equals(parameter)) {
-                    return Value.DATE;
-                }
-                else if (Value.DATE_TIME.equals(parameter)) {
-                    return Value.DATE_TIME;
-                }
-                else if (Value.DURATION.equals(parameter)) {
-                    return Value.DURATION;
-                }
-                else if (Value.FLOAT.equals(parameter)) {
-                    return Value.FLOAT;
-                }
-                else if (Value.INTEGER.equals(parameter)) {
-                    return Value.INTEGER;
-                }
-                else if (Value.PERIOD.equals(parameter)) {
-                    return Value.PERIOD;
-                }
-                else if (Value.RECUR.equals(parameter)) {
-                    return Value.RECUR;
-                }
-                else if (Value.TEXT.equals(parameter)) {
-                    return Value.TEXT;
-                }
-                else if (Value.TIME.equals(parameter)) {
-                    return Value.TIME;
-                }
-                else if (Value.URI.equals(parameter)) {
-                    return Value.URI;
-                }
-                else if (Value.UTC_OFFSET.equals(parameter)) {
-                    return Value.UTC_OFFSET;
-                }
-                return parameter;
+            protected Parameter createParameter(final String value)
+                    throws URISyntaxException {
+                return new Value(value);
             }
         };
     }
 
+    /**
+     * A parameter factory that returns constant instances where applicable. Constants are keyed on value, such that a
+     * constant is identified with a single lookup of either the specified value string or (where the parameter
+     * normalises its value, such as by removing quotes) the value of the created parameter.
+     */
+    private abstract static class ConstantParameterFactory implements
+            ParameterFactory {
+
+        private final Map constants = new HashMap();
+
+        /**
+         * @param constants constant parameters in order of precedence
+         */
+        public ConstantParameterFactory(final Parameter[] constants) {
+            for (int i = 0; i < constants.length; i++) {
+                if (!this.constants.containsKey(constants[i].getValue())) {
+                    this.constants.put(constants[i].getValue(), constants[i]);
+                }
+            }
+        }
+
+        /*
+         * (non-Javadoc)
+         * @see net.fortuna.ical4j.model.ParameterFactory#createParameter(java.lang.String, java.lang.String)
+         */
+        public final Parameter createParameter(final String name,
+                final String value) throws URISyntaxException {
+            Parameter constant = (Parameter) constants.get(value);
+            if (constant != null) {
+                return constant;
+            }
+            Parameter parameter = createParameter(value);
+            constant = (Parameter) constants.get(parameter.getValue());
+            if (constant != null) {
+                return constant;
+            }
+            return parameter;
+        }
+
+        /**
+         * @param value a parameter value
+         * @return a new parameter instance with the specified value
+         * @throws URISyntaxException where the value is not a valid URI for applicable parameters
+         */
+        protected abstract Parameter createParameter(String value)
+                throws URISyntaxException;
+    }
+
     /**
      * @return Returns the instance.
      */
@@ -37,10 +37,10 @@ import java.io.IOException;
 import java.net.URISyntaxException;
 import java.text.ParseException;
 
+import net.fortuna.ical4j.util.CompatibilityContext;
 import net.fortuna.ical4j.util.Strings;
 
 import org.apache.commons.lang.ObjectUtils;
-import org.apache.commons.lang.builder.HashCodeBuilder;
 
 /**
  * Defines an iCalendar property. Subclasses of this class provide additional
@@ -171,6 +171,22 @@ public abstract class Property extends Content {
 
     private ParameterList parameters;
 
+    /**
+     * A value string awaiting parsing, as specified via {@link #setDeferredValue(String)}.
+     */
+    private String deferredValue;
+
+    /**
+     * The compatibility context current when a deferred value was specified, applied when the value is parsed.
+     */
+    private CompatibilityContext deferredContext;
+
+    /**
+     * The formatted value of a {@link Deferrable} property, retained for equality and hashcode calculations only where
+     * the value was formatted from a deferred value, and until the parsed value is next accessed or replaced.
+     */
+    private transient String formattedValue;
+
     /**
      * Constructor.
      * @param aName
@@ -212,18 +228,31 @@ public abstract class Property extends Content {
      */
     public final String toString() {
         StringBuffer buffer = new StringBuffer();
-        buffer.append(getName());
-        buffer.append(getParameters());
-        buffer.append(':');
+        try {
+            appendTo(buffer);
+        }
+        catch (IOException ioe) {
+            // not thrown when appending to a string buffer..
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Appends the iCalendar content line representation of this property to the specified output.
+     * @param out the output to append to
+     * @throws IOException where an error occurs appending to the output
+     */
+    public final void appendTo(final Appendable out) throws IOException {
+        out.append(getName());
+        getParameters().appendTo(out);
+        out.append(':');
         if (this instanceof Escapable) {
-            buffer.append(Strings.escape(Strings.valueOf(getValue())));
+            Strings.escape(Strings.valueOf(getValue()), out);
         }
         else {
-            buffer.append(Strings.valueOf(getValue()));
+            out.append(Strings.valueOf(getValue()));
         }
-        buffer.append(Strings.LINE_SEPARATOR);
-
-        return buffer.toString();
+        out.append(Strings.LINE_SEPARATOR);
     }
 
     /**
@@ -294,6 +323,67 @@ public abstract class Property extends Content {
      */
     public abstract void setValue(String aValue) throws IOException, URISyntaxException, ParseException;
 
+    /**
+     * Sets the current value of the property, deferring the parsing of the value where supported. Properties
+     * implementing {@link Deferrable} retain the specified string until their value is first accessed, at which point
+     * it is parsed as per {@link #setValue(String)}, with the {@link CompatibilityContext} current when the value was
+     * specified. For all other properties the value is parsed immediately.
+     * @param aValue a string representation of the property value
+     * @throws IOException possibly thrown by setting the value of certain properties
+     * @throws URISyntaxException possibly thrown by setting the value of certain properties
+     * @throws ParseException possibly thrown by setting the value of certain properties
+     */
+    public final void setDeferredValue(final String aValue) throws IOException,
+            URISyntaxException, ParseException {
+        if (this instanceof Deferrable) {
+            deferredValue = aValue;
+            deferredContext = CompatibilityContext.getCurrent();
+        }
+        else {
+            setValue(aValue);
+        }
+    }
+
+    /**
+     * Parses any value previously specified via {@link #setDeferredValue(String)}. Implementors of {@link Deferrable}
+     * must invoke this method prior to accessing the parsed value.
+     * @throws IllegalArgumentException where the deferred value is invalid for this property
+     */
+    protected final void resolveValue() {
+        // the parsed value may be modified by the caller..
+        formattedValue = null;
+        if (deferredValue != null) {
+            String value = deferredValue;
+            CompatibilityContext context = deferredContext;
+            deferredValue = null;
+            deferredContext = null;
+            CompatibilityContext previousContext = CompatibilityContext.getCurrent();
+            if (context != null) {
+                CompatibilityContext.setCurrent(context);
+            }
+            try {
+                setValue(value);
+            }
+            catch (Exception e) {
+                throw new IllegalArgumentException("Invalid value [" + value
+                        + "] for property [" + getName() + "]", e);
+            }
+            finally {
+                CompatibilityContext.setCurrent(previousContext);
+            }
+        }
+    }
+
+    /**
+     * Discards any value previously specified via {@link #setDeferredValue(String)}. Implementors of
+     * {@link Deferrable} must invoke this method when the parsed value is replaced.
+     */
+    protected final void discardValue() {
+        deferredValue = null;
+        deferredContext = null;
+        formattedValue = null;
+    }
+
     /**
      * @return Returns the value.
      */
@@ -307,28 +397,61 @@ public abstract class Property extends Content {
      */
     public abstract void validate() throws ValidationException;
 
+    /**
+     * Returns the formatted value used to test equality and generate hashcodes. Only the value of a {@link Deferrable}
+     * property formatted from a deferred value is retained, as no other references to the parsed value exist until
+     * it is next accessed (via {@link #resolveValue()}) or replaced (via {@link #discardValue()}). All other values
+     * are formatted on every invocation: a parsed value may be referenced and modified by a caller, and the values of
+     * properties that aren't {@link Deferrable} are set by subclasses without notifying this class.
+     * @return the property value
+     */
+    private String getComparableValue() {
+        String value = formattedValue;
+        if (value == null) {
+            // no references to a parsed value exist until it is next accessed..
+            boolean deferred = deferredValue != null;
+            value = getValue();
+            if (deferred) {
+                formattedValue = value;
+            }
+        }
+        return value;
+    }
+
     /**
      * Uses {@link ObjectUtils} to test equality.
      * Two properties are equal if and only if their
-     * name, value and parameter list are equal.
+     * name, value and parameter list are equal. Where
+     * both properties retain an identical deferred value
+     * the value is not parsed for comparison.
      * @see java.lang.Object#equals(java.lang.Object)
      */
     public final boolean equals(final Object arg0) {
+        if (arg0 == this) {
+            return true;
+        }
         if (arg0 instanceof Property) {
             Property p = (Property) arg0;
-            return ObjectUtils.equals(getName(), p.getName())
-                    && ObjectUtils.equals(getValue(), p.getValue())
-                    && ObjectUtils.equals(getParameters(), p.getParameters());
+            if (!ObjectUtils.equals(getName(), p.getName())) {
+                return false;
+            }
+            // equivalent unparsed values will parse to equal values..
+            boolean deferredEqual = deferredValue != null && getClass() == p.getClass()
+                    && deferredValue.equals(p.deferredValue) && deferredContext == p.deferredContext;
+            return ObjectUtils.equals(getParameters(), p.getParameters())
+                    && (deferredEqual || ObjectUtils.equals(getComparableValue(), p.getComparableValue()));
         }
         return super.equals(arg0);
     }
 
     /**
-     * Uses {@link HashCodeBuilder} to build hashcode.
+     * Combines the hashcodes of the property name, value and parameter list.
      */
     public final int hashCode() {
         // as property name is case-insensitive generate hash for uppercase..
-        return new HashCodeBuilder().append(getName().toUpperCase())
-            .append(getValue()).append(getParameters()).hashCode();
+        String value = getComparableValue();
+        int hash = hashCodeIgnoreCase(getName());
+        hash = 37 * hash + (value != null ? value.hashCode() : 0);
+        return 37 * hash + getParameters().hashCode();
     }
 }
@@ -33,18 +33,37 @@
  */
 package net.fortuna.ical4j.model;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
 
 /**
- * Defines a list of iCalendar properties.
+ * Defines a list of iCalendar properties. Once properties are retrieved by name the list maintains an index of
+ * properties by (case-insensitive) name, such that subsequent retrieval by name does not require a scan of the list.
+ * The index is never modified once built, such that concurrent retrieval from an unmodified list is safe. Where
+ * properties are appended to or removed from the list an updated copy of the index replaces it, and following any
+ * other modification the index is rebuilt on the next retrieval.
  * @author Ben Fortuna
  */
 public class PropertyList extends ArrayList implements Serializable {
 
     private static final long serialVersionUID = -8875923766224921031L;
 
+    private static final PropertyList EMPTY_LIST = new PropertyList(0, true);
+
+    /**
+     * The index of properties by name, or null if properties have not been retrieved by name since the list was last
+     * modified.
+     */
+    private transient volatile NameIndex nameIndex;
+
+    private boolean unmodifiable;
+
     /**
      * Default constructor.
      */
@@ -59,46 +78,151 @@ public class PropertyList extends ArrayList implements Serializable {
         super(initialCapacity);
     }
 
+    /**
+     * @param initialCapacity the initial capacity of the list
+     * @param unmodifiable specifies whether the list is an unmodifiable view of another list
+     */
+    private PropertyList(final int initialCapacity, final boolean unmodifiable) {
+        super(initialCapacity);
+        this.unmodifiable = unmodifiable;
+    }
+
     /**
      * @see java.util.AbstractCollection#toString()
      */
     public final String toString() {
         StringBuffer buffer = new StringBuffer();
-        for (Iterator i = iterator(); i.hasNext();) {
-            buffer.append(i.next().toString());
+        try {
+            appendTo(buffer);
+        }
+        catch (IOException ioe) {
+            // not thrown when appending to a string buffer..
         }
         return buffer.toString();
     }
 
+    /**
+     * Appends the iCalendar representation of each property in the list to the specified output.
+     * @param out the output to append to
+     * @throws IOException where an error occurs appending to the output
+     */
+    public final void appendTo(final Appendable out) throws IOException {
+        for (Iterator i = iterator(); i.hasNext();) {
+            ((Property) i.next()).appendTo(out);
+        }
+    }
+
     /**
      * Returns the first property of specified name.
      * @param aName name of property to return
      * @return a property or null if no matching property found
      */
     public final Property getProperty(final String aName) {
-        for (Iterator i = iterator(); i.hasNext();) {
-            Property p = (Property) i.next();
-            if (p.getName().equalsIgnoreCase(aName)) {
-                return p;
-            }
+        if (aName == null) {
+            return null;
+        }
+        PropertyList properties = getIndexedProperties(aName);
+        if (properties != null) {
+            return (Property) properties.get(0);
         }
         return null;
     }
 
     /**
-     * Returns a list of properties with the specified name.
+     * Returns the number of properties with the specified name. Properties are counted via the index of properties by
+     * name, such that counting properties of several names requires only a single scan of the list.
+     * @param name name of properties to count
+     * @return the number of matching properties
+     */
+    public final int getPropertyCount(final String name) {
+        if (name == null) {
+            return 0;
+        }
+        PropertyList properties = getIndexedProperties(name);
+        if (properties != null) {
+            return properties.size();
+        }
+        return 0;
+    }
+
+    /**
+     * Returns a list of properties with the specified name. The returned list is unmodifiable, and contains the
+     * matching properties of this list at the time of invocation. Use {@link #clone()} to obtain a modifiable copy.
      * @param name name of properties to return
      * @return a property list
      */
     public final PropertyList getProperties(final String name) {
-        PropertyList list = new PropertyList();
-        for (Iterator i = iterator(); i.hasNext();) {
-            Property p = (Property) i.next();
-            if (p.getName().equalsIgnoreCase(name)) {
-                list.add(p);
-            }
+        PropertyList properties = null;
+        if (name != null) {
+            properties = getIndexedProperties(name);
+        }
+        if (properties == null) {
+            return EMPTY_LIST;
+        }
+        return properties;
+    }
+
+    /**
+     * @return the modification count of the list, which changes whenever properties are added or removed
+     */
+    final int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * @param name a property name
+     * @return the indexed list of properties with the specified name, or null if no such properties exist
+     */
+    private PropertyList getIndexedProperties(final String name) {
+        NameIndex index = getCurrentIndex();
+        if (index == null) {
+            // the index is built in full prior to publication..
+            index = new NameIndex(this);
+            nameIndex = index;
+        }
+        return (PropertyList) index.lists.get(name.toUpperCase(Locale.US));
+    }
+
+    /**
+     * @return the index of properties by name where it reflects the current contents of the list, otherwise null
+     */
+    private NameIndex getCurrentIndex() {
+        NameIndex index = nameIndex;
+        if (index != null && index.modCount == modCount) {
+            return index;
+        }
+        return null;
+    }
+
+    /**
+     * Discards the index (if any) following a modification of the list.
+     */
+    private void updateIndex() {
+        nameIndex = null;
+    }
+
+    /**
+     * @param property a property to add to an index list
+     */
+    private void addIndexed(final Property property) {
+        super.add(property);
+    }
+
+    /**
+     * @param properties properties to add to an index list
+     */
+    private void addAllIndexed(final Collection properties) {
+        super.addAll(properties);
+    }
+
+    /**
+     * @throws UnsupportedOperationException where this list is an unmodifiable view of another list
+     */
+    private void checkModifiable() {
+        if (unmodifiable) {
+            throw new UnsupportedOperationException(
+                    "Property list is unmodifiable");
         }
-        return list;
     }
 
     /**
@@ -117,11 +241,155 @@ public class PropertyList extends ArrayList implements Serializable {
      * @see java.util.List#add(E)
      */
     public final boolean add(final Object arg0) {
+        checkModifiable();
         if (!(arg0 instanceof Property)) {
             throw new IllegalArgumentException("Argument not a "
                     + Property.class.getName());
         }
-        return super.add(arg0);
+        NameIndex index = getCurrentIndex();
+        boolean added = super.add(arg0);
+        if (index != null) {
+            // appending to the list only requires appending to a copy of the index..
+            nameIndex = index.append(this, size() - 1);
+        }
+        else {
+            updateIndex();
+        }
+        return added;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#add(int, java.lang.Object)
+     */
+    public final void add(final int index, final Object element) {
+        checkModifiable();
+        super.add(index, element);
+        updateIndex();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#addAll(java.util.Collection)
+     */
+    public final boolean addAll(final Collection c) {
+        checkModifiable();
+        NameIndex index = getCurrentIndex();
+        int start = size();
+        boolean changed = super.addAll(c);
+        if (index != null) {
+            nameIndex = index.append(this, start);
+        }
+        else {
+            updateIndex();
+        }
+        return changed;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#addAll(int, java.util.Collection)
+     */
+    public final boolean addAll(final int index, final Collection c) {
+        checkModifiable();
+        boolean changed = super.addAll(index, c);
+        updateIndex();
+        return changed;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#set(int, java.lang.Object)
+     */
+    public final Object set(final int index, final Object element) {
+        checkModifiable();
+        Object previous = super.set(index, element);
+        updateIndex();
+        return previous;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#remove(int)
+     */
+    public final Object remove(final int index) {
+        checkModifiable();
+        NameIndex names = getCurrentIndex();
+        Object removed = super.remove(index);
+        if (names != null) {
+            nameIndex = names.remove((Property) removed, modCount);
+        }
+        else {
+            updateIndex();
+        }
+        return removed;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#remove(java.lang.Object)
+     */
+    public final boolean remove(final Object o) {
+        checkModifiable();
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#removeAll(java.util.Collection)
+     */
+    public final boolean removeAll(final Collection c) {
+        checkModifiable();
+        boolean changed = super.removeAll(c);
+        updateIndex();
+        return changed;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#retainAll(java.util.Collection)
+     */
+    public final boolean retainAll(final Collection c) {
+        checkModifiable();
+        boolean changed = super.retainAll(c);
+        updateIndex();
+        return changed;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#clear()
+     */
+    public final void clear() {
+        checkModifiable();
+        super.clear();
+        updateIndex();
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.util.ArrayList#removeRange(int, int)
+     */
+    protected final void removeRange(final int fromIndex, final int toIndex) {
+        checkModifiable();
+        super.removeRange(fromIndex, toIndex);
+        updateIndex();
+    }
+
+    /**
+     * The copy is modifiable and does not share the index of this list.
+     * @see java.util.ArrayList#clone()
+     */
+    public Object clone() {
+        PropertyList list = (PropertyList) super.clone();
+        list.nameIndex = null;
+        list.unmodifiable = false;
+        return list;
     }
 
     /**
@@ -133,4 +401,98 @@ public class PropertyList extends ArrayList implements Serializable {
     public final boolean remove(final Property property) {
         return remove((Object) property);
     }
+
+    /**
+     * An immutable index of the properties of a list by upper-case property name.
+     */
+    private static final class NameIndex {
+
+        private final Map lists;
+
+        /**
+         * The modification count of the list when the index was built.
+         */
+        private final int modCount;
+
+        /**
+         * @param list the list to index
+         */
+        NameIndex(final PropertyList list) {
+            lists = new HashMap();
+            for (int i = 0; i < list.size(); i++) {
+                Property property = (Property) list.get(i);
+                String key = property.getName().toUpperCase(Locale.US);
+                PropertyList properties = (PropertyList) lists.get(key);
+                if (properties == null) {
+                    properties = new PropertyList(1, true);
+                    lists.put(key, properties);
+                }
+                properties.addIndexed(property);
+            }
+            modCount = list.getModCount();
+        }
+
+        /**
+         * @param lists lists of properties keyed on upper-case property name
+         * @param modCount the modification count of the indexed list
+         */
+        private NameIndex(final Map lists, final int modCount) {
+            this.lists = lists;
+            this.modCount = modCount;
+        }
+
+        /**
+         * @param list the indexed list, to which properties have been appended
+         * @param start the position in the list of the first appended property
+         * @return a copy of this index that includes the appended properties
+         */
+        NameIndex append(final PropertyList list, final int start) {
+            Map copy = new HashMap(lists);
+            for (int i = start; i < list.size(); i++) {
+                Property property = (Property) list.get(i);
+                String key = property.getName().toUpperCase(Locale.US);
+                PropertyList properties = (PropertyList) copy.get(key);
+                if (properties == null || properties == lists.get(key)) {
+                    // copy each list of this index at most once..
+                    PropertyList indexed = properties;
+                    properties = new PropertyList(1, true);
+                    if (indexed != null) {
+                        properties.addAllIndexed(indexed);
+                    }
+                    copy.put(key, properties);
+                }
+                properties.addIndexed(property);
+            }
+            return new NameIndex(copy, list.getModCount());
+        }
+
+        /**
+         * @param property a property removed from the indexed list
+         * @param modCount the modification count of the list following removal of the property
+         * @return a copy of this index that excludes the removed property
+         */
+        NameIndex remove(final Property property, final int modCount) {
+            String key = property.getName().toUpperCase(Locale.US);
+            PropertyList indexed = (PropertyList) lists.get(key);
+            Map copy = new HashMap(lists);
+            if (indexed.size() == 1) {
+                copy.remove(key);
+            }
+            else {
+                PropertyList properties = new PropertyList(indexed.size() - 1, true);
+                boolean removed = false;
+                for (Iterator i = indexed.iterator(); i.hasNext();) {
+                    Object next = i.next();
+                    if (next == property && !removed) {
+                        removed = true;
+                    }
+                    else {
+                        properties.addIndexed((Property) next);
+                    }
+                }
+                copy.put(key, properties);
+            }
+            return new NameIndex(copy, modCount);
+        }
+    }
 }
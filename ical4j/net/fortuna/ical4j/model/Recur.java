@@ -33,22 +33,14 @@
  */
 package net.fortuna.ical4j.model;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.text.ParseException;
-import java.util.Calendar;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
 
 import net.fortuna.ical4j.model.parameter.Value;
-import net.fortuna.ical4j.util.Dates;
-
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
 
 /**
  * Defines a recurrence.
@@ -102,8 +94,6 @@ public class Recur implements Serializable {
 
     public static final String YEARLY = "YEARLY";
 
-    private transient Log log = LogFactory.getLog(Recur.class);
-
     private String frequency;
 
     private Date until;
@@ -396,55 +386,55 @@ public class Recur implements Serializable {
             b.append('=');
             b.append(count);
         }
-        if (!getMonthList().isEmpty()) {
+        if (monthList != null && !monthList.isEmpty()) {
             b.append(';');
             b.append(BYMONTH);
             b.append('=');
             b.append(monthList);
         }
-        if (!getWeekNoList().isEmpty()) {
+        if (weekNoList != null && !weekNoList.isEmpty()) {
             b.append(';');
             b.append(BYWEEKNO);
             b.append('=');
             b.append(weekNoList);
         }
-        if (!getYearDayList().isEmpty()) {
+        if (yearDayList != null && !yearDayList.isEmpty()) {
             b.append(';');
             b.append(BYYEARDAY);
             b.append('=');
             b.append(yearDayList);
         }
-        if (!getMonthDayList().isEmpty()) {
+        if (monthDayList != null && !monthDayList.isEmpty()) {
             b.append(';');
             b.append(BYMONTHDAY);
             b.append('=');
             b.append(monthDayList);
         }
-        if (!getDayList().isEmpty()) {
+        if (dayList != null && !dayList.isEmpty()) {
             b.append(';');
             b.append(BYDAY);
             b.append('=');
             b.append(dayList);
         }
-        if (!getHourList().isEmpty()) {
+        if (hourList != null && !hourList.isEmpty()) {
             b.append(';');
             b.append(BYHOUR);
             b.append('=');
             b.append(hourList);
         }
-        if (!getMinuteList().isEmpty()) {
+        if (minuteList != null && !minuteList.isEmpty()) {
             b.append(';');
             b.append(BYMINUTE);
             b.append('=');
             b.append(minuteList);
         }
-        if (!getSecondList().isEmpty()) {
+        if (secondList != null && !secondList.isEmpty()) {
             b.append(';');
             b.append(BYSECOND);
             b.append('=');
             b.append(secondList);
         }
-        if (!getSetPosList().isEmpty()) {
+        if (setPosList != null && !setPosList.isEmpty()) {
             b.append(';');
             b.append(BYSETPOS);
             b.append('=');
@@ -492,524 +482,86 @@ public class Recur implements Serializable {
      */
     public final DateList getDates(final Date seed, final Date periodStart,
             final Date periodEnd, final Value value) {
-
-        DateList dates = new DateList(value);
-        if (seed instanceof DateTime) {
-            if (((DateTime) seed).isUtc()) {
-                dates.setUtc(true);
-            }
-            else {
-                dates.setTimeZone(((DateTime) seed).getTimeZone());
-            }
-        }
-        Calendar cal = Dates.getCalendarInstance(seed);
-        cal.setTime(seed);
-
-        // optimize the start time for selecting candidates
-        // (only applicable where a COUNT is not specified)
-        if (getCount() < 1) {
-            Calendar seededCal = (Calendar) cal.clone();
-            while (seededCal.getTime().before(periodStart)) {
-                cal.setTime(seededCal.getTime());
-                increment(seededCal);
-            }
-        }
-
-        int invalidCandidateCount = 0;
-        Date candidate = null;
-        while (true) {
-            Date candidateSeed = Dates.getInstance(cal.getTime(), value);
-
-            if (getUntil() != null && candidate != null
-                    && candidate.after(getUntil())) {
-
-                break;
-            }
-            if (periodEnd != null && candidate != null
-                    && candidate.after(periodEnd)) {
-
-                break;
-            }
-            if (getCount() >= 1
-                    && (dates.size() + invalidCandidateCount) >= getCount()) {
-
-                break;
-            }
-
-            if (Value.DATE_TIME.equals(value)) {
-                if (dates.isUtc()) {
-                    ((DateTime) candidateSeed).setUtc(true);
-                }
-                else {
-                    ((DateTime) candidateSeed).setTimeZone(dates.getTimeZone());
-                }
-            }
-
-            DateList candidates = getCandidates(candidateSeed, value);
-            // sort candidates for identifying when UNTIL date is exceeded..
-            Collections.sort(candidates);
-            for (Iterator i = candidates.iterator(); i.hasNext();) {
-                candidate = (Date) i.next();
-                // don't count candidates that occur before the seed date..
-                if (!candidate.before(seed)) {
-                    // candidates exclusive of periodEnd..
-                    if (candidate.before(periodStart)
-                            || !candidate.before(periodEnd)) {
-                        invalidCandidateCount++;
-                    }
-                    else if (getCount() >= 1
-                            && (dates.size() + invalidCandidateCount) >= getCount()) {
-                        break;
-                    }
-                    else if (!(getUntil() != null && candidate
-                            .after(getUntil()))) {
-                        dates.add(candidate);
-                    }
-                }
-            }
-            increment(cal);
-        }
-        // sort final list..
-        Collections.sort(dates);
-        return dates;
-    }
-
-    /**
-     * Increments the specified calendar according to the frequency and interval specified in this recurrence rule.
-     * @param cal a java.util.Calendar to increment
-     */
-    private void increment(final Calendar cal) {
-        // initialise interval..
-        int calInterval = (getInterval() >= 1) ? getInterval() : 1;
-        if (SECONDLY.equals(getFrequency())) {
-            cal.add(Calendar.SECOND, calInterval);
-        }
-        else if (MINUTELY.equals(getFrequency())) {
-            cal.add(Calendar.MINUTE, calInterval);
-        }
-        else if (HOURLY.equals(getFrequency())) {
-            cal.add(Calendar.HOUR_OF_DAY, calInterval);
-        }
-        else if (DAILY.equals(getFrequency())) {
-            cal.add(Calendar.DAY_OF_YEAR, calInterval);
-        }
-        else if (WEEKLY.equals(getFrequency())) {
-            cal.add(Calendar.WEEK_OF_YEAR, calInterval);
-        }
-        else if (MONTHLY.equals(getFrequency())) {
-            cal.add(Calendar.MONTH, calInterval);
-        }
-        else if (YEARLY.equals(getFrequency())) {
-            cal.add(Calendar.YEAR, calInterval);
-        }
-    }
-
-    /**
-     * Returns a list of possible dates generated from the applicable BY* rules, using the specified date as a seed.
-     * @param date the seed date
-     * @param value the type of date list to return
-     * @return a DateList
-     */
-    private DateList getCandidates(final Date date, final Value value) {
-        DateList dates = new DateList(value);
-        if (date instanceof DateTime) {
-            if (((DateTime) date).isUtc()) {
-                dates.setUtc(true);
-            }
-            else {
-                dates.setTimeZone(((DateTime) date).getTimeZone());
-            }
-        }
-        dates.add(date);
-        dates = getMonthVariants(dates);
-        // debugging..
-        if (log.isDebugEnabled()) {
-            log.debug("Dates after BYMONTH processing: " + dates);
-        }
-        dates = getWeekNoVariants(dates);
-        // debugging..
-        if (log.isDebugEnabled()) {
-            log.debug("Dates after BYWEEKNO processing: " + dates);
-        }
-        dates = getYearDayVariants(dates);
-        // debugging..
-        if (log.isDebugEnabled()) {
-            log.debug("Dates after BYYEARDAY processing: " + dates);
-        }
-        dates = getMonthDayVariants(dates);
-        // debugging..
-        if (log.isDebugEnabled()) {
-            log.debug("Dates after BYMONTHDAY processing: " + dates);
-        }
-        dates = getDayVariants(dates);
-        // debugging..
-        if (log.isDebugEnabled()) {
-            log.debug("Dates after BYDAY processing: " + dates);
-        }
-        dates = getHourVariants(dates);
-        // debugging..
-        if (log.isDebugEnabled()) {
-            log.debug("Dates after BYHOUR processing: " + dates);
-        }
-        dates = getMinuteVariants(dates);
-        // debugging..
-        if (log.isDebugEnabled()) {
-            log.debug("Dates after BYMINUTE processing: " + dates);
-        }
-        dates = getSecondVariants(dates);
-        // debugging..
-        if (log.isDebugEnabled()) {
-            log.debug("Dates after BYSECOND processing: " + dates);
-        }
-        dates = applySetPosRules(dates);
-        // debugging..
-        if (log.isDebugEnabled()) {
-            log.debug("Dates after SETPOS processing: " + dates);
-        }
-        return dates;
-    }
-
-    /**
-     * Applies BYSETPOS rules to <code>dates</code>. Valid positions are from 1 to the size of the date list. Invalid
-     * positions are ignored.
-     * @param dates
-     */
-    private DateList applySetPosRules(final DateList dates) {
-        // return if no SETPOS rules specified..
-        if (getSetPosList().isEmpty()) {
-            return dates;
-        }
-        // sort the list before processing..
-        Collections.sort(dates);
-        DateList setPosDates = new DateList(dates.getType(), dates
-                .getTimeZone());
-        int size = dates.size();
-        for (Iterator i = getSetPosList().iterator(); i.hasNext();) {
-            Integer setPos = (Integer) i.next();
-            int pos = setPos.intValue();
-            if (pos > 0 && pos <= size) {
-                setPosDates.add(dates.get(pos - 1));
-            }
-            else if (pos < 0 && pos >= -size) {
-                setPosDates.add(dates.get(size + pos));
-            }
-        }
-        return setPosDates;
+        return compile().getDates(seed, periodStart, periodEnd, value);
     }
 
     /**
-     * Applies BYMONTH rules specified in this Recur instance to the specified date list. If no BYMONTH rules are
-     * specified the date list is returned unmodified.
-     * @param dates
-     * @return
-     */
-    private DateList getMonthVariants(final DateList dates) {
-        if (getMonthList().isEmpty()) {
-            return dates;
-        }
-        DateList monthlyDates = new DateList(dates.getType(), dates
-                .getTimeZone());
-        for (Iterator i = dates.iterator(); i.hasNext();) {
-            Date date = (Date) i.next();
-            Calendar cal = Dates.getCalendarInstance(date);
-            cal.setTime(date);
-            for (Iterator j = getMonthList().iterator(); j.hasNext();) {
-                Integer month = (Integer) j.next();
-                // Java months are zero-based..
-//                cal.set(Calendar.MONTH, month.intValue() - 1);
-                cal.roll(Calendar.MONTH,
-                        (month.intValue() - 1) - cal.get(Calendar.MONTH));
-                monthlyDates.add(Dates.getInstance(cal.getTime(), monthlyDates
-                        .getType()));
-            }
-        }
-        return monthlyDates;
-    }
-
-    /**
-     * Applies BYWEEKNO rules specified in this Recur instance to the specified date list. If no BYWEEKNO rules are
-     * specified the date list is returned unmodified.
-     * @param dates
-     * @return
-     */
-    private DateList getWeekNoVariants(final DateList dates) {
-        if (getWeekNoList().isEmpty()) {
-            return dates;
-        }
-        DateList weekNoDates = new DateList(dates.getType(), dates
-                .getTimeZone());
-        for (Iterator i = dates.iterator(); i.hasNext();) {
-            Date date = (Date) i.next();
-            Calendar cal = Dates.getCalendarInstance(date);
-            cal.setTime(date);
-            for (Iterator j = getWeekNoList().iterator(); j.hasNext();) {
-                Integer weekNo = (Integer) j.next();
-                cal.set(Calendar.WEEK_OF_YEAR, Dates.getAbsWeekNo(
-                        cal.getTime(), weekNo.intValue()));
-                weekNoDates.add(Dates.getInstance(cal.getTime(), weekNoDates
-                        .getType()));
-            }
-        }
-        return weekNoDates;
-    }
-
-    /**
-     * Applies BYYEARDAY rules specified in this Recur instance to the specified date list. If no BYYEARDAY rules are
-     * specified the date list is returned unmodified.
-     * @param dates
-     * @return
-     */
-    private DateList getYearDayVariants(final DateList dates) {
-        if (getYearDayList().isEmpty()) {
-            return dates;
-        }
-        DateList yearDayDates = new DateList(dates.getType(), dates
-                .getTimeZone());
-        for (Iterator i = dates.iterator(); i.hasNext();) {
-            Date date = (Date) i.next();
-            Calendar cal = Dates.getCalendarInstance(date);
-            cal.setTime(date);
-            for (Iterator j = getYearDayList().iterator(); j.hasNext();) {
-                Integer yearDay = (Integer) j.next();
-                cal.set(Calendar.DAY_OF_YEAR, Dates.getAbsYearDay(
-                        cal.getTime(), yearDay.intValue()));
-                yearDayDates.add(Dates.getInstance(cal.getTime(), yearDayDates
-                        .getType()));
-            }
-        }
-        return yearDayDates;
-    }
-
-    /**
-     * Applies BYMONTHDAY rules specified in this Recur instance to the specified date list. If no BYMONTHDAY rules are
-     * specified the date list is returned unmodified.
-     * @param dates
-     * @return
-     */
-    private DateList getMonthDayVariants(final DateList dates) {
-        if (getMonthDayList().isEmpty()) {
-            return dates;
-        }
-        DateList monthDayDates = new DateList(dates.getType(), dates
-                .getTimeZone());
-        for (Iterator i = dates.iterator(); i.hasNext();) {
-            Date date = (Date) i.next();
-            Calendar cal = Dates.getCalendarInstance(date);
-            cal.setTime(date);
-            for (Iterator j = getMonthDayList().iterator(); j.hasNext();) {
-                Integer monthDay = (Integer) j.next();
-                cal.set(Calendar.DAY_OF_MONTH, Dates.getAbsMonthDay(cal
-                        .getTime(), monthDay.intValue()));
-                monthDayDates.add(Dates.getInstance(cal.getTime(),
-                        monthDayDates.getType()));
-            }
-        }
-        return monthDayDates;
-    }
-
-    /**
-     * Applies BYDAY rules specified in this Recur instance to the specified date list. If no BYDAY rules are specified
-     * the date list is returned unmodified.
-     * @param dates
-     * @return
+     * Returns an iterator over the start dates represented by this recur, beginning with the first date that occurs on
+     * or after the specified period start. Unlike {@link #getDates(Date, Date, Date, Value)} dates are generated on
+     * demand, one frequency period at a time, so a caller only interested in the next few occurrences of an open-ended
+     * rule may stop iterating without expanding the remainder of the rule. The iterator is exhausted when the COUNT or
+     * UNTIL of this recur is reached (if any).
+     * <p>
+     * Dates are returned in the order generated. Candidates within a period are sorted, so for rules whose BY* parts
+     * are consistent with the frequency dates are returned in chronological order.
+     * @param seed the start date of this Recurrence's first instance
+     * @param periodStart the earliest date to return
+     * @param value the type of dates to generate (i.e. date/date-time)
+     * @return an iterator over instances of {@link Date}
      */
-    private DateList getDayVariants(final DateList dates) {
-        if (getDayList().isEmpty()) {
-            return dates;
-        }
-        DateList weekDayDates = new DateList(dates.getType(), dates
-                .getTimeZone());
-        for (Iterator i = dates.iterator(); i.hasNext();) {
-            Date date = (Date) i.next();
-            for (Iterator j = getDayList().iterator(); j.hasNext();) {
-                WeekDay weekDay = (WeekDay) j.next();
-                // if BYYEARDAY or BYMONTHDAY is specified filter existing
-                // list..
-                if (!getYearDayList().isEmpty() || !getMonthDayList().isEmpty()) {
-                    Calendar cal = Calendar.getInstance();
-                    cal.setTime(date);
-                    if (weekDay.equals(WeekDay.getWeekDay(cal))) {
-                        weekDayDates.add(date);
-                    }
-                }
-                else {
-                    weekDayDates.addAll(getAbsWeekDays(date, dates.getType(),
-                            weekDay));
-                }
-            }
-        }
-        return weekDayDates;
+    public final Iterator iterator(final Date seed, final Date periodStart,
+            final Value value) {
+        return compile().iterator(seed, periodStart, value);
     }
 
     /**
-     * Returns a list of applicable dates corresponding to the specified week day in accordance with the frequency
-     * specified by this recurrence rule.
-     * @param date
-     * @param weekDay
-     * @return
+     * Returns an immutable, compiled form of this recur. Where the same recurrence is expanded repeatedly the compiled
+     * form should be retained and used in place of this instance, as the frequency and BY* rules are otherwise resolved
+     * on every expansion. Subsequent modifications to this recur are not reflected in the compiled form.
+     * @return a compiled form of this recur
+     * @see net.fortuna.ical4j.model.property.RRule#getCompiledRecur()
      */
-    private List getAbsWeekDays(final Date date, final Value type,
-            final WeekDay weekDay) {
-        Calendar cal = Dates.getCalendarInstance(date);
-        cal.setTime(date);
-        DateList days = new DateList(type);
-        if (date instanceof DateTime) {
-            if (((DateTime) date).isUtc()) {
-                days.setUtc(true);
-            }
-            else {
-                days.setTimeZone(((DateTime) date).getTimeZone());
-            }
-        }
-        int calDay = WeekDay.getCalendarDay(weekDay);
-        if (calDay == -1) {
-            // a matching weekday cannot be identified..
-            return days;
-        }
-        if (DAILY.equals(getFrequency())) {
-            if (cal.get(Calendar.DAY_OF_WEEK) == calDay) {
-                days.add(Dates.getInstance(cal.getTime(), type));
-            }
-        }
-        else if (WEEKLY.equals(getFrequency()) || !getWeekNoList().isEmpty()) {
-            // int weekNo = cal.get(Calendar.WEEK_OF_YEAR);
-            // construct a list of possible week days..
-            // cal.set(Calendar.DAY_OF_WEEK_IN_MONTH, 1);
-            while (cal.get(Calendar.DAY_OF_WEEK) != calDay) {
-                cal.add(Calendar.DAY_OF_WEEK, 1);
-            }
-            int weekNo = cal.get(Calendar.WEEK_OF_YEAR);
-            while (cal.get(Calendar.WEEK_OF_YEAR) == weekNo) {
-                days.add(Dates.getInstance(cal.getTime(), type));
-                cal.add(Calendar.DAY_OF_WEEK, Dates.DAYS_PER_WEEK);
-            }
-        }
-        else if (MONTHLY.equals(getFrequency()) || !getMonthList().isEmpty()) {
-            int month = cal.get(Calendar.MONTH);
-            // construct a list of possible month days..
-            cal.set(Calendar.DAY_OF_MONTH, 1);
-            while (cal.get(Calendar.DAY_OF_WEEK) != calDay) {
-                cal.add(Calendar.DAY_OF_MONTH, 1);
-            }
-            while (cal.get(Calendar.MONTH) == month) {
-                days.add(Dates.getInstance(cal.getTime(), type));
-                cal.add(Calendar.DAY_OF_MONTH, Dates.DAYS_PER_WEEK);
-            }
-        }
-        else if (YEARLY.equals(getFrequency())) {
-            int year = cal.get(Calendar.YEAR);
-            // construct a list of possible year days..
-            cal.set(Calendar.DAY_OF_YEAR, 1);
-            while (cal.get(Calendar.DAY_OF_WEEK) != calDay) {
-                cal.add(Calendar.DAY_OF_YEAR, 1);
-            }
-            while (cal.get(Calendar.YEAR) == year) {
-                days.add(Dates.getInstance(cal.getTime(), type));
-                cal.add(Calendar.DAY_OF_YEAR, Dates.DAYS_PER_WEEK);
-            }
-        }
-        return getOffsetDates(days, weekDay.getOffset());
+    public final CompiledRecur compile() {
+        return new CompiledRecur(this);
     }
 
     /**
-     * Returns a single-element sublist containing the element of <code>list</code> at <code>offset</code>. Valid
-     * offsets are from 1 to the size of the list. If an invalid offset is supplied, all elements from <code>list</code>
-     * are added to <code>sublist</code>.
-     * @param list
-     * @param offset
-     * @param sublist
+     * Indicates whether the BY* rules of this recur have the specified values. Unlike the public accessors this
+     * doesn't create lists for unset rules, which are equivalent to empty lists.
+     * @param values BYMONTH, BYWEEKNO, BYYEARDAY, BYMONTHDAY, BYHOUR, BYMINUTE, BYSECOND and BYSETPOS values
+     * @param days BYDAY values
+     * @return true if the rules of this recur have the specified values
      */
-    private List getOffsetDates(final DateList dates, final int offset) {
-        if (offset == 0) {
-            return dates;
-        }
-        List offsetDates = new DateList(dates.getType(), dates.getTimeZone());
-        int size = dates.size();
-        if (offset < 0 && offset >= -size) {
-            offsetDates.add(dates.get(size + offset));
+    final boolean hasRules(final int[][] values, final WeekDay[] days) {
+        if (!hasValues(monthList, values[0]) || !hasValues(weekNoList, values[1])
+                || !hasValues(yearDayList, values[2]) || !hasValues(monthDayList, values[3])
+                || !hasValues(hourList, values[4]) || !hasValues(minuteList, values[5])
+                || !hasValues(secondList, values[6]) || !hasValues(setPosList, values[7])) {
+            return false;
         }
-        else if (offset > 0 && offset <= size) {
-            offsetDates.add(dates.get(offset - 1));
+        int size = 0;
+        if (dayList != null) {
+            size = dayList.size();
         }
-        return offsetDates;
-    }
-
-    /**
-     * Applies BYHOUR rules specified in this Recur instance to the specified date list. If no BYHOUR rules are
-     * specified the date list is returned unmodified.
-     * @param dates
-     * @return
-     */
-    private DateList getHourVariants(final DateList dates) {
-        if (getHourList().isEmpty()) {
-            return dates;
+        if (size != days.length) {
+            return false;
         }
-        DateList hourlyDates = new DateList(dates.getType(), dates
-                .getTimeZone());
-        for (Iterator i = dates.iterator(); i.hasNext();) {
-            Date date = (Date) i.next();
-            Calendar cal = Dates.getCalendarInstance(date);
-            cal.setTime(date);
-            for (Iterator j = getHourList().iterator(); j.hasNext();) {
-                Integer hour = (Integer) j.next();
-                cal.set(Calendar.HOUR_OF_DAY, hour.intValue());
-                hourlyDates.add(Dates.getInstance(cal.getTime(), hourlyDates
-                        .getType()));
+        for (int i = 0; i < days.length; i++) {
+            if (!days[i].equals(dayList.get(i))) {
+                return false;
             }
         }
-        return hourlyDates;
+        return true;
     }
 
     /**
-     * Applies BYMINUTE rules specified in this Recur instance to the specified date list. If no BYMINUTE rules are
-     * specified the date list is returned unmodified.
-     * @param dates
-     * @return
+     * @param list a list of BY* values, or null if unset
+     * @param values the expected values
+     * @return true if the list contains the expected values in the same order
      */
-    private DateList getMinuteVariants(final DateList dates) {
-        if (getMinuteList().isEmpty()) {
-            return dates;
+    private static boolean hasValues(final NumberList list, final int[] values) {
+        if (list == null) {
+            return values.length == 0;
         }
-        DateList minutelyDates = new DateList(dates.getType(), dates
-                .getTimeZone());
-        for (Iterator i = dates.iterator(); i.hasNext();) {
-            Date date = (Date) i.next();
-            Calendar cal = Dates.getCalendarInstance(date);
-            cal.setTime(date);
-            for (Iterator j = getMinuteList().iterator(); j.hasNext();) {
-                Integer minute = (Integer) j.next();
-                cal.set(Calendar.MINUTE, minute.intValue());
-                minutelyDates.add(Dates.getInstance(cal.getTime(),
-                        minutelyDates.getType()));
-            }
+        if (list.size() != values.length) {
+            return false;
         }
-        return minutelyDates;
-    }
-
-    /**
-     * Applies BYSECOND rules specified in this Recur instance to the specified date list. If no BYSECOND rules are
-     * specified the date list is returned unmodified.
-     * @param dates
-     * @return
-     */
-    private DateList getSecondVariants(final DateList dates) {
-        if (getSecondList().isEmpty()) {
-            return dates;
-        }
-        DateList secondlyDates = new DateList(dates.getType(), dates
-                .getTimeZone());
-        for (Iterator i = dates.iterator(); i.hasNext();) {
-            Date date = (Date) i.next();
-            Calendar cal = Dates.getCalendarInstance(date);
-            cal.setTime(date);
-            for (Iterator j = getSecondList().iterator(); j.hasNext();) {
-                Integer second = (Integer) j.next();
-                cal.set(Calendar.SECOND, second.intValue());
-                secondlyDates.add(Dates.getInstance(cal.getTime(),
-                        secondlyDates.getType()));
+        for (int i = 0; i < values.length; i++) {
+            if (((Integer) list.get(i)).intValue() != values[i]) {
+                return false;
             }
         }
-        return secondlyDates;
+        return true;
     }
 
     private void validateFrequency() {
@@ -1057,16 +609,4 @@ public class Recur implements Serializable {
         this.until = until;
         this.count = -1;
     }
-    
-    /**
-     * @param stream
-     * @throws IOException
-     * @throws ClassNotFoundException
-     */
-    private void readObject(java.io.ObjectInputStream stream)
-        throws IOException, ClassNotFoundException {
-        
-        stream.defaultReadObject();
-        log = LogFactory.getLog(Recur.class);
-    }
 }
@@ -0,0 +1,984 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model;
+
+import java.util.Arrays;
+import java.util.Calendar;
+
+import net.fortuna.ical4j.model.parameter.Value;
+import net.fortuna.ical4j.util.Dates;
+import net.fortuna.ical4j.util.TimeZones;
+
+/**
+ * Expands the BY* rules of a recurrence for a single frequency period without the use of
+ * <code>java.util.Calendar</code>. Candidates are maintained as primitive local date-times (milliseconds from the
+ * local epoch) and instants, and are converted to {@link Date} instances only when the expansion is complete.
+ * <p>
+ * Expansion is equivalent to that of {@link CompiledRecur}, including the timezone in which each rule is applied and
+ * the cumulative application of rule values. Where an expansion cannot be reproduced exactly (such as where a local
+ * time falls in a daylight savings transition) no result is returned, and callers should expand the period via
+ * {@link CompiledRecur} instead.
+ * @author Ben Fortuna
+ */
+final class RecurExpander {
+
+    /**
+     * Indicates a local time that doesn't resolve to a unique instant.
+     */
+    private static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * The earliest year supported. Earlier dates are subject to the Julian calendar.
+     */
+    private static final int MIN_YEAR = 1600;
+
+    /**
+     * The maximum number of candidates that may be sorted for BYSETPOS.
+     */
+    private static final int MAX_SORTED = 1 << 16;
+
+    // candidate flags, corresponding to the timezone of the date instances generated by CompiledRecur..
+    private static final int FLAG_UTC = 0;
+
+    private static final int FLAG_LIST = 1;
+
+    private static final int DAILY = 1;
+
+    private static final int WEEKLY = 2;
+
+    private static final int MONTHLY = 3;
+
+    private static final int YEARLY = 4;
+
+    private static final java.util.TimeZone UTC = java.util.TimeZone.getTimeZone(TimeZones.UTC_ID);
+
+    private final int frequency;
+
+    private final boolean supported;
+
+    private final boolean dayFilter;
+
+    private final int[] months;
+
+    private final int[] yearDays;
+
+    private final int[] monthDays;
+
+    private final int[] days;
+
+    private final int[] dayOffsets;
+
+    private final int[] hours;
+
+    private final int[] minutes;
+
+    private final int[] seconds;
+
+    private final int[] setPositions;
+
+    private long[] times = new long[16];
+
+    private int[] flags = new int[16];
+
+    private int size;
+
+    private long[] nextTimes = new long[16];
+
+    private int[] nextFlags = new int[16];
+
+    private int nextSize;
+
+    private long[] dayTimes = new long[64];
+
+    private int dayCount;
+
+    private long[] sorted = new long[16];
+
+    private boolean dateValues;
+
+    private net.fortuna.ical4j.model.TimeZone listTimeZone;
+
+    private boolean listUtc;
+
+    private ZoneOffsets utcOffsets;
+
+    private ZoneOffsets defaultOffsets;
+
+    private ZoneOffsets listOffsets;
+
+    // fields of the most recently decoded local date..
+    private int year;
+
+    private int month;
+
+    private int dayOfMonth;
+
+    /**
+     * @param recur the compiled recurrence to expand
+     */
+    RecurExpander(final CompiledRecur recur) {
+        switch (recur.getFrequency()) {
+            case CompiledRecur.DAILY:
+                frequency = DAILY;
+                break;
+            case CompiledRecur.WEEKLY:
+                frequency = WEEKLY;
+                break;
+            case CompiledRecur.MONTHLY:
+                frequency = MONTHLY;
+                break;
+            case CompiledRecur.YEARLY:
+                frequency = YEARLY;
+                break;
+            default:
+                frequency = 0;
+        }
+        months = recur.getMonths();
+        yearDays = recur.getYearDays();
+        monthDays = recur.getMonthDays();
+        hours = recur.getHours();
+        minutes = recur.getMinutes();
+        seconds = recur.getSeconds();
+        setPositions = recur.getSetPositions();
+        days = recur.getCalendarDays();
+        dayOffsets = recur.getDayOffsets();
+        dayFilter = recur.isDayFilter();
+
+        // values outside of these ranges are rejected or normalised by java.util.Calendar..
+        supported = recur.getWeekNos().length == 0
+                && isInRange(months, 1, 12, false)
+                && isInRange(yearDays, 1, 366, true)
+                && isInRange(monthDays, 1, 31, true)
+                && isInRange(hours, 0, 23, false)
+                && isInRange(minutes, 0, 59, false)
+                && isInRange(seconds, 0, 59, false)
+                && (months.length + yearDays.length + monthDays.length + days.length + hours.length
+                        + minutes.length + seconds.length + setPositions.length) > 0;
+    }
+
+    /**
+     * Returns a list of candidate dates generated from the BY* rules of the recurrence, using the specified date as a
+     * seed.
+     * @param date the seed date
+     * @param value the type of date list to return
+     * @return a list of candidate dates, or null if the candidates cannot be expanded by this instance
+     */
+    DateList expand(final Date date, final Value value) {
+        if (!supported) {
+            return null;
+        }
+        dateValues = Value.DATE.equals(value);
+        java.util.TimeZone defaultZone = java.util.TimeZone.getDefault();
+        defaultOffsets = getOffsets(defaultOffsets, defaultZone);
+        int flag = FLAG_LIST;
+        listTimeZone = null;
+        listUtc = TimeZones.isUtc(defaultZone);
+        if (date instanceof DateTime) {
+            DateTime dateTime = (DateTime) date;
+            if (dateTime.isUtc()) {
+                flag = FLAG_UTC;
+            }
+            else {
+                listTimeZone = dateTime.getTimeZone();
+                if (listTimeZone != null) {
+                    listUtc = TimeZones.isUtc(listTimeZone);
+                }
+            }
+        }
+        utcOffsets = getOffsets(utcOffsets, UTC);
+        if (listTimeZone != null) {
+            listOffsets = getOffsets(listOffsets, listTimeZone);
+        }
+        else {
+            listOffsets = defaultOffsets;
+        }
+
+        size = 0;
+        add(date.getTime(), flag);
+        decode(getLocalTime(date.getTime(), flag));
+        if (year < MIN_YEAR) {
+            return null;
+        }
+        if ((months.length > 0 && !expandMonths())
+                || (yearDays.length > 0 && !expandYearDays())
+                || (monthDays.length > 0 && !expandMonthDays())
+                || (days.length > 0 && !expandDays())
+                || (hours.length > 0 && !expandTime(hours, Dates.MILLIS_PER_HOUR, Dates.MILLIS_PER_DAY))
+                || (minutes.length > 0 && !expandTime(minutes, Dates.MILLIS_PER_MINUTE, Dates.MILLIS_PER_HOUR))
+                || (seconds.length > 0 && !expandTime(seconds, Dates.MILLIS_PER_SECOND, Dates.MILLIS_PER_MINUTE))
+                || (setPositions.length > 0 && !applySetPositions())) {
+
+            return null;
+        }
+
+        DateList dates = new DateList(value, listTimeZone);
+        for (int i = 0; i < size; i++) {
+            if (dateValues) {
+                dates.add((Object) new Date(times[i]));
+            }
+            else {
+                DateTime dateTime = new DateTime(times[i]);
+                if (flags[i] == FLAG_UTC) {
+                    dateTime.setUtc(true);
+                }
+                else {
+                    dateTime.setTimeZone(listTimeZone);
+                }
+                dates.add((Object) dateTime);
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Applies BYMONTH rules. Months are rolled within the year of each candidate, and the day of the month is
+     * truncated where it exceeds the length of a month (and remains truncated for subsequent months).
+     * @return false if the rules cannot be applied
+     */
+    private boolean expandMonths() {
+        nextSize = 0;
+        for (int i = 0; i < size; i++) {
+            ZoneOffsets offsets = getOffsets(flags[i]);
+            long time = times[i];
+            long localTime = time + offsets.getOffset(time);
+            long timeOfDay = decode(localTime);
+            for (int j = 0; j < months.length; j++) {
+                int newMonth = months[j] - 1;
+                if (newMonth != month) {
+                    month = newMonth;
+                    dayOfMonth = Math.min(dayOfMonth, getMonthLength(year, month));
+                    time = offsets.getTime(getDays(year, month, dayOfMonth) * Dates.MILLIS_PER_DAY + timeOfDay);
+                    if (time == INVALID) {
+                        return false;
+                    }
+                }
+                if (!addNext(time, FLAG_LIST)) {
+                    return false;
+                }
+            }
+        }
+        swap();
+        return true;
+    }
+
+    /**
+     * Applies BYYEARDAY rules.
+     * @return false if the rules cannot be applied
+     */
+    private boolean expandYearDays() {
+        nextSize = 0;
+        for (int i = 0; i < size; i++) {
+            ZoneOffsets offsets = getOffsets(flags[i]);
+            long time = times[i];
+            long timeOfDay = decode(time + offsets.getOffset(time));
+            for (int j = 0; j < yearDays.length; j++) {
+                int yearDay = yearDays[j];
+                if (yearDay < 0) {
+                    yearDay = getAbsDay(time, yearDay, true);
+                    if (yearDay < 0) {
+                        return false;
+                    }
+                }
+                long day = getDays(year, 0, yearDay);
+                time = offsets.getTime(day * Dates.MILLIS_PER_DAY + timeOfDay);
+                if (time == INVALID || !addNext(time, FLAG_LIST)) {
+                    return false;
+                }
+                decode(day * Dates.MILLIS_PER_DAY);
+            }
+        }
+        swap();
+        return true;
+    }
+
+    /**
+     * Applies BYMONTHDAY rules.
+     * @return false if the rules cannot be applied
+     */
+    private boolean expandMonthDays() {
+        nextSize = 0;
+        for (int i = 0; i < size; i++) {
+            ZoneOffsets offsets = getOffsets(flags[i]);
+            long time = times[i];
+            long timeOfDay = decode(time + offsets.getOffset(time));
+            for (int j = 0; j < monthDays.length; j++) {
+                int monthDay = monthDays[j];
+                if (monthDay < 0) {
+                    monthDay = getAbsDay(time, monthDay, false);
+                    if (monthDay < 0) {
+                        return false;
+                    }
+                }
+                long day = getDays(year, month, monthDay);
+                time = offsets.getTime(day * Dates.MILLIS_PER_DAY + timeOfDay);
+                if (time == INVALID || !addNext(time, FLAG_LIST)) {
+                    return false;
+                }
+                decode(day * Dates.MILLIS_PER_DAY);
+            }
+        }
+        swap();
+        return true;
+    }
+
+    /**
+     * Applies BYDAY rules. Where BYYEARDAY or BYMONTHDAY rules are specified existing candidates are filtered,
+     * otherwise candidates are expanded to the matching week days of the frequency period.
+     * @return false if the rules cannot be applied
+     */
+    private boolean expandDays() {
+        nextSize = 0;
+        for (int i = 0; i < size; i++) {
+            int flag = flags[i];
+            ZoneOffsets offsets = getOffsets(flag);
+            long time = times[i];
+            for (int j = 0; j < days.length; j++) {
+                if (dayFilter) {
+                    // week days are identified in the default timezone..
+                    long localTime = time + defaultOffsets.getOffset(time);
+                    if (dayOffsets[j] == 0
+                            && getDayOfWeek(floorDiv(localTime, Dates.MILLIS_PER_DAY)) == days[j]
+                            && !addNext(time, FLAG_LIST)) {
+                        return false;
+                    }
+                }
+                else if (!expandDay(time, offsets, days[j])) {
+                    return false;
+                }
+                else if (dayOffsets[j] == 0) {
+                    for (int k = 0; k < dayCount; k++) {
+                        if (!addNext(dayTimes[k], getDayFlag(flag))) {
+                            return false;
+                        }
+                    }
+                }
+                else {
+                    // select a single week day by offset..
+                    int offset = dayOffsets[j];
+                    int index = -1;
+                    if (offset < 0 && offset >= -dayCount) {
+                        index = dayCount + offset;
+                    }
+                    else if (offset > 0 && offset <= dayCount) {
+                        index = offset - 1;
+                    }
+                    if (index >= 0 && !addNext(dayTimes[index], getDayFlag(flag))) {
+                        return false;
+                    }
+                }
+            }
+        }
+        swap();
+        return true;
+    }
+
+    /**
+     * Populates the day buffer with the dates of the specified week day applicable to the frequency period of the
+     * specified date.
+     * @param time the instant of a candidate
+     * @param offsets the offsets of the candidate's timezone
+     * @param day a <code>java.util.Calendar</code> week day
+     * @return false if the week days cannot be identified
+     */
+    private boolean expandDay(final long time, final ZoneOffsets offsets, final int day) {
+        dayCount = 0;
+        if (day == -1) {
+            return true;
+        }
+        long timeOfDay = decode(time + offsets.getOffset(time));
+        long localDay = getDays(year, month, dayOfMonth);
+        if (frequency == DAILY) {
+            if (getDayOfWeek(localDay) == day) {
+                return addDay(time);
+            }
+        }
+        else if (frequency == WEEKLY) {
+            long dayTime = time;
+            while (getDayOfWeek(localDay) != day) {
+                localDay++;
+                dayTime = offsets.getTime(localDay * Dates.MILLIS_PER_DAY + timeOfDay);
+                if (dayTime == INVALID) {
+                    return false;
+                }
+            }
+            return addDay(dayTime);
+        }
+        else if (frequency == MONTHLY || months.length > 0 || frequency == YEARLY) {
+            long periodEnd;
+            if (frequency == MONTHLY || months.length > 0) {
+                localDay = getDays(year, month, 1);
+                periodEnd = localDay + getMonthLength(year, month);
+            }
+            else {
+                localDay = getDays(year, 0, 1);
+                periodEnd = getDays(year + 1, 0, 1);
+            }
+            // all days up to the first matching day are resolved..
+            long dayTime = offsets.getTime(localDay * Dates.MILLIS_PER_DAY + timeOfDay);
+            while (dayTime != INVALID && getDayOfWeek(localDay) != day) {
+                localDay++;
+                dayTime = offsets.getTime(localDay * Dates.MILLIS_PER_DAY + timeOfDay);
+            }
+            for (; localDay < periodEnd; localDay += Dates.DAYS_PER_WEEK) {
+                if (dayTime == INVALID || !addDay(dayTime)) {
+                    return false;
+                }
+                if (localDay + Dates.DAYS_PER_WEEK < periodEnd) {
+                    dayTime = offsets.getTime((localDay + Dates.DAYS_PER_WEEK) * Dates.MILLIS_PER_DAY + timeOfDay);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies BYHOUR, BYMINUTE or BYSECOND rules.
+     * @param values the rule values
+     * @param unit the length of the unit specified by the rule values
+     * @param range the length of the next largest unit
+     * @return false if the rules cannot be applied
+     */
+    private boolean expandTime(final int[] values, final long unit, final long range) {
+        nextSize = 0;
+        for (int i = 0; i < size; i++) {
+            ZoneOffsets offsets = getOffsets(flags[i]);
+            long time = times[i];
+            long localTime = time + offsets.getOffset(time);
+            long day = floorDiv(localTime, Dates.MILLIS_PER_DAY);
+            long timeOfDay = localTime - day * Dates.MILLIS_PER_DAY;
+            for (int j = 0; j < values.length; j++) {
+                timeOfDay = (timeOfDay / range) * range + values[j] * unit + timeOfDay % unit;
+                time = offsets.getTime(day * Dates.MILLIS_PER_DAY + timeOfDay);
+                if (time == INVALID || !addNext(time, FLAG_LIST)) {
+                    return false;
+                }
+            }
+        }
+        swap();
+        return true;
+    }
+
+    /**
+     * Applies BYSETPOS rules. Candidates are (stably) sorted, and valid positions selected in the order specified.
+     * @return false if the rules cannot be applied
+     */
+    private boolean applySetPositions() {
+        if (size >= MAX_SORTED) {
+            return false;
+        }
+        if (sorted.length < size) {
+            sorted = new long[Math.max(size, sorted.length * 2)];
+        }
+        for (int i = 0; i < size; i++) {
+            // candidates are whole seconds, such that the index may be packed in the remaining bits..
+            if (floorMod(times[i], Dates.MILLIS_PER_SECOND) != 0) {
+                return false;
+            }
+            sorted[i] = (times[i] / Dates.MILLIS_PER_SECOND) * MAX_SORTED + i;
+        }
+        Arrays.sort(sorted, 0, size);
+        nextSize = 0;
+        for (int i = 0; i < setPositions.length; i++) {
+            int pos = setPositions[i];
+            int index = -1;
+            if (pos > 0 && pos <= size) {
+                index = (int) (sorted[pos - 1] & (MAX_SORTED - 1));
+            }
+            else if (pos < 0 && pos >= -size) {
+                index = (int) (sorted[size + pos] & (MAX_SORTED - 1));
+            }
+            if (index >= 0) {
+                ensureNextCapacity();
+                nextTimes[nextSize] = times[index];
+                nextFlags[nextSize++] = flags[index];
+            }
+        }
+        swap();
+        return true;
+    }
+
+    /**
+     * Returns the absolute day of the year or month specified by a negative rule value, where the year or month is
+     * that of the specified instant in the default timezone.
+     * @param time an instant
+     * @param value a negative year or month day
+     * @param yearDay true for a year day, false for a month day
+     * @return the absolute day, or -1 if no day is applicable
+     */
+    private int getAbsDay(final long time, final int value, final boolean yearDay) {
+        int currentYear = year;
+        int currentMonth = month;
+        int currentDayOfMonth = dayOfMonth;
+        setFields(floorDiv(time + defaultOffsets.getOffset(time), Dates.MILLIS_PER_DAY));
+        long start;
+        long end;
+        if (yearDay) {
+            start = getDays(year, 0, 1);
+            end = getDays(year + 1, 0, 1);
+        }
+        else {
+            start = getDays(year, month, 1);
+            end = start + getMonthLength(year, month);
+        }
+        year = currentYear;
+        month = currentMonth;
+        dayOfMonth = currentDayOfMonth;
+        // the length of a local year or month is only fixed where the offset doesn't change by a whole day..
+        int startOffset = defaultOffsets.getOffset(start * Dates.MILLIS_PER_DAY);
+        int endOffset = defaultOffsets.getOffset(end * Dates.MILLIS_PER_DAY);
+        int length = (int) (end - start);
+        if (Math.abs(startOffset - endOffset) >= Dates.MILLIS_PER_HOUR * 12 || value < -length) {
+            return -1;
+        }
+        return length + value + 1;
+    }
+
+    /**
+     * @param time an instant
+     * @return false if the instant cannot be resolved
+     */
+    private boolean addDay(final long time) {
+        long dayTime = time;
+        if (dateValues) {
+            dayTime = getDate(time);
+            if (dayTime == INVALID) {
+                return false;
+            }
+        }
+        if (dayCount == dayTimes.length) {
+            long[] newDayTimes = new long[dayCount * 2];
+            System.arraycopy(dayTimes, 0, newDayTimes, 0, dayCount);
+            dayTimes = newDayTimes;
+        }
+        dayTimes[dayCount++] = dayTime;
+        return true;
+    }
+
+    /**
+     * Adds a candidate to the current expansion.
+     * @param time the instant of the candidate
+     * @param flag the candidate flag
+     */
+    private void add(final long time, final int flag) {
+        times[size] = time;
+        flags[size++] = flag;
+    }
+
+    /**
+     * Adds a candidate to the next expansion, rounding to a date where applicable.
+     * @param time the instant of the candidate
+     * @param flag the candidate flag
+     * @return false if the candidate cannot be resolved
+     */
+    private boolean addNext(final long time, final int flag) {
+        long candidate = time;
+        if (dateValues) {
+            candidate = getDate(time);
+            if (candidate == INVALID) {
+                return false;
+            }
+        }
+        ensureNextCapacity();
+        nextTimes[nextSize] = candidate;
+        nextFlags[nextSize++] = flag;
+        return true;
+    }
+
+    private void ensureNextCapacity() {
+        if (nextSize == nextTimes.length) {
+            long[] newTimes = new long[nextSize * 2];
+            System.arraycopy(nextTimes, 0, newTimes, 0, nextSize);
+            nextTimes = newTimes;
+            int[] newFlags = new int[nextSize * 2];
+            System.arraycopy(nextFlags, 0, newFlags, 0, nextSize);
+            nextFlags = newFlags;
+        }
+    }
+
+    /**
+     * Makes the next expansion current.
+     */
+    private void swap() {
+        long[] swapTimes = times;
+        times = nextTimes;
+        nextTimes = swapTimes;
+        int[] swapFlags = flags;
+        flags = nextFlags;
+        nextFlags = swapFlags;
+        size = nextSize;
+    }
+
+    /**
+     * @param time an instant
+     * @return the start of the day of the specified instant in the default timezone (consistent with
+     * {@link Date#Date(long)}), or INVALID if the start of the day cannot be resolved
+     */
+    private long getDate(final long time) {
+        long localDay = floorDiv(time + defaultOffsets.getOffset(time), Dates.MILLIS_PER_DAY);
+        return defaultOffsets.getTime(localDay * Dates.MILLIS_PER_DAY);
+    }
+
+    /**
+     * @param time an instant
+     * @param flag a candidate flag
+     * @return the local time of the specified instant in the timezone of the specified flag
+     */
+    private long getLocalTime(final long time, final int flag) {
+        return time + getOffsets(flag).getOffset(time);
+    }
+
+    /**
+     * @param flag a candidate flag
+     * @return the offsets of the timezone applicable to candidates with the specified flag
+     */
+    private ZoneOffsets getOffsets(final int flag) {
+        if (dateValues) {
+            return defaultOffsets;
+        }
+        else if (flag == FLAG_UTC) {
+            return utcOffsets;
+        }
+        return listOffsets;
+    }
+
+    /**
+     * @param flag the flag of a candidate
+     * @return the flag of week days derived from the candidate
+     */
+    private int getDayFlag(final int flag) {
+        if (isUtc(flag)) {
+            return FLAG_UTC;
+        }
+        return flag;
+    }
+
+    /**
+     * @param flag a candidate flag
+     * @return true if a date-time with the specified flag is in UTC
+     */
+    private boolean isUtc(final int flag) {
+        return flag == FLAG_UTC || listUtc;
+    }
+
+    /**
+     * Decodes the specified local time into the year, month and day of month fields.
+     * @param localTime a local time
+     * @return the time of day of the specified local time
+     */
+    private long decode(final long localTime) {
+        long localDay = floorDiv(localTime, Dates.MILLIS_PER_DAY);
+        setFields(localDay);
+        return localTime - localDay * Dates.MILLIS_PER_DAY;
+    }
+
+    /**
+     * @param offsets existing offsets, or null
+     * @param zone a timezone
+     * @return offsets for the specified timezone
+     */
+    private static ZoneOffsets getOffsets(final ZoneOffsets offsets, final java.util.TimeZone zone) {
+        if (offsets != null && offsets.isApplicable(zone)) {
+            return offsets;
+        }
+        return new ZoneOffsets(zone);
+    }
+
+    /**
+     * @param values an array of values
+     * @param min the minimum value
+     * @param max the maximum value
+     * @param negate indicates whether negated values are also in range
+     * @return true if all values are in range
+     */
+    private static boolean isInRange(final int[] values, final int min, final int max, final boolean negate) {
+        for (int i = 0; i < values.length; i++) {
+            int value = values[i];
+            if (negate && value < 0) {
+                value = -value;
+            }
+            if (value < min || value > max) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param year a year
+     * @param month a zero-based month (consistent with <code>java.util.Calendar</code>)
+     * @param day a day of the month, which may exceed the length of the month
+     * @return the number of days from the epoch of the specified date
+     */
+    static long getDays(final int year, final int month, final int day) {
+        // days from civil..
+        int y = year;
+        int m = month + 1;
+        if (m <= 2) {
+            y--;
+        }
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468 + day - 1;
+    }
+
+    /**
+     * Sets the year, zero-based month and day of the month fields to those of the specified date.
+     * @param days the number of days from the epoch
+     */
+    private void setFields(final long days) {
+        // civil from days..
+        long z = days + 719468;
+        long era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = (int) (z - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int m = mp < 10 ? mp + 3 : mp - 9;
+        int y = (int) (yearOfEra + era * 400);
+        if (m <= 2) {
+            y++;
+        }
+        year = y;
+        month = m - 1;
+        dayOfMonth = day;
+    }
+
+    /**
+     * @param year a year
+     * @param month a zero-based month
+     * @return the number of days in the specified month
+     */
+    static int getMonthLength(final int year, final int month) {
+        if (month == Calendar.FEBRUARY) {
+            boolean leap = (year % 4 == 0) && (year % 100 != 0 || year % 400 == 0);
+            return leap ? 29 : 28;
+        }
+        else if (month == Calendar.APRIL || month == Calendar.JUNE || month == Calendar.SEPTEMBER
+                || month == Calendar.NOVEMBER) {
+            return 30;
+        }
+        return 31;
+    }
+
+    /**
+     * @param days the number of days from the epoch
+     * @return the <code>java.util.Calendar</code> week day of the specified date
+     */
+    static int getDayOfWeek(final long days) {
+        // the epoch is a thursday..
+        return (int) floorMod(days + 4, Dates.DAYS_PER_WEEK) + Calendar.SUNDAY;
+    }
+
+    private static long floorDiv(final long value, final long divisor) {
+        long result = value / divisor;
+        if ((value % divisor) < 0) {
+            result--;
+        }
+        return result;
+    }
+
+    private static long floorMod(final long value, final long divisor) {
+        return value - floorDiv(value, divisor) * divisor;
+    }
+
+    /**
+     * Resolves offsets of a timezone, retaining a period over which the offset is known to be constant such that
+     * successive times in close proximity don't require offset lookups.
+     */
+    private static final class ZoneOffsets {
+
+        /**
+         * The minimum time either side of a resolved time over which the offset must be constant. This exceeds the
+         * largest change in offset of any timezone (one day).
+         */
+        private static final long MARGIN = 2 * Dates.MILLIS_PER_DAY;
+
+        /**
+         * Indicates a local time that occurs more than once.
+         */
+        private static final long AMBIGUOUS = Long.MAX_VALUE;
+
+        private final java.util.TimeZone zone;
+
+        private final String zoneId;
+
+        private final int rawOffset;
+
+        private final boolean fixed;
+
+        private boolean resolved;
+
+        private long start;
+
+        private long end;
+
+        private int offset;
+
+        /**
+         * @param zone a timezone
+         */
+        private ZoneOffsets(final java.util.TimeZone zone) {
+            this.zone = zone;
+            this.zoneId = zone.getID();
+            this.rawOffset = zone.getRawOffset();
+            this.fixed = TimeZones.isUtc(zone) && rawOffset == 0;
+        }
+
+        /**
+         * @param zone a timezone
+         * @return true if these offsets apply to the specified timezone
+         */
+        private boolean isApplicable(final java.util.TimeZone zone) {
+            if (zone instanceof net.fortuna.ical4j.model.TimeZone) {
+                return zone == this.zone;
+            }
+            return !(this.zone instanceof net.fortuna.ical4j.model.TimeZone)
+                    && zoneId.equals(zone.getID()) && rawOffset == zone.getRawOffset();
+        }
+
+        /**
+         * @param time an instant
+         * @return the offset of the timezone at the specified instant
+         */
+        private int getOffset(final long time) {
+            if (fixed) {
+                return 0;
+            }
+            else if (resolved && time >= start && time <= end) {
+                return offset;
+            }
+            return zone.getOffset(time);
+        }
+
+        /**
+         * @param localTime a local time
+         * @return the instant corresponding to the specified local time, or INVALID if the local time doesn't
+         * exist or is ambiguous
+         */
+        private long getTime(final long localTime) {
+            if (fixed) {
+                return localTime;
+            }
+            if (resolved) {
+                long time = localTime - offset;
+                if (time - MARGIN >= start && time + MARGIN <= end) {
+                    return time;
+                }
+            }
+            // identify all offsets applicable to the local time..
+            long probe = localTime - rawOffset;
+            long time = getTime(localTime, zone.getOffset(probe - Dates.MILLIS_PER_DAY), INVALID);
+            time = getTime(localTime, zone.getOffset(probe), time);
+            time = getTime(localTime, zone.getOffset(probe + Dates.MILLIS_PER_DAY), time);
+            if (time == AMBIGUOUS) {
+                return INVALID;
+            }
+            else if (time != INVALID) {
+                resolve(time, (int) (localTime - time));
+            }
+            return time;
+        }
+
+        /**
+         * @param localTime a local time
+         * @param probeOffset an offset of the timezone in proximity to the local time
+         * @param time the instant previously identified for the local time, or INVALID if none identified
+         * @return the instant identified for the local time, or AMBIGUOUS if more than one instant applies
+         */
+        private long getTime(final long localTime, final int probeOffset, final long time) {
+            long candidate = localTime - probeOffset;
+            if (time == AMBIGUOUS || candidate == time || zone.getOffset(candidate) != probeOffset) {
+                return time;
+            }
+            else if (time != INVALID) {
+                return AMBIGUOUS;
+            }
+            return candidate;
+        }
+
+        /**
+         * Extends the period of constant offset to include the specified time where possible.
+         * @param time an instant
+         * @param timeOffset the offset at the specified instant
+         */
+        private void resolve(final long time, final int timeOffset) {
+            long newStart = time - MARGIN;
+            long newEnd = time + MARGIN;
+            if (resolved && offset == timeOffset && newStart <= end && newEnd >= start) {
+                // extend the period beyond the required margin to avoid extending it for every successive time..
+                long extendedStart = Math.min(start, newStart - MARGIN);
+                long extendedEnd = Math.max(end, newEnd + MARGIN);
+                if (isConstant(extendedStart, start) && isConstant(end, extendedEnd)) {
+                    start = extendedStart;
+                    end = extendedEnd;
+                }
+                else if (isConstant(Math.min(start, newStart), start) && isConstant(end, Math.max(end, newEnd))) {
+                    start = Math.min(start, newStart);
+                    end = Math.max(end, newEnd);
+                }
+            }
+            else {
+                int previousOffset = offset;
+                offset = timeOffset;
+                if (isConstant(newStart, newEnd)) {
+                    start = newStart;
+                    end = newEnd;
+                    resolved = true;
+                }
+                else {
+                    offset = previousOffset;
+                }
+            }
+        }
+
+        /**
+         * Offsets are checked at intervals of no more than a day, on the basis that timezones don't transition and
+         * revert within a single day.
+         * @param from the start of a period
+         * @param to the end of a period
+         * @return true if the offset is constant over the specified period
+         */
+        private boolean isConstant(final long from, final long to) {
+            for (long time = from; time < to; time += Dates.MILLIS_PER_DAY) {
+                if (zone.getOffset(time) != offset) {
+                    return false;
+                }
+            }
+            return from == to || zone.getOffset(to) == offset;
+        }
+    }
+}
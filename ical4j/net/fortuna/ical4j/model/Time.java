@@ -63,7 +63,7 @@ public class Time extends Iso8601 {
      */
     public Time(final TimeZone timezone) {
         super(TimeZones.isUtc(timezone) ? UTC_PATTERN : DEFAULT_PATTERN, Dates.PRECISION_SECOND);
-        getFormat().setTimeZone(timezone);
+        setFormatTimeZone(timezone);
     }
 
     /**
@@ -72,7 +72,7 @@ public class Time extends Iso8601 {
      */
     public Time(final long time, final TimeZone timezone) {
         super(time, (TimeZones.isUtc(timezone) ? UTC_PATTERN : DEFAULT_PATTERN), Dates.PRECISION_SECOND);
-        getFormat().setTimeZone(timezone);
+        setFormatTimeZone(timezone);
     }
 
     /**
@@ -81,13 +81,13 @@ public class Time extends Iso8601 {
      */
     public Time(final java.util.Date time, final TimeZone timezone) {
         super(time.getTime(), (TimeZones.isUtc(timezone) ? UTC_PATTERN : DEFAULT_PATTERN), Dates.PRECISION_SECOND);
-        getFormat().setTimeZone(timezone);
+        setFormatTimeZone(timezone);
     }
 
     /**
      * @return Returns the utc.
      */
     public final boolean isUtc() {
-        return TimeZones.isUtc(getFormat().getTimeZone());
+        return getFormatTimeZone() != null && TimeZones.isUtc(getFormatTimeZone());
     }
 }
@@ -33,6 +33,7 @@
  */
 package net.fortuna.ical4j.model.component;
 
+import java.io.IOException;
 import java.util.Iterator;
 
 import net.fortuna.ical4j.model.ComponentList;
@@ -161,21 +162,19 @@ public class VTimeZone extends CalendarComponent {
     }
 
     /**
-     * @see java.lang.Object#toString()
+     * @see net.fortuna.ical4j.model.Component#appendTo(java.lang.Appendable)
      */
-    public final String toString() {
-        StringBuffer b = new StringBuffer();
-        b.append(BEGIN);
-        b.append(':');
-        b.append(getName());
-        b.append(Strings.LINE_SEPARATOR);
-        b.append(getProperties());
-        b.append(observances);
-        b.append(END);
-        b.append(':');
-        b.append(getName());
-        b.append(Strings.LINE_SEPARATOR);
-        return b.toString();
+    public final void appendTo(final Appendable out) throws IOException {
+        out.append(BEGIN);
+        out.append(':');
+        out.append(getName());
+        out.append(Strings.LINE_SEPARATOR);
+        getProperties().appendTo(out);
+        observances.appendTo(out);
+        out.append(END);
+        out.append(':');
+        out.append(getName());
+        out.append(Strings.LINE_SEPARATOR);
     }
 
     /*
@@ -38,6 +38,7 @@ package net.fortuna.ical4j.model.property;
 import java.net.URI;
 import java.net.URISyntaxException;
 
+import net.fortuna.ical4j.model.Deferrable;
 import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.ParameterList;
 import net.fortuna.ical4j.model.Property;
@@ -50,7 +51,7 @@ import net.fortuna.ical4j.util.Uris;
  * Defines an ATTENDEE iCalendar component property.
  * @author benf
  */
-public class Attendee extends Property {
+public class Attendee extends Property implements Deferrable {
 
     private static final long serialVersionUID = 8430929418723298803L;
 
@@ -105,6 +106,7 @@ public class Attendee extends Property {
      * @see net.fortuna.ical4j.model.Property#setValue(java.lang.String)
      */
     public void setValue(final String aValue) throws URISyntaxException {
+        discardValue();
         calAddress = Uris.create(aValue);
     }
 
@@ -150,6 +152,7 @@ public class Attendee extends Property {
      * @return Returns the calAddress.
      */
     public final URI getCalAddress() {
+        resolveValue();
         return calAddress;
     }
 
@@ -165,6 +168,7 @@ public class Attendee extends Property {
      * @param calAddress The calAddress to set.
      */
     public final void setCalAddress(final URI calAddress) {
+        discardValue();
         this.calAddress = calAddress;
     }
 }
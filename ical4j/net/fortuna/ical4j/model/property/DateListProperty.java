@@ -38,6 +38,7 @@ package net.fortuna.ical4j.model.property;
 import java.text.ParseException;
 
 import net.fortuna.ical4j.model.DateList;
+import net.fortuna.ical4j.model.Deferrable;
 import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.ParameterList;
 import net.fortuna.ical4j.model.Property;
@@ -50,7 +51,8 @@ import net.fortuna.ical4j.util.Strings;
  * Base class for properties with a list of dates as a value.
  * @author Ben Fortuna
  */
-public abstract class DateListProperty extends Property {
+public abstract class DateListProperty extends Property implements
+        Deferrable {
 
     private DateList dates;
 
@@ -95,6 +97,7 @@ public abstract class DateListProperty extends Property {
      * @return Returns the dates.
      */
     public final DateList getDates() {
+        resolveValue();
         return dates;
     }
 
@@ -103,6 +106,7 @@ public abstract class DateListProperty extends Property {
      * @see net.fortuna.ical4j.model.Property#setValue(java.lang.String)
      */
     public void setValue(final String aValue) throws ParseException {
+        discardValue();
         dates = new DateList(aValue, (Value) getParameter(Parameter.VALUE),
                 timezone);
     }
@@ -112,7 +116,7 @@ public abstract class DateListProperty extends Property {
      * @see net.fortuna.ical4j.model.Property#getValue()
      */
     public String getValue() {
-        return Strings.valueOf(dates);
+        return Strings.valueOf(getDates());
     }
 
     /**
@@ -120,6 +124,7 @@ public abstract class DateListProperty extends Property {
      * @param timezone a timezone to associate with this property
      */
     public void setTimeZone(final TimeZone timezone) {
+        resolveValue();
         if (dates == null) {
             throw new UnsupportedOperationException(
                     "TimeZone is not applicable to current value");
@@ -148,6 +153,7 @@ public abstract class DateListProperty extends Property {
      * @param utc
      */
     public final void setUtc(final boolean utc) {
+        resolveValue();
         if (dates == null || !Value.DATE_TIME.equals(dates.getType())) {
             throw new UnsupportedOperationException(
                     "TimeZone is not applicable to current value");
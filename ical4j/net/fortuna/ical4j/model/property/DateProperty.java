@@ -39,6 +39,7 @@ import java.text.ParseException;
 
 import net.fortuna.ical4j.model.Date;
 import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Deferrable;
 import net.fortuna.ical4j.model.Parameter;
 import net.fortuna.ical4j.model.ParameterList;
 import net.fortuna.ical4j.model.Property;
@@ -54,7 +55,7 @@ import net.fortuna.ical4j.util.Strings;
  * a DATE-TIME value, for which additional rules/validation should be specified.
  * @author Ben Fortuna
  */
-public abstract class DateProperty extends Property {
+public abstract class DateProperty extends Property implements Deferrable {
 
     private Date date;
 
@@ -89,6 +90,7 @@ public abstract class DateProperty extends Property {
      * @return Returns the date.
      */
     public final Date getDate() {
+        resolveValue();
         return date;
     }
 
@@ -97,6 +99,7 @@ public abstract class DateProperty extends Property {
      * @param date The date to set.
      */
     public final void setDate(final Date date) {
+        discardValue();
         if (date instanceof DateTime) {
             setTimeZone(((DateTime) date).getTimeZone());
         }
@@ -111,6 +114,7 @@ public abstract class DateProperty extends Property {
      * Default setValue() implementation. Allows for either DATE or DATE-TIME values.
      */
     public void setValue(final String value) throws ParseException {
+        discardValue();
         // value can be either a date-time or a date..
         if (Value.DATE.equals(getParameter(Parameter.VALUE))) {
             // ensure timezone is null for VALUE=DATE properties..
@@ -138,6 +142,8 @@ public abstract class DateProperty extends Property {
      * @param vTimeZone
      */
     public final void setTimeZone(final TimeZone timezone) {
+        // a deferred value is parsed in the current timezone..
+        resolveValue();
         this.timezone = timezone;
         if (timezone != null) {
             if (getDate() != null && !(getDate() instanceof DateTime)) {
@@ -164,6 +170,7 @@ public abstract class DateProperty extends Property {
      * @param utc
      */
     public final void setUtc(final boolean utc) {
+        resolveValue();
         if (getDate() != null && !(getDate() instanceof DateTime)) {
             throw new UnsupportedOperationException(
                     "UTC time is not applicable to current value");
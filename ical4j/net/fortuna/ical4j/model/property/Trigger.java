@@ -244,6 +244,7 @@ public class Trigger extends UtcProperty {
      * @return Returns the duration.
      */
     public final Dur getDuration() {
+        resolveValue();
         return duration;
     }
 
@@ -267,8 +268,8 @@ public class Trigger extends UtcProperty {
      * @see net.fortuna.ical4j.model.Property#getValue()
      */
     public final String getValue() {
-        if (duration != null) {
-            return duration.toString();
+        if (getDuration() != null) {
+            return getDuration().toString();
         }
         return super.getValue();
     }
@@ -37,12 +37,18 @@ package net.fortuna.ical4j.util;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 
 import net.fortuna.ical4j.data.CalendarBuilder;
 import net.fortuna.ical4j.data.ParserException;
 import net.fortuna.ical4j.model.Calendar;
 import net.fortuna.ical4j.model.Component;
+import net.fortuna.ical4j.model.ComponentKey;
+import net.fortuna.ical4j.model.ComponentList;
 import net.fortuna.ical4j.model.Property;
 
 /**
@@ -82,20 +88,83 @@ public final class Calendars {
      */
     public static Calendar merge(final Calendar c1, final Calendar c2) {
         Calendar result = new Calendar();
-        result.getProperties().addAll(c1.getProperties());
-        for (Iterator i = c2.getProperties().iterator(); i.hasNext();) {
-            Property p = (Property) i.next();
-            if (!result.getProperties().contains(p)) {
-                result.getProperties().add(p);
-            }
-        }
+        mergeProperties(c1, c2, result);
         result.getComponents().addAll(c1.getComponents());
+        Set components = new HashSet(c1.getComponents());
         for (Iterator i = c2.getComponents().iterator(); i.hasNext();) {
             Component c = (Component) i.next();
-            if (!result.getComponents().contains(c)) {
+            if (components.add(c)) {
                 result.getComponents().add(c);
             }
         }
         return result;
     }
+
+    /**
+     * Merge all properties and components from two specified calendars into one instance, where revisions of the
+     * same component (as identified by a {@link ComponentKey}) are resolved according to the specified policy. The
+     * selected revision takes the position of the component in the first calendar. Components without a unique
+     * identifier are merged as per {@link #merge(Calendar, Calendar)}.
+     * @param c1 the first calendar to merge
+     * @param c2 the second calendar to merge
+     * @param policy determines which revision of a component is retained
+     * @return a Calendar instance containing all properties and the selected components from both of the specified
+     * calendars
+     */
+    public static Calendar merge(final Calendar c1, final Calendar c2, final MergePolicy policy) {
+        Calendar result = new Calendar();
+        mergeProperties(c1, c2, result);
+        ComponentList components = result.getComponents();
+        Map index = new HashMap();
+        Set unkeyed = new HashSet();
+        for (Iterator i = c1.getComponents().iterator(); i.hasNext();) {
+            Component c = (Component) i.next();
+            ComponentKey key = ComponentKey.getInstance(c);
+            if (key == null || index.containsKey(key)) {
+                unkeyed.add(c);
+            }
+            else {
+                index.put(key, Integer.valueOf(components.size()));
+            }
+            components.add(c);
+        }
+        for (Iterator i = c2.getComponents().iterator(); i.hasNext();) {
+            Component c = (Component) i.next();
+            ComponentKey key = ComponentKey.getInstance(c);
+            Integer position = null;
+            if (key != null) {
+                position = (Integer) index.get(key);
+            }
+            if (position != null) {
+                Component selected = policy.select((Component) components.get(position.intValue()), c);
+                components.set(position.intValue(), selected);
+            }
+            else if (key != null) {
+                index.put(key, Integer.valueOf(components.size()));
+                components.add(c);
+            }
+            else if (unkeyed.add(c)) {
+                components.add(c);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds all properties of the specified calendars to the specified result, omitting properties of the second
+     * calendar that are already present.
+     * @param c1 the first calendar to merge
+     * @param c2 the second calendar to merge
+     * @param result the calendar to add properties to
+     */
+    private static void mergeProperties(final Calendar c1, final Calendar c2, final Calendar result) {
+        result.getProperties().addAll(c1.getProperties());
+        Set properties = new HashSet(c1.getProperties());
+        for (Iterator i = c2.getProperties().iterator(); i.hasNext();) {
+            Property p = (Property) i.next();
+            if (properties.add(p)) {
+                result.getProperties().add(p);
+            }
+        }
+    }
 }
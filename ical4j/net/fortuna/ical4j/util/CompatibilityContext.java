@@ -0,0 +1,223 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.util;
+
+import java.io.Serializable;
+
+/**
+ * An immutable set of compatibility hints, resolved once such that hints may be checked without lookups of shared
+ * state. A context may be specified for a {@link net.fortuna.ical4j.data.CalendarBuilder}, or otherwise is resolved
+ * from {@link CompatibilityHints} at the start of each build. The context of a build is made current for the building
+ * thread, such that {@link CompatibilityHints#isHintEnabled(String)} reflects the context for the duration of the
+ * build.
+ * @author Ben Fortuna
+ */
+public final class CompatibilityContext implements Serializable {
+
+    private static final long serialVersionUID = 4329862170426337186L;
+
+    private static final ThreadLocal CURRENT = new ThreadLocal();
+
+    private final boolean relaxedUnfolding;
+
+    private final boolean relaxedParsing;
+
+    private final boolean relaxedValidation;
+
+    private final boolean outlookCompatibility;
+
+    private final boolean notesCompatibility;
+
+    /**
+     * Constructs a new context from the hints currently enabled, as determined by
+     * {@link CompatibilityHints#isHintEnabled(String)}.
+     */
+    public CompatibilityContext() {
+        this(CompatibilityHints.isHintEnabled(CompatibilityHints.KEY_RELAXED_UNFOLDING),
+                CompatibilityHints.isHintEnabled(CompatibilityHints.KEY_RELAXED_PARSING),
+                CompatibilityHints.isHintEnabled(CompatibilityHints.KEY_RELAXED_VALIDATION),
+                CompatibilityHints.isHintEnabled(CompatibilityHints.KEY_OUTLOOK_COMPATIBILITY),
+                CompatibilityHints.isHintEnabled(CompatibilityHints.KEY_NOTES_COMPATIBILITY));
+    }
+
+    /**
+     * @param relaxedUnfolding
+     * @param relaxedParsing
+     * @param relaxedValidation
+     * @param outlookCompatibility
+     * @param notesCompatibility
+     */
+    private CompatibilityContext(final boolean relaxedUnfolding, final boolean relaxedParsing,
+            final boolean relaxedValidation, final boolean outlookCompatibility, final boolean notesCompatibility) {
+        this.relaxedUnfolding = relaxedUnfolding;
+        this.relaxedParsing = relaxedParsing;
+        this.relaxedValidation = relaxedValidation;
+        this.outlookCompatibility = outlookCompatibility;
+        this.notesCompatibility = notesCompatibility;
+    }
+
+    /**
+     * Returns a context equivalent to this context, but with the specified hint enabled or disabled.
+     * @param key a hint key as defined by {@link CompatibilityHints}
+     * @param enabled specifies whether the hint is enabled
+     * @return a new context
+     * @throws IllegalArgumentException where the specified key is not a recognised hint
+     */
+    public CompatibilityContext withHint(final String key, final boolean enabled) {
+        if (CompatibilityHints.KEY_RELAXED_UNFOLDING.equals(key)) {
+            return new CompatibilityContext(enabled, relaxedParsing, relaxedValidation, outlookCompatibility,
+                    notesCompatibility);
+        }
+        else if (CompatibilityHints.KEY_RELAXED_PARSING.equals(key)) {
+            return new CompatibilityContext(relaxedUnfolding, enabled, relaxedValidation, outlookCompatibility,
+                    notesCompatibility);
+        }
+        else if (CompatibilityHints.KEY_RELAXED_VALIDATION.equals(key)) {
+            return new CompatibilityContext(relaxedUnfolding, relaxedParsing, enabled, outlookCompatibility,
+                    notesCompatibility);
+        }
+        else if (CompatibilityHints.KEY_OUTLOOK_COMPATIBILITY.equals(key)) {
+            return new CompatibilityContext(relaxedUnfolding, relaxedParsing, relaxedValidation, enabled,
+                    notesCompatibility);
+        }
+        else if (CompatibilityHints.KEY_NOTES_COMPATIBILITY.equals(key)) {
+            return new CompatibilityContext(relaxedUnfolding, relaxedParsing, relaxedValidation,
+                    outlookCompatibility, enabled);
+        }
+        throw new IllegalArgumentException("Unrecognised hint [" + key + "]");
+    }
+
+    /**
+     * @param key a hint key
+     * @return true if the specified hint is enabled in this context. Hints not recognised by this context are
+     * resolved as per {@link CompatibilityHints}
+     */
+    public boolean isHintEnabled(final String key) {
+        if (CompatibilityHints.KEY_RELAXED_UNFOLDING.equals(key)) {
+            return relaxedUnfolding;
+        }
+        else if (CompatibilityHints.KEY_RELAXED_PARSING.equals(key)) {
+            return relaxedParsing;
+        }
+        else if (CompatibilityHints.KEY_RELAXED_VALIDATION.equals(key)) {
+            return relaxedValidation;
+        }
+        else if (CompatibilityHints.KEY_OUTLOOK_COMPATIBILITY.equals(key)) {
+            return outlookCompatibility;
+        }
+        else if (CompatibilityHints.KEY_NOTES_COMPATIBILITY.equals(key)) {
+            return notesCompatibility;
+        }
+        return CompatibilityHints.isGlobalHintEnabled(key);
+    }
+
+    /**
+     * @return true if relaxed unfolding is enabled
+     */
+    public boolean isRelaxedUnfolding() {
+        return relaxedUnfolding;
+    }
+
+    /**
+     * @return true if relaxed parsing is enabled
+     */
+    public boolean isRelaxedParsing() {
+        return relaxedParsing;
+    }
+
+    /**
+     * @return true if relaxed validation is enabled
+     */
+    public boolean isRelaxedValidation() {
+        return relaxedValidation;
+    }
+
+    /**
+     * @return true if compatibility with Outlook/Exchange-generated iCalendar data is enabled
+     */
+    public boolean isOutlookCompatibility() {
+        return outlookCompatibility;
+    }
+
+    /**
+     * @return true if compatibility with Lotus Notes-generated iCalendar data is enabled
+     */
+    public boolean isNotesCompatibility() {
+        return notesCompatibility;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    public boolean equals(final Object arg0) {
+        if (arg0 instanceof CompatibilityContext) {
+            CompatibilityContext context = (CompatibilityContext) arg0;
+            return relaxedUnfolding == context.relaxedUnfolding
+                    && relaxedParsing == context.relaxedParsing
+                    && relaxedValidation == context.relaxedValidation
+                    && outlookCompatibility == context.outlookCompatibility
+                    && notesCompatibility == context.notesCompatibility;
+        }
+        return super.equals(arg0);
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see java.lang.Object#hashCode()
+     */
+    public int hashCode() {
+        int hash = relaxedUnfolding ? 1 : 0;
+        hash = 2 * hash + (relaxedParsing ? 1 : 0);
+        hash = 2 * hash + (relaxedValidation ? 1 : 0);
+        hash = 2 * hash + (outlookCompatibility ? 1 : 0);
+        return 2 * hash + (notesCompatibility ? 1 : 0);
+    }
+
+    /**
+     * @return the context current for the calling thread, or null if no context is current
+     */
+    public static CompatibilityContext getCurrent() {
+        return (CompatibilityContext) CURRENT.get();
+    }
+
+    /**
+     * Makes the specified context current for the calling thread. Callers should restore the previously current
+     * context when complete.
+     * @param context a context, or null to resolve hints as per {@link CompatibilityHints}
+     */
+    public static void setCurrent(final CompatibilityContext context) {
+        CURRENT.set(context);
+    }
+}
@@ -33,6 +33,7 @@
  */
 package net.fortuna.ical4j.util;
 
+import java.io.IOException;
 import java.util.regex.Pattern;
 
 /**
@@ -104,34 +105,6 @@ import java.util.regex.Pattern;
  */
 public final class Strings {
 
-//    private static final Pattern CHECK_ESCAPE = Pattern.compile("[,;\"\n\\\\]");
-    private static final Pattern CHECK_ESCAPE = Pattern.compile("[,;\n\\\\]");
-
-    private static final Pattern CHECK_UNESCAPE = Pattern.compile("\\\\");
-
-//    private static final Pattern ESCAPE_PATTERN_1 =
-//        Pattern.compile("([,;\"])");
-    private static final Pattern ESCAPE_PATTERN_1 =
-        Pattern.compile("([,;])");
-
-    private static final Pattern ESCAPE_PATTERN_2 =
-        Pattern.compile("\r?\n");
-
-    private static final Pattern ESCAPE_PATTERN_3 =
-        Pattern.compile("\\\\");
-
-    // include escaped quotes for backwards compatibility..
-    private static final Pattern UNESCAPE_PATTERN_1 =
-        Pattern.compile("\\\\([,;\"])");
-//    private static final Pattern UNESCAPE_PATTERN_1 =
-//        Pattern.compile("\\\\([,;])");
-
-    private static final Pattern UNESCAPE_PATTERN_2 =
-        Pattern.compile("\\\\n", Pattern.CASE_INSENSITIVE);
-
-    private static final Pattern UNESCAPE_PATTERN_3 =
-        Pattern.compile("\\\\\\\\");
-
     /**
      * Defines a regular expression representing all parameter strings that
      * should be quoted.
@@ -182,54 +155,129 @@ public final class Strings {
      * Convenience method for escaping special characters.
      * @param aValue a string value to escape
      * @return an escaped representation of the specified
-     * string
+     * string, or the specified string where no characters
+     * require escaping
      */
     public static String escape(final String aValue) {
-        if (aValue != null && CHECK_ESCAPE.matcher(aValue).find()) {
-            return ESCAPE_PATTERN_1.matcher(
-                    ESCAPE_PATTERN_2.matcher(
-                            ESCAPE_PATTERN_3.matcher(aValue).replaceAll("\\\\\\\\"))
-                        .replaceAll("\\\\n"))
-                .replaceAll("\\\\$1");
-/*
-            return aValue.replaceAll("\\\\", "\\\\\\\\")
-                            .replaceAll(";", "\\\\;")
-                            .replaceAll(",", "\\\\,")
-                            .replaceAll("\n", "\\\\n")
-                            .replaceAll("\"", "\\\\\"");
-*/
+        if (aValue != null && indexOfEscape(aValue) >= 0) {
+            StringBuffer b = new StringBuffer(aValue.length() + 16);
+            try {
+                escape(aValue, b);
+            }
+            catch (IOException ioe) {
+                // not thrown when appending to a string buffer..
+            }
+            return b.toString();
         }
 
         return aValue;
     }
 
+    /**
+     * Appends an escaped representation of the specified string
+     * to the specified output. Special characters are escaped in
+     * a single pass, with unescaped characters appended in runs.
+     * @param aValue a string value to escape
+     * @param out the output to append to
+     * @throws IOException where an error occurs appending to
+     * the output
+     */
+    public static void escape(final String aValue, final Appendable out)
+            throws IOException {
+
+        int length = aValue.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            char c = aValue.charAt(i);
+            if (c == '\\' || c == ',' || c == ';') {
+                out.append(aValue, start, i).append('\\').append(c);
+                start = i + 1;
+            }
+            else if (c == '\n' || (c == '\r' && i + 1 < length
+                    && aValue.charAt(i + 1) == '\n')) {
+                out.append(aValue, start, i).append("\\n");
+                if (c == '\r') {
+                    // CRLF is escaped as a single line break..
+                    i++;
+                }
+                start = i + 1;
+            }
+        }
+        out.append(aValue, start, length);
+    }
+
+    /**
+     * @param aValue a string value
+     * @return the index of the first character requiring escaping,
+     * or -1 if no characters require escaping
+     */
+    private static int indexOfEscape(final String aValue) {
+        for (int i = 0; i < aValue.length(); i++) {
+            char c = aValue.charAt(i);
+            if (c == '\\' || c == ',' || c == ';' || c == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     /**
      * Convenience method for replacing escaped special characters
      * with their original form.
      * @param aValue a string value to unescape
      * @return a string representation of the specified
      * string with escaped characters replaced with their
-     * original form
+     * original form, or the specified string where no
+     * characters are escaped
      */
     public static String unescape(final String aValue) {
-        if (aValue != null && CHECK_UNESCAPE.matcher(aValue).find()) {
-            return UNESCAPE_PATTERN_3.matcher(
-                    UNESCAPE_PATTERN_2.matcher(
-                            UNESCAPE_PATTERN_1.matcher(aValue).replaceAll("$1"))
-                        .replaceAll("\n"))
-                .replaceAll("\\\\");
-/*
-            return aValue.replaceAll("\\\\\"", "\"")
-                            .replaceAll("\\\\N", "\n")
-                            .replaceAll("\\\\n", "\n")
-                            .replaceAll("\\\\,", ",")
-                            .replaceAll("\\\\;", ";")
-                            .replaceAll("\\\\\\\\", "\\\\");
-*/
+        if (aValue != null && aValue.indexOf('\\') >= 0) {
+            StringBuffer b = new StringBuffer(aValue.length());
+            try {
+                unescape(aValue, b);
+            }
+            catch (IOException ioe) {
+                // not thrown when appending to a string buffer..
+            }
+            return b.toString();
         }
 
         return aValue;
     }
+
+    /**
+     * Appends the specified string to the specified output with
+     * escaped special characters replaced with their original form.
+     * Escaped quotes are also replaced for backwards compatibility,
+     * and a backslash preceding any other character is retained.
+     * @param aValue a string value to unescape
+     * @param out the output to append to
+     * @throws IOException where an error occurs appending to
+     * the output
+     */
+    public static void unescape(final String aValue, final Appendable out)
+            throws IOException {
+
+        int length = aValue.length();
+        int start = 0;
+        int i = aValue.indexOf('\\');
+        while (i >= 0 && i + 1 < length) {
+            char c = aValue.charAt(i + 1);
+            if (c == 'n' || c == 'N') {
+                out.append(aValue, start, i).append('\n');
+            }
+            else if (c == ',' || c == ';' || c == '"' || c == '\\') {
+                out.append(aValue, start, i).append(c);
+            }
+            else {
+                i = aValue.indexOf('\\', i + 1);
+                continue;
+            }
+            start = i + 2;
+            i = aValue.indexOf('\\', start);
+        }
+        out.append(aValue, start, length);
+    }
     
     /**
      * Wraps <code>java.lang.String.valueOf()</code> to return an empty string
@@ -0,0 +1,99 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.data;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link ContentLineParser}.
+ * @author Ben Fortuna
+ */
+public class ContentLineParserTest extends TestCase {
+
+    /**
+     * An invalid property name on a folded line, followed by a further fold of the same line.
+     */
+    private static final String FOLDED_ERROR = "BEGIN:VCALENDAR\r\n"
+            + "VERSION:2.0\r\n"
+            + "PRODID:-//Ben Fortuna//iCal4j 1.0//EN\r\n"
+            + "BEGIN:VEVENT\r\n"
+            + "SUMMARY:abc\r\n"
+            + "\r\n"
+            + "\r\n"
+            + " a\tb c\r\n"
+            + " d\r\n"
+            + "END:VEVENT\r\n"
+            + "END:VCALENDAR\r\n";
+
+    /**
+     * Errors are reported on the line of the failing token, and not following unfolded lines read ahead of the
+     * token.
+     */
+    public void testFoldedErrorLineNo() throws Exception {
+        assertEquals(8, getErrorLineNo(new CalendarParserImpl(), FOLDED_ERROR));
+        assertEquals(8, getErrorLineNo(new ContentLineParser(), FOLDED_ERROR));
+    }
+
+    /**
+     * Errors in data parsed from a byte buffer are reported on the same line as for a reader.
+     */
+    public void testFoldedErrorLineNoByteBuffer() throws Exception {
+        try {
+            new CalendarBuilder().build(ByteBuffer.wrap(FOLDED_ERROR.getBytes("UTF-8")));
+            fail("ParserException not thrown");
+        }
+        catch (ParserException pe) {
+            assertEquals(8, pe.getLineNo());
+        }
+    }
+
+    /**
+     * @param parser a calendar parser
+     * @param data invalid calendar data
+     * @return the line number of the parser error
+     */
+    private int getErrorLineNo(final CalendarParser parser, final String data) throws Exception {
+        try {
+            new CalendarBuilder(parser).build(new StringReader(data));
+            fail("ParserException not thrown");
+        }
+        catch (ParserException pe) {
+            return pe.getLineNo();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.data;
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+import net.fortuna.ical4j.model.Calendar;
+
+/**
+ * Unit tests for {@link ParallelCalendarBuilder}.
+ * @author Ben Fortuna
+ */
+public class ParallelCalendarBuilderTest extends TestCase {
+
+    private static final String CALENDAR_START = "BEGIN:VCALENDAR\r\n"
+            + "VERSION:2.0\r\n"
+            + "PRODID:-//Ben Fortuna//iCal4j 1.0//EN\r\n";
+
+    private static final String EVENT = "BEGIN:VEVENT\r\n"
+            + "UID:1\r\n"
+            + "DTSTAMP:20070101T000000Z\r\n"
+            + "SUMMARY:A folded\r\n"
+            + "  summary\r\n"
+            + "END:VEVENT\r\n";
+
+    private static final String CALENDAR_END = "END:VCALENDAR\r\n";
+
+    /**
+     * Components are parsed as per {@link CalendarBuilder}.
+     */
+    public void testBuild() throws Exception {
+        String data = CALENDAR_START + EVENT + EVENT + CALENDAR_END;
+        Calendar calendar = new ParallelCalendarBuilder().build(new StringReader(data));
+        assertEquals(new CalendarBuilder().build(new StringReader(data)), calendar);
+        assertEquals(2, calendar.getComponents().size());
+    }
+
+    /**
+     * A component without an end line is reported as per {@link CalendarBuilder}.
+     */
+    public void testMissingEnd() throws Exception {
+        String data = CALENDAR_START + EVENT + "BEGIN:VEVENT\r\nUID:2\r\n" + CALENDAR_END;
+        assertError(data);
+    }
+
+    /**
+     * A calendar without an end line is reported as per {@link CalendarBuilder}.
+     */
+    public void testMissingCalendarEnd() throws Exception {
+        assertError(CALENDAR_START + EVENT + EVENT);
+    }
+
+    /**
+     * Errors following folded lines in other components are reported as per {@link CalendarBuilder}.
+     */
+    public void testFoldedErrorLineNo() throws Exception {
+        assertError(CALENDAR_START + EVENT + EVENT + "BEGIN:VEVENT\r\nSUMMARY;:\r\n b\r\nEND:VEVENT\r\n"
+                + CALENDAR_END);
+    }
+
+    /**
+     * Calendar properties following components are parsed as per {@link CalendarBuilder}.
+     */
+    public void testPropertyAfterComponents() throws Exception {
+        String data = CALENDAR_START + EVENT + "CALSCALE:GREGORIAN\r\n" + EVENT + CALENDAR_END;
+        Calendar calendar = new ParallelCalendarBuilder().build(new StringReader(data));
+        assertEquals(new CalendarBuilder().build(new StringReader(data)), calendar);
+        assertNotNull(calendar.getCalendarScale());
+    }
+
+    /**
+     * @param data invalid calendar data
+     */
+    private void assertError(final String data) throws Exception {
+        ParserException expected = null;
+        try {
+            new CalendarBuilder().build(new StringReader(data));
+        }
+        catch (ParserException pe) {
+            expected = pe;
+        }
+        assertNotNull(expected);
+        try {
+            new ParallelCalendarBuilder().build(new StringReader(data));
+            fail("ParserException not thrown");
+        }
+        catch (ParserException pe) {
+            assertEquals(expected.getMessage(), pe.getMessage());
+            assertEquals(expected.getLineNo(), pe.getLineNo());
+        }
+    }
+}
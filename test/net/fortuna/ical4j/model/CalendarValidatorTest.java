@@ -0,0 +1,115 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model;
+
+import java.io.StringReader;
+
+import junit.framework.TestCase;
+import net.fortuna.ical4j.data.CalendarBuilder;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.component.VTimeZone;
+
+/**
+ * Unit tests for {@link CalendarValidator}.
+ * @author Ben Fortuna
+ */
+public class CalendarValidatorTest extends TestCase {
+
+    private static final String CALENDAR = "BEGIN:VCALENDAR\r\n"
+            + "VERSION:2.0\r\n"
+            + "PRODID:-//Ben Fortuna//iCal4j 1.0//EN\r\n"
+            + "BEGIN:VTIMEZONE\r\n"
+            + "TZID:Test\r\n"
+            + "BEGIN:STANDARD\r\n"
+            + "DTSTART:19700101T000000\r\n"
+            + "TZOFFSETFROM:+0000\r\n"
+            + "TZOFFSETTO:+0000\r\n"
+            + "END:STANDARD\r\n"
+            + "END:VTIMEZONE\r\n"
+            + "BEGIN:VEVENT\r\n"
+            + "UID:1\r\n"
+            + "DTSTAMP:20070101T000000Z\r\n"
+            + "DTSTART:20070101T090000Z\r\n"
+            + "BEGIN:VALARM\r\n"
+            + "ACTION:DISPLAY\r\n"
+            + "TRIGGER:-PT15M\r\n"
+            + "DESCRIPTION:Reminder\r\n"
+            + "END:VALARM\r\n"
+            + "END:VEVENT\r\n"
+            + "END:VCALENDAR\r\n";
+
+    private Calendar calendar;
+
+    private CalendarValidator validator;
+
+    /*
+     * (non-Javadoc)
+     * @see junit.framework.TestCase#setUp()
+     */
+    protected void setUp() throws Exception {
+        calendar = new CalendarBuilder().build(new StringReader(CALENDAR));
+        validator = new CalendarValidator();
+        validator.setIncremental(true);
+        validator.validate(calendar);
+    }
+
+    /**
+     * Adding a component other than an alarm to the alarms of an event causes the event to be validated again.
+     */
+    public void testAlarmAdded() {
+        ((VEvent) calendar.getComponent(Component.VEVENT)).getAlarms().add(new VEvent());
+        assertInvalid();
+    }
+
+    /**
+     * Removing the observances of a timezone causes the timezone to be validated again.
+     */
+    public void testObservancesRemoved() {
+        ((VTimeZone) calendar.getComponent(Component.VTIMEZONE)).getObservances().clear();
+        assertInvalid();
+    }
+
+    /**
+     * Asserts that incremental validation of the calendar fails.
+     */
+    private void assertInvalid() {
+        try {
+            validator.validate(calendar);
+            fail("ValidationException not thrown");
+        }
+        catch (ValidationException ve) {
+            // expected..
+        }
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model;
+
+import java.text.ParseException;
+import java.util.Collections;
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+import net.fortuna.ical4j.model.parameter.Value;
+
+/**
+ * Unit tests for {@link CompiledRecur}. Expected dates were generated by the uncompiled implementation of
+ * {@link Recur#getDates(Date, Date, Date, Value)} that preceded {@link CompiledRecur}, such that these cases verify
+ * compiled expansion conforms to it (including the duplicate dates it produces for a daily recur with BYMONTH).
+ * @author Ben Fortuna
+ */
+public class CompiledRecurTest extends TestCase {
+
+    /**
+     * Recurrence rule, seed, period start, period end and expected dates in the period.
+     */
+    private static final String[][] CASES = {
+        {"FREQ=DAILY;COUNT=10", "19970902T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970903T090000Z,19970904T090000Z,19970905T090000Z," +
+            "19970906T090000Z,19970907T090000Z,19970908T090000Z,19970909T090000Z," +
+            "19970910T090000Z,19970911T090000Z"},
+        {"FREQ=DAILY;UNTIL=19971224T000000Z", "19970902T090000Z", "19971201T000000Z", "19980101T000000Z",
+            "19971201T090000Z,19971202T090000Z,19971203T090000Z,19971204T090000Z," +
+            "19971205T090000Z,19971206T090000Z,19971207T090000Z,19971208T090000Z," +
+            "19971209T090000Z,19971210T090000Z,19971211T090000Z,19971212T090000Z," +
+            "19971213T090000Z,19971214T090000Z,19971215T090000Z,19971216T090000Z," +
+            "19971217T090000Z,19971218T090000Z,19971219T090000Z,19971220T090000Z," +
+            "19971221T090000Z,19971222T090000Z,19971223T090000Z"},
+        {"FREQ=DAILY;INTERVAL=2", "19970902T090000Z", "19970901T000000Z", "19971015T000000Z",
+            "19970902T090000Z,19970904T090000Z,19970906T090000Z,19970908T090000Z," +
+            "19970910T090000Z,19970912T090000Z,19970914T090000Z,19970916T090000Z," +
+            "19970918T090000Z,19970920T090000Z,19970922T090000Z,19970924T090000Z," +
+            "19970926T090000Z,19970928T090000Z,19970930T090000Z,19971002T090000Z," +
+            "19971004T090000Z,19971006T090000Z,19971008T090000Z,19971010T090000Z," +
+            "19971012T090000Z,19971014T090000Z"},
+        {"FREQ=DAILY;INTERVAL=10;COUNT=5", "19970902T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970912T090000Z,19970922T090000Z,19971002T090000Z," +
+            "19971012T090000Z"},
+        {"FREQ=YEARLY;UNTIL=20000131T090000Z;BYMONTH=1;BYDAY=SU,MO,TU,WE,TH,FR,SA", "19980101T090000Z", "19990125T000000Z", "19990205T000000Z",
+            "19990125T090000Z,19990126T090000Z,19990127T090000Z,19990128T090000Z," +
+            "19990129T090000Z,19990130T090000Z,19990131T090000Z"},
+        {"FREQ=DAILY;UNTIL=20000131T090000Z;BYMONTH=1", "19980101T090000Z", "20000125T000000Z", "20010101T000000Z",
+            "20000125T090000Z,20000125T090000Z,20000125T090000Z,20000125T090000Z," +
+            "20000125T090000Z,20000125T090000Z,20000125T090000Z,20000125T090000Z," +
+            "20000125T090000Z,20000125T090000Z,20000125T090000Z,20000125T090000Z," +
+            "20000126T090000Z,20000126T090000Z,20000126T090000Z,20000126T090000Z," +
+            "20000126T090000Z,20000126T090000Z,20000126T090000Z,20000126T090000Z," +
+            "20000126T090000Z,20000126T090000Z,20000126T090000Z,20000126T090000Z," +
+            "20000127T090000Z,20000127T090000Z,20000127T090000Z,20000127T090000Z," +
+            "20000127T090000Z,20000127T090000Z,20000127T090000Z,20000127T090000Z," +
+            "20000127T090000Z,20000127T090000Z,20000127T090000Z,20000127T090000Z," +
+            "20000128T090000Z,20000128T090000Z,20000128T090000Z,20000128T090000Z," +
+            "20000128T090000Z,20000128T090000Z,20000128T090000Z,20000128T090000Z," +
+            "20000128T090000Z,20000128T090000Z,20000128T090000Z,20000128T090000Z," +
+            "20000129T090000Z,20000129T090000Z,20000129T090000Z,20000129T090000Z," +
+            "20000129T090000Z,20000129T090000Z,20000129T090000Z,20000129T090000Z," +
+            "20000129T090000Z,20000129T090000Z,20000129T090000Z,20000129T090000Z," +
+            "20000130T090000Z,20000130T090000Z,20000130T090000Z,20000130T090000Z," +
+            "20000130T090000Z,20000130T090000Z,20000130T090000Z,20000130T090000Z," +
+            "20000130T090000Z,20000130T090000Z,20000130T090000Z,20000131T090000Z," +
+            "20000131T090000Z,20000131T090000Z,20000131T090000Z,20000131T090000Z," +
+            "20000131T090000Z,20000131T090000Z"},
+        {"FREQ=WEEKLY;COUNT=10", "19970902T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970909T090000Z,19970916T090000Z,19970923T090000Z," +
+            "19970930T090000Z,19971007T090000Z,19971014T090000Z,19971021T090000Z," +
+            "19971028T090000Z,19971104T090000Z"},
+        {"FREQ=WEEKLY;UNTIL=19971224T000000Z", "19970902T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970909T090000Z,19970916T090000Z,19970923T090000Z," +
+            "19970930T090000Z,19971007T090000Z,19971014T090000Z,19971021T090000Z," +
+            "19971028T090000Z,19971104T090000Z,19971111T090000Z,19971118T090000Z," +
+            "19971125T090000Z,19971202T090000Z,19971209T090000Z,19971216T090000Z," +
+            "19971223T090000Z"},
+        {"FREQ=WEEKLY;INTERVAL=2;WKST=SU", "19970902T090000Z", "19970901T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970916T090000Z,19970930T090000Z,19971014T090000Z," +
+            "19971028T090000Z,19971111T090000Z,19971125T090000Z,19971209T090000Z," +
+            "19971223T090000Z"},
+        {"FREQ=WEEKLY;UNTIL=19971007T000000Z;WKST=SU;BYDAY=TU,TH", "19970902T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970904T090000Z,19970909T090000Z,19970911T090000Z," +
+            "19970916T090000Z,19970918T090000Z,19970923T090000Z,19970925T090000Z," +
+            "19970930T090000Z,19971002T090000Z"},
+        {"FREQ=WEEKLY;INTERVAL=2;UNTIL=19971224T000000Z;WKST=SU;BYDAY=MO,WE,FR", "19970901T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970901T090000Z,19970903T090000Z,19970905T090000Z,19970915T090000Z," +
+            "19970917T090000Z,19970919T090000Z,19970929T090000Z,19971001T090000Z," +
+            "19971003T090000Z,19971013T090000Z,19971015T090000Z,19971017T090000Z," +
+            "19971027T090000Z,19971029T090000Z,19971031T090000Z,19971110T090000Z," +
+            "19971112T090000Z,19971114T090000Z,19971124T090000Z,19971126T090000Z," +
+            "19971128T090000Z,19971208T090000Z,19971210T090000Z,19971212T090000Z," +
+            "19971222T090000Z"},
+        {"FREQ=WEEKLY;INTERVAL=2;COUNT=8;WKST=SU;BYDAY=TU,TH", "19970902T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970904T090000Z,19970916T090000Z,19970918T090000Z," +
+            "19970930T090000Z,19971002T090000Z,19971014T090000Z,19971016T090000Z"},
+        {"FREQ=MONTHLY;COUNT=10;BYDAY=1FR", "19970905T090000Z", "19970101T000000Z", "19990101T000000Z",
+            "19970905T090000Z,19971003T090000Z,19971107T090000Z,19971205T090000Z," +
+            "19980102T090000Z,19980206T090000Z,19980306T090000Z,19980403T090000Z," +
+            "19980501T090000Z,19980605T090000Z"},
+        {"FREQ=MONTHLY;UNTIL=19971224T000000Z;BYDAY=1FR", "19970905T090000Z", "19970101T000000Z", "19990101T000000Z",
+            "19970905T090000Z,19971003T090000Z,19971107T090000Z,19971205T090000Z"},
+        {"FREQ=MONTHLY;INTERVAL=2;COUNT=10;BYDAY=1SU,-1SU", "19970907T090000Z", "19970101T000000Z", "19990101T000000Z",
+            "19970907T090000Z,19970928T090000Z,19971102T090000Z,19971130T090000Z," +
+            "19980104T090000Z,19980125T090000Z,19980301T090000Z,19980329T090000Z," +
+            "19980503T090000Z,19980531T090000Z"},
+        {"FREQ=MONTHLY;COUNT=6;BYDAY=-2MO", "19970922T090000Z", "19970101T000000Z", "19990101T000000Z",
+            "19970922T090000Z,19971020T090000Z,19971117T090000Z,19971222T090000Z," +
+            "19980119T090000Z,19980216T090000Z"},
+        {"FREQ=MONTHLY;BYMONTHDAY=-3", "19970928T090000Z", "19970101T000000Z", "19980301T000000Z",
+            "19970928T090000Z,19971029T090000Z,19971128T090000Z,19971229T090000Z," +
+            "19980129T090000Z,19980226T090000Z"},
+        {"FREQ=MONTHLY;COUNT=10;BYMONTHDAY=2,15", "19970902T090000Z", "19970101T000000Z", "19990101T000000Z",
+            "19970902T090000Z,19970915T090000Z,19971002T090000Z,19971015T090000Z," +
+            "19971102T090000Z,19971115T090000Z,19971202T090000Z,19971215T090000Z," +
+            "19980102T090000Z,19980115T090000Z"},
+        {"FREQ=MONTHLY;COUNT=10;BYMONTHDAY=1,-1", "19970930T090000Z", "19970101T000000Z", "19990101T000000Z",
+            "19970930T090000Z,19971001T090000Z,19971031T090000Z,19971101T090000Z," +
+            "19971130T090000Z,19971201T090000Z,19971231T090000Z,19980101T090000Z," +
+            "19980131T090000Z,19980201T090000Z"},
+        {"FREQ=MONTHLY;INTERVAL=18;COUNT=10;BYMONTHDAY=10,11,12,13,14,15", "19970910T090000Z", "19970101T000000Z", "20000101T000000Z",
+            "19970910T090000Z,19970911T090000Z,19970912T090000Z,19970913T090000Z," +
+            "19970914T090000Z,19970915T090000Z,19990310T090000Z,19990311T090000Z," +
+            "19990312T090000Z,19990313T090000Z"},
+        {"FREQ=MONTHLY;INTERVAL=2;BYDAY=TU", "19970902T090000Z", "19970101T000000Z", "19980401T000000Z",
+            "19970902T090000Z,19970909T090000Z,19970916T090000Z,19970923T090000Z," +
+            "19970930T090000Z,19971104T090000Z,19971111T090000Z,19971118T090000Z," +
+            "19971125T090000Z,19980106T090000Z,19980113T090000Z,19980120T090000Z," +
+            "19980127T090000Z,19980303T090000Z,19980310T090000Z,19980317T090000Z," +
+            "19980324T090000Z,19980331T090000Z"},
+        {"FREQ=YEARLY;COUNT=10;BYMONTH=6,7", "19970610T090000Z", "19970101T000000Z", "20030101T000000Z",
+            "19970610T090000Z,19970710T090000Z,19980610T090000Z,19980710T090000Z," +
+            "19990610T090000Z,19990710T090000Z,20000610T090000Z,20000710T090000Z," +
+            "20010610T090000Z,20010710T090000Z"},
+        {"FREQ=YEARLY;INTERVAL=2;COUNT=10;BYMONTH=1,2,3", "19970310T090000Z", "19970101T000000Z", "20050101T000000Z",
+            "19970310T090000Z,19990110T090000Z,19990210T090000Z,19990310T090000Z," +
+            "20010110T090000Z,20010210T090000Z,20010310T090000Z,20030110T090000Z," +
+            "20030210T090000Z,20030310T090000Z"},
+        {"FREQ=YEARLY;INTERVAL=3;COUNT=10;BYYEARDAY=1,100,200", "19970101T090000Z", "19970101T000000Z", "20070101T000000Z",
+            "19970101T090000Z,19970410T090000Z,19970719T090000Z,20000101T090000Z," +
+            "20000409T090000Z,20000718T090000Z,20030101T090000Z,20030410T090000Z," +
+            "20030719T090000Z,20060101T090000Z"},
+        {"FREQ=YEARLY;BYDAY=20MO", "19970519T090000Z", "19970101T000000Z", "20000101T000000Z",
+            "19970519T090000Z,19980518T090000Z,19990517T090000Z"},
+        {"FREQ=YEARLY;BYWEEKNO=20;BYDAY=MO", "19970512T090000Z", "19970101T000000Z", "20000101T000000Z",
+            "19970512T090000Z,19980518T090000Z,19990517T090000Z"},
+        {"FREQ=YEARLY;BYMONTH=3;BYDAY=TH", "19970313T090000Z", "19970101T000000Z", "20000101T000000Z",
+            "19970313T090000Z,19970320T090000Z,19970327T090000Z,19980305T090000Z," +
+            "19980312T090000Z,19980319T090000Z,19980326T090000Z,19990304T090000Z," +
+            "19990311T090000Z,19990318T090000Z,19990325T090000Z"},
+        {"FREQ=YEARLY;BYDAY=TH;BYMONTH=6,7,8", "19970605T090000Z", "19970101T000000Z", "19990101T000000Z",
+            "19970605T090000Z,19970612T090000Z,19970619T090000Z,19970626T090000Z," +
+            "19970703T090000Z,19970710T090000Z,19970717T090000Z,19970724T090000Z," +
+            "19970731T090000Z,19970807T090000Z,19970814T090000Z,19970821T090000Z," +
+            "19970828T090000Z,19980604T090000Z,19980611T090000Z,19980618T090000Z," +
+            "19980625T090000Z,19980702T090000Z,19980709T090000Z,19980716T090000Z," +
+            "19980723T090000Z,19980730T090000Z,19980806T090000Z,19980813T090000Z," +
+            "19980820T090000Z,19980827T090000Z"},
+        {"FREQ=MONTHLY;BYDAY=FR;BYMONTHDAY=13", "19970902T090000Z", "19970101T000000Z", "20010101T000000Z",
+            "19980213T090000Z,19980313T090000Z,19981113T090000Z,19990813T090000Z," +
+            "20001013T090000Z"},
+        {"FREQ=MONTHLY;BYDAY=SA;BYMONTHDAY=7,8,9,10,11,12,13", "19970913T090000Z", "19970101T000000Z", "19980701T000000Z",
+            "19970913T090000Z,19971011T090000Z,19971108T090000Z,19971213T090000Z," +
+            "19980110T090000Z,19980207T090000Z,19980307T090000Z,19980411T090000Z," +
+            "19980509T090000Z,19980613T090000Z"},
+        {"FREQ=YEARLY;INTERVAL=4;BYMONTH=11;BYDAY=TU;BYMONTHDAY=2,3,4,5,6,7,8", "19961105T090000Z", "19960101T000000Z", "20100101T000000Z",
+            "19961105T090000Z,20001107T090000Z,20041102T090000Z,20081104T090000Z"},
+        {"FREQ=MONTHLY;COUNT=3;BYDAY=TU,WE,TH;BYSETPOS=3", "19970904T090000Z", "19970101T000000Z", "19990101T000000Z",
+            "19970904T090000Z,19971007T090000Z,19971106T090000Z"},
+        {"FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-2", "19970929T090000Z", "19970101T000000Z", "19980501T000000Z",
+            "19970929T090000Z,19971030T090000Z,19971127T090000Z,19971230T090000Z," +
+            "19980129T090000Z,19980226T090000Z,19980330T090000Z,19980429T090000Z"},
+        {"FREQ=HOURLY;INTERVAL=3;UNTIL=19970902T170000Z", "19970902T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970902T120000Z,19970902T150000Z"},
+        {"FREQ=MINUTELY;INTERVAL=15;COUNT=6", "19970902T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970902T091500Z,19970902T093000Z,19970902T094500Z," +
+            "19970902T100000Z,19970902T101500Z"},
+        {"FREQ=MINUTELY;INTERVAL=90;COUNT=4", "19970902T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970902T090000Z,19970902T103000Z,19970902T120000Z,19970902T133000Z"},
+        {"FREQ=DAILY;BYHOUR=9,10,11,12,13,14,15,16;BYMINUTE=0,20,40", "19970902T090000Z", "19970902T000000Z", "19970902T130000Z",
+            "19970902T090000Z,19970902T092000Z,19970902T094000Z,19970902T100000Z," +
+            "19970902T102000Z,19970902T104000Z,19970902T110000Z,19970902T112000Z," +
+            "19970902T114000Z,19970902T120000Z,19970902T122000Z,19970902T124000Z"},
+        {"FREQ=MINUTELY;INTERVAL=20;BYHOUR=9,10,11,12,13,14,15,16", "19970902T090000Z", "19970902T000000Z", "19970902T113000Z",
+            "19970902T090000Z,19970902T100000Z,19970902T110000Z"},
+        {"FREQ=WEEKLY;INTERVAL=2;COUNT=4;BYDAY=TU,SU;WKST=MO", "19970805T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970805T090000Z,19970810T090000Z,19970819T090000Z,19970824T090000Z"},
+        {"FREQ=WEEKLY;INTERVAL=2;COUNT=4;BYDAY=TU,SU;WKST=SU", "19970805T090000Z", "19970101T000000Z", "19980101T000000Z",
+            "19970805T090000Z,19970810T090000Z,19970819T090000Z,19970824T090000Z"},
+        {"FREQ=MONTHLY;BYMONTHDAY=15,30;COUNT=5", "20070115T090000Z", "20070101T000000Z", "20080101T000000Z",
+            "20070115T090000Z,20070130T090000Z,20070215T090000Z,20070302T090000Z," +
+            "20070315T090000Z"},
+        {"FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=29", "20000229T090000Z", "20000101T000000Z", "20130101T000000Z",
+            "20000229T090000Z,20010301T090000Z,20020301T090000Z,20030301T090000Z," +
+            "20040229T090000Z,20050301T090000Z,20060301T090000Z,20070301T090000Z," +
+            "20080229T090000Z,20090301T090000Z,20100301T090000Z,20110301T090000Z," +
+            "20120229T090000Z"},
+        {"FREQ=SECONDLY;INTERVAL=30;COUNT=5", "20070101T235900Z", "20070101T000000Z", "20070103T000000Z",
+            "20070101T235900Z,20070101T235930Z,20070102T000000Z,20070102T000030Z," +
+            "20070102T000100Z"},
+        {"FREQ=HOURLY;BYMINUTE=15,45;BYSECOND=0,30", "20070101T090000Z", "20070101T090000Z", "20070101T120000Z",
+            "20070101T091500Z,20070101T091530Z,20070101T094500Z,20070101T094530Z," +
+            "20070101T101500Z,20070101T101530Z,20070101T104500Z,20070101T104530Z," +
+            "20070101T111500Z,20070101T111530Z,20070101T114500Z,20070101T114530Z"},
+        {"FREQ=DAILY;BYDAY=MO,WE,FR;BYHOUR=8,17", "20070101T080000Z", "20070101T000000Z", "20070115T000000Z",
+            "20070101T080000Z,20070101T170000Z,20070103T080000Z,20070103T170000Z," +
+            "20070105T080000Z,20070105T170000Z,20070108T080000Z,20070108T170000Z," +
+            "20070110T080000Z,20070110T170000Z,20070112T080000Z,20070112T170000Z"},
+        {"FREQ=YEARLY;BYYEARDAY=-1,-306", "20070101T090000Z", "20070101T000000Z", "20110101T000000Z",
+            "20070301T090000Z,20071231T090000Z,20080301T090000Z,20081231T090000Z," +
+            "20090301T090000Z,20091231T090000Z,20100301T090000Z,20101231T090000Z"},
+        {"FREQ=YEARLY;BYWEEKNO=1,-1;BYDAY=MO", "20070101T090000Z", "20070101T000000Z", "20110101T000000Z",
+            "20070101T090000Z,20070101T090000Z,20080107T090000Z,20080107T090000Z," +
+            "20090105T090000Z,20090105T090000Z,20100104T090000Z,20100104T090000Z"},
+        {"FREQ=MONTHLY;BYSETPOS=1,-1;BYDAY=MO,TU,WE,TH,FR;COUNT=8", "20070101T090000Z", "20070101T000000Z", "20080101T000000Z",
+            "20070101T090000Z,20070131T090000Z,20070201T090000Z,20070228T090000Z," +
+            "20070301T090000Z,20070330T090000Z,20070402T090000Z,20070430T090000Z"},
+        {"FREQ=WEEKLY;BYDAY=MO;BYHOUR=9;BYMINUTE=30;COUNT=4", "20070101T093000Z", "20070110T000000Z", "20080101T000000Z",
+            "20070115T093000Z,20070122T093000Z"},
+        {"FREQ=DAILY;COUNT=5", "20070101T090000Z", "20070103T000000Z", "20080101T000000Z",
+            "20070103T090000Z,20070104T090000Z,20070105T090000Z"},
+        {"FREQ=WEEKLY;UNTIL=20070201", "20070101", "20070101", "20080101",
+            "20070101,20070108,20070115,20070122,20070129"},
+        {"FREQ=MONTHLY;BYMONTHDAY=31", "20070131", "20070101", "20080101",
+            "20070131,20070303,20070331,20070501,20070531,20070701," +
+            "20070731,20070831,20071001,20071031,20071201,20071231"},
+        {"FREQ=YEARLY;BYMONTH=1,7;BYDAY=1MO,-1FR", "20070101", "20070101", "20090101",
+            "20070101,20070126,20070702,20070727,20080107,20080125," +
+            "20080707,20080725"}
+    };
+
+    /**
+     * @param value a date or date-time string
+     * @return a date-time where the specified value includes a time, otherwise a date
+     * @throws ParseException where the specified value is invalid
+     */
+    private static Date createDate(final String value) throws ParseException {
+        if (value.indexOf('T') > 0) {
+            return new DateTime(value);
+        }
+        return new Date(value);
+    }
+
+    /**
+     * @param value a date or date-time string
+     * @return the type of the specified value
+     */
+    private static Value getValue(final String value) {
+        if (value.indexOf('T') > 0) {
+            return Value.DATE_TIME;
+        }
+        return Value.DATE;
+    }
+
+    /**
+     * Dates expanded from a compiled recur are equal to those expected.
+     */
+    public void testGetDates() throws ParseException {
+        for (int i = 0; i < CASES.length; i++) {
+            CompiledRecur recur = new Recur(CASES[i][0]).compile();
+            DateList dates = recur.getDates(createDate(CASES[i][1]), createDate(CASES[i][2]),
+                    createDate(CASES[i][3]), getValue(CASES[i][1]));
+            assertEquals(CASES[i][0], CASES[i][4], dates.toString());
+        }
+    }
+
+    /**
+     * Dates expanded from a recur and from a period are equal to those expected.
+     */
+    public void testRecurGetDates() throws ParseException {
+        for (int i = 0; i < CASES.length; i++) {
+            Recur recur = new Recur(CASES[i][0]);
+            Date seed = createDate(CASES[i][1]);
+            DateList dates = recur.getDates(seed, createDate(CASES[i][2]), createDate(CASES[i][3]),
+                    getValue(CASES[i][1]));
+            assertEquals(CASES[i][0], CASES[i][4], dates.toString());
+
+            if (seed instanceof DateTime) {
+                Period period = new Period((DateTime) createDate(CASES[i][2]), (DateTime) createDate(CASES[i][3]));
+                dates = recur.getDates(seed, period, getValue(CASES[i][1]));
+                assertEquals(CASES[i][0], CASES[i][4], dates.toString());
+            }
+        }
+    }
+
+    /**
+     * Dates returned by an iterator prior to the period end are equal to those expected.
+     */
+    public void testIterator() throws ParseException {
+        for (int i = 0; i < CASES.length; i++) {
+            CompiledRecur recur = new Recur(CASES[i][0]).compile();
+            Date seed = createDate(CASES[i][1]);
+            Date periodEnd = createDate(CASES[i][3]);
+            DateList dates = new DateList(getValue(CASES[i][1]));
+            if (seed instanceof DateTime) {
+                dates.setUtc(true);
+            }
+            for (Iterator j = recur.iterator(seed, createDate(CASES[i][2]), getValue(CASES[i][1])); j.hasNext();) {
+                Date date = (Date) j.next();
+                if (!date.before(periodEnd)) {
+                    break;
+                }
+                dates.add(date);
+            }
+            Collections.sort(dates);
+            assertEquals(CASES[i][0], CASES[i][4], dates.toString());
+        }
+    }
+
+    /**
+     * A compiled recur is stale once the recur from which it was compiled is modified.
+     */
+    public void testIsCompiledFrom() throws ParseException {
+        Recur recur = new Recur("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-2");
+        CompiledRecur compiled = recur.compile();
+        assertTrue(compiled.isCompiledFrom(recur));
+        assertTrue(compiled.isCompiledFrom(new Recur(recur.toString())));
+
+        recur.getSetPosList().add(Integer.valueOf(1));
+        assertFalse(compiled.isCompiledFrom(recur));
+        assertTrue(recur.compile().isCompiledFrom(recur));
+
+        recur = new Recur("FREQ=YEARLY;BYMONTH=1");
+        compiled = recur.compile();
+        recur.getDayList().add(WeekDay.MO);
+        assertFalse(compiled.isCompiledFrom(recur));
+
+        recur = new Recur("FREQ=DAILY;COUNT=5");
+        compiled = recur.compile();
+        recur.setInterval(2);
+        assertFalse(compiled.isCompiledFrom(recur));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model;
+
+import java.util.Iterator;
+
+import junit.framework.TestCase;
+import net.fortuna.ical4j.model.component.VEvent;
+import net.fortuna.ical4j.model.property.Uid;
+
+/**
+ * Unit tests for {@link ComponentList}.
+ * @author Ben Fortuna
+ */
+public class ComponentListTest extends TestCase {
+
+    /**
+     * @param uid a unique identifier
+     * @return an event with the specified identifier
+     */
+    private VEvent createEvent(final String uid) {
+        VEvent event = new VEvent();
+        event.getProperties().add(new Uid(uid));
+        return event;
+    }
+
+    /**
+     * Components retrieved by identifier are not affected by subsequent modification of the list.
+     */
+    public void testGetComponentsSnapshot() {
+        ComponentList list = new ComponentList();
+        VEvent event = createEvent("1");
+        list.add(event);
+        list.add(createEvent("2"));
+
+        ComponentList components = list.getComponents(Component.VEVENT, "1");
+        assertEquals(1, components.size());
+
+        // iterate while modifying the list..
+        for (Iterator i = components.iterator(); i.hasNext();) {
+            i.next();
+            list.add(createEvent("1"));
+            list.remove(event);
+        }
+        assertEquals(1, components.size());
+        assertSame(event, components.get(0));
+        assertEquals(1, list.getComponents(Component.VEVENT, "1").size());
+        assertNotSame(event, list.getComponents(Component.VEVENT, "1").get(0));
+    }
+
+    /**
+     * Components retrieved by identifier may not be modified.
+     */
+    public void testGetComponentsUnmodifiable() {
+        ComponentList list = new ComponentList();
+        list.add(createEvent("1"));
+        try {
+            list.getComponents(Component.VEVENT, "1").add(createEvent("1"));
+            fail("UnsupportedOperationException not thrown");
+        }
+        catch (UnsupportedOperationException uoe) {
+            assertEquals(1, list.getComponents(Component.VEVENT, "1").size());
+        }
+    }
+
+    /**
+     * The index is updated as components are added and removed.
+     */
+    public void testGetComponent() {
+        ComponentList list = new ComponentList();
+        VEvent event = createEvent("1");
+        list.add(event);
+        ComponentKey key = ComponentKey.getInstance(event);
+        assertSame(event, list.getComponent(key));
+
+        VEvent other = createEvent("1");
+        list.add(other);
+        assertSame(event, list.getComponent(key));
+        list.remove(event);
+        assertSame(other, list.getComponent(key));
+        list.clear();
+        assertNull(list.getComponent(key));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model;
+
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+import net.fortuna.ical4j.model.property.Comment;
+import net.fortuna.ical4j.model.property.Summary;
+
+/**
+ * Unit tests for {@link PropertyList}.
+ * @author Ben Fortuna
+ */
+public class PropertyListTest extends TestCase {
+
+    /**
+     * Retrieval by name reflects properties appended to and removed from the list, and previously retrieved lists are
+     * not modified.
+     */
+    public void testGetPropertiesAfterModification() {
+        PropertyList list = new PropertyList();
+        Comment comment = new Comment("1");
+        list.add(comment);
+        PropertyList comments = list.getProperties(Property.COMMENT);
+        assertEquals(1, comments.size());
+        assertNull(list.getProperty(Property.SUMMARY));
+
+        Comment comment2 = new Comment("2");
+        Summary summary = new Summary("summary");
+        list.add(comment2);
+        list.addAll(Arrays.asList(new Property[] {summary, new Comment("3")}));
+        assertEquals(1, comments.size());
+        assertEquals(3, list.getPropertyCount(Property.COMMENT));
+        assertSame(summary, list.getProperty("summary"));
+
+        list.remove(comment);
+        assertEquals(1, comments.size());
+        assertSame(comment2, list.getProperty(Property.COMMENT));
+        assertEquals(2, list.getPropertyCount(Property.COMMENT));
+
+        list.remove(summary);
+        assertNull(list.getProperty(Property.SUMMARY));
+
+        list.add(0, summary);
+        assertSame(summary, list.getProperty(Property.SUMMARY));
+        list.clear();
+        assertEquals(0, list.getPropertyCount(Property.COMMENT));
+    }
+
+    /**
+     * Properties retrieved by name may not be modified.
+     */
+    public void testGetPropertiesUnmodifiable() {
+        PropertyList list = new PropertyList();
+        list.add(new Comment("1"));
+        try {
+            list.getProperties(Property.COMMENT).add(new Comment("2"));
+            fail("UnsupportedOperationException not thrown");
+        }
+        catch (UnsupportedOperationException uoe) {
+            assertEquals(1, list.getPropertyCount(Property.COMMENT));
+        }
+    }
+}
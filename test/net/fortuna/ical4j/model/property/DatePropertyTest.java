@@ -0,0 +1,73 @@
+/*
+ * $Id$
+ *
+ * Copyright (c) 2007, Ben Fortuna
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ *  o Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *
+ *  o Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ *  o Neither the name of Ben Fortuna nor the names of any other contributors
+ * may be used to endorse or promote products derived from this software
+ * without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ * A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.fortuna.ical4j.model.property;
+
+import junit.framework.TestCase;
+
+/**
+ * Unit tests for {@link DateProperty}.
+ * @author Ben Fortuna
+ */
+public class DatePropertyTest extends TestCase {
+
+    /**
+     * A formatted value retained for a deferred value is discarded when the parsed value is accessed.
+     */
+    public void testDeferredValueModified() throws Exception {
+        DtStart start = new DtStart();
+        start.setDeferredValue("20070101T090000Z");
+        DtStart copy = new DtStart();
+        copy.setValue("20070101T090000Z");
+        assertEquals(copy.hashCode(), start.hashCode());
+        assertEquals(copy, start);
+
+        start.getDate().setTime(0);
+        assertEquals("19700101T000000Z", start.getValue());
+        assertFalse(copy.equals(start));
+        assertEquals(new DtStart(start.getDate()).hashCode(), start.hashCode());
+    }
+
+    /**
+     * A parsed value is formatted on every comparison, as it may be modified via a reference held by the caller.
+     */
+    public void testParsedValueModified() throws Exception {
+        DtStart start = new DtStart();
+        start.setValue("20070101T090000Z");
+        int hash = start.hashCode();
+        start.getDate().setTime(0);
+        assertFalse(hash == start.hashCode());
+        start.setValue("20070101T090000Z");
+        assertEquals(hash, start.hashCode());
+    }
+}